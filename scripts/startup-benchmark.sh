@@ -0,0 +1,107 @@
+#!/usr/bin/env bash
+#
+# Startup-time benchmark for notification-service.
+#
+# Starts the packaged service RUNS times in each mode and records the time
+# Spring Boot reports in "Started NotificationServiceApplication in X seconds":
+#
+#   default    java -jar, active profiles unchanged
+#   faststart  java -jar with the faststart profile
+#   appcds     faststart from the unpacked jar with an AppCDS archive
+#              (the same layout the Dockerfile builds)
+#
+# Results are appended to target/startup-benchmark.csv (timestamp, commit,
+# mode, run, seconds) so runs can be compared across commits. The service
+# needs the same environment it normally starts against (config server or
+# local properties, MariaDB, Kafka, Redis); pass extra JVM/Spring options
+# through JAVA_OPTS.
+#
+# Usage: mvn -B -DskipTests package && scripts/startup-benchmark.sh
+#        RUNS=10 MODES="default appcds" scripts/startup-benchmark.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-target/notification-service-0.0.1-SNAPSHOT.jar}
+RUNS=${RUNS:-5}
+MODES=${MODES:-"default faststart appcds"}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-180}
+JAVA_OPTS=${JAVA_OPTS:-}
+PROFILES=${PROFILES:-$(grep -E '^spring.profiles.active=' src/main/resources/application.properties | cut -d= -f2)}
+MAIN_CLASS=com.odin.notification.NotificationServiceApplication
+CDS_DIR=target/appcds
+RESULTS=target/startup-benchmark.csv
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+
+[ -f "$JAR" ] || { echo "Missing $JAR — run: mvn -B -DskipTests package" >&2; exit 1; }
+[ -f "$RESULTS" ] || echo "timestamp,commit,mode,run,seconds" > "$RESULTS"
+
+prepare_appcds() {
+    rm -rf "$CDS_DIR" && mkdir -p "$CDS_DIR/exploded" "$CDS_DIR/lib"
+    (cd "$CDS_DIR/exploded" && jar -xf "../../../$JAR")
+    mv "$CDS_DIR"/exploded/BOOT-INF/lib/*.jar "$CDS_DIR/lib/"
+    jar -cf "$CDS_DIR/application.jar" -C "$CDS_DIR/exploded/BOOT-INF/classes" .
+    rm -rf "$CDS_DIR/exploded"
+    (cd "$CDS_DIR" && echo "-cp application.jar:$(ls lib/*.jar | sort | tr '\n' ':' | sed 's/:$//')" > classpath.args)
+    echo "Recording AppCDS archive..."
+    (cd "$CDS_DIR" && java -XX:ArchiveClassesAtExit=app.jsa @classpath.args $JAVA_OPTS \
+        -Dspring.profiles.active="$PROFILES,faststart" -Dfaststart.training-run=true \
+        "$MAIN_CLASS" > training.log 2>&1 && test -s app.jsa) \
+        || { echo "AppCDS training run failed or wrote no archive, see $CDS_DIR/training.log" >&2; exit 1; }
+}
+
+# Prints the "Started ... in X seconds" value, or nothing on timeout/failure
+measure() {
+    local log
+    log=$(mktemp)
+    "$@" > "$log" 2>&1 &
+    local pid=$!
+    local seconds=""
+    for _ in $(seq 1 $((TIMEOUT_SECONDS * 2))); do
+        seconds=$(sed -n 's/.*Started NotificationServiceApplication in \([0-9.]*\) seconds.*/\1/p' "$log" | head -1)
+        if [ -n "$seconds" ] || ! kill -0 "$pid" 2>/dev/null; then
+            break
+        fi
+        sleep 0.5
+    done
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+    echo "$seconds"
+}
+
+run_mode() {
+    local mode=$1 run=$2
+    case "$mode" in
+        default)
+            measure java $JAVA_OPTS -jar "$JAR" ;;
+        faststart)
+            measure java $JAVA_OPTS -Dspring.profiles.active="$PROFILES,faststart" -jar "$JAR" ;;
+        appcds)
+            (cd "$CDS_DIR" && measure java -XX:SharedArchiveFile=app.jsa -Xshare:auto @classpath.args $JAVA_OPTS \
+                -Dspring.profiles.active="$PROFILES,faststart" "$MAIN_CLASS") ;;
+        *)
+            echo "Unknown mode $mode" >&2; return 1 ;;
+    esac
+}
+
+case " $MODES " in *" appcds "*) prepare_appcds ;; esac
+
+for mode in $MODES; do
+    total=0 ok=0
+    for run in $(seq 1 "$RUNS"); do
+        seconds=$(run_mode "$mode" "$run")
+        if [ -z "$seconds" ]; then
+            echo "$mode run $run: did not start within ${TIMEOUT_SECONDS}s" >&2
+            continue
+        fi
+        echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$COMMIT,$mode,$run,$seconds" >> "$RESULTS"
+        total=$(awk "BEGIN {print $total + $seconds}")
+        ok=$((ok + 1))
+        echo "$mode run $run: ${seconds}s"
+    done
+    if [ "$ok" -gt 0 ]; then
+        echo "$mode mean: $(awk "BEGIN {printf \"%.2f\", $total / $ok}")s over $ok run(s)"
+    fi
+done
+echo "Results appended to $RESULTS"
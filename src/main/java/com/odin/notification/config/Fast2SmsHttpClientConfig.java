@@ -0,0 +1,78 @@
+package com.odin.notification.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HTTP client used for the Fast2SMS gateway.
+ *
+ * Replaces the default SimpleClientHttpRequestFactory (no pooling, no timeouts)
+ * with a pooled Apache HttpClient:
+ *   - per-route and total connection limits, so keep-alive connections to the
+ *     gateway are reused instead of re-handshaking TLS per OTP
+ *   - strict connect / connection-request / read timeouts, so a slow gateway
+ *     fails fast instead of stalling the OTP listener thread indefinitely
+ *   - idle and expired connections are evicted in the background
+ */
+@Slf4j
+@Configuration
+public class Fast2SmsHttpClientConfig {
+
+    @Value("${fast2sms.http.max-total:50}")
+    private int maxTotal;
+
+    @Value("${fast2sms.http.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${fast2sms.http.connect-timeout.ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${fast2sms.http.connection-request-timeout.ms:1000}")
+    private int connectionRequestTimeoutMs;
+
+    @Value("${fast2sms.http.read-timeout.ms:5000}")
+    private int readTimeoutMs;
+
+    @Value("${fast2sms.http.idle-eviction.seconds:30}")
+    private long idleEvictionSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient fast2SmsHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .build();
+
+        log.info("Initializing Fast2SMS HTTP client — maxTotal={}, maxPerRoute={}, connectTimeout={}ms, readTimeout={}ms",
+                maxTotal, maxPerRoute, connectTimeoutMs, readTimeoutMs);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictionSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Bean("fast2SmsRestTemplate")
+    public RestTemplate fast2SmsRestTemplate(CloseableHttpClient fast2SmsHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(fast2SmsHttpClient));
+    }
+}
@@ -0,0 +1,62 @@
+package com.odin.notification.config;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Beans active only in the "faststart" profile (application-faststart.properties).
+ *
+ * Provider clients that the Kafka push path never touches at startup are
+ * turned into lazy beans (faststart.lazy-beans: MailerSend/SMTP e-mail,
+ * FreeMarker, APNs). Their injection points are already @Lazy, so outside
+ * this profile nothing changes; inside it they are created on first use —
+ * for APNs that is the warm-up phase, after the context is up.
+ *
+ * faststart.training-run=true makes the JVM exit as soon as the context has
+ * started; the Docker build uses it to record the AppCDS archive.
+ */
+@Slf4j
+@Profile("faststart")
+@Configuration
+public class FastStartConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor fastStartLazyBeans(Environment environment) {
+        String[] names = environment.getProperty("faststart.lazy-beans", String[].class, new String[0]);
+        return beanFactory -> markLazy(beanFactory, names);
+    }
+
+    private static void markLazy(ConfigurableListableBeanFactory beanFactory, String[] names) {
+        for (String name : names) {
+            if (beanFactory.containsBeanDefinition(name)) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                definition.setLazyInit(true);
+            } else {
+                log.debug("[FASTSTART] No bean named '{}' to make lazy", name);
+            }
+        }
+        log.info("[FASTSTART] Lazy beans: {}", Arrays.toString(names));
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationStartedEvent> fastStartTrainingRunExit(Environment environment) {
+        return event -> {
+            if (environment.getProperty("faststart.training-run", Boolean.class, false)) {
+                log.info("[FASTSTART] Training run complete, exiting so the class-data archive is written");
+                System.exit(SpringApplication.exit(event.getApplicationContext()));
+            }
+        };
+    }
+}
@@ -11,12 +11,16 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.messaging.FirebaseMessaging;
+import com.odin.notification.util.FcmTransport;
+import com.odin.notification.util.Http2FcmTransport;
+import com.odin.notification.util.SdkFcmTransport;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Firebase Cloud Messaging (FCM) Configuration
- * Initializes the Firebase Admin SDK with service account credentials
+ * Initializes the Firebase Admin SDK with service account credentials, and
+ * the data-only push transport selected by fcm.transport (sdk | http2).
  */
 @Slf4j
 @Configuration
@@ -28,35 +32,58 @@ public class FcmConfig {
     @Value("${fcm.project-id}")
     private String projectId;
 
+    @Value("${fcm.transport:sdk}")
+    private String transport;
+
+    @Value("${fcm.http2.base-url:https://fcm.googleapis.com}")
+    private String http2BaseUrl;
+
+    @Value("${fcm.http2.connect.timeout.ms:5000}")
+    private long http2ConnectTimeoutMs;
+
+    @Value("${fcm.http2.request.timeout.ms:10000}")
+    private long http2RequestTimeoutMs;
+
+    @Value("${fcm.http2.token.refresh-margin.seconds:300}")
+    private long http2TokenRefreshMarginSeconds;
+
+    /**
+     * Service account credentials, loaded once and shared by the Firebase
+     * Admin SDK and the HTTP/2 transport
+     * @return GoogleCredentials from fcm.service-account-path
+     * @throws IOException if service account file cannot be read
+     */
+    @Bean
+    public GoogleCredentials firebaseCredentials() throws IOException {
+        try (FileInputStream in = new FileInputStream(serviceAccountPath)) {
+            return GoogleCredentials.fromStream(in);
+        } catch (IOException e) {
+            log.error("Failed to initialize Firebase Admin SDK. Service account file not found at: {}", 
+                    serviceAccountPath);
+            log.error("Error details: {}", e.getMessage());
+            throw new IOException("Failed to initialize Firebase Admin SDK. " +
+                    "Please ensure the service account JSON file exists at: " + serviceAccountPath, e);
+        }
+    }
+
     /**
      * Initialize Firebase Admin SDK
+     * @param firebaseCredentials The service account credentials
      * @return FirebaseApp instance
-     * @throws IOException if service account file cannot be read
      */
     @Bean
-    public FirebaseApp firebaseApp() throws IOException {
+    public FirebaseApp firebaseApp(GoogleCredentials firebaseCredentials) {
         log.info("Initializing Firebase Admin SDK with service account from: {}", serviceAccountPath);
 
         // Check if Firebase app is already initialized
         if (FirebaseApp.getApps().isEmpty()) {
-            try {
-                GoogleCredentials credentials = GoogleCredentials
-                        .fromStream(new FileInputStream(serviceAccountPath));
-
-                FirebaseOptions options = FirebaseOptions.builder()
-                        .setCredentials(credentials)
-                        .setProjectId(projectId)
-                        .build();
-
-                FirebaseApp.initializeApp(options);
-                log.info("Firebase Admin SDK initialized successfully with project: {}", projectId);
-            } catch (IOException e) {
-                log.error("Failed to initialize Firebase Admin SDK. Service account file not found at: {}", 
-                        serviceAccountPath);
-                log.error("Error details: {}", e.getMessage());
-                throw new IOException("Failed to initialize Firebase Admin SDK. " +
-                        "Please ensure the service account JSON file exists at: " + serviceAccountPath, e);
-            }
+            FirebaseOptions options = FirebaseOptions.builder()
+                    .setCredentials(firebaseCredentials)
+                    .setProjectId(projectId)
+                    .build();
+
+            FirebaseApp.initializeApp(options);
+            log.info("Firebase Admin SDK initialized successfully with project: {}", projectId);
         } else {
             log.debug("Firebase Admin SDK already initialized");
         }
@@ -74,6 +101,22 @@ public class FcmConfig {
         log.debug("Creating FirebaseMessaging bean");
         return FirebaseMessaging.getInstance();
     }
-}
-
 
+    /**
+     * Transport for data-only pushes, selected by fcm.transport so the SDK and
+     * direct HTTP/2 paths can be compared under the same load
+     * @return the configured FcmTransport
+     */
+    @Bean
+    public FcmTransport fcmTransport(FirebaseMessaging firebaseMessaging, GoogleCredentials firebaseCredentials) {
+        if ("http2".equalsIgnoreCase(transport)) {
+            log.info("FCM data-only pushes use the direct HTTP/2 v1 transport");
+            return new Http2FcmTransport(firebaseCredentials, http2BaseUrl, projectId,
+                    http2ConnectTimeoutMs, http2RequestTimeoutMs, http2TokenRefreshMarginSeconds);
+        }
+        if (!"sdk".equalsIgnoreCase(transport)) {
+            log.warn("Unknown fcm.transport '{}', using the Firebase Admin SDK", transport);
+        }
+        return new SdkFcmTransport(firebaseMessaging);
+    }
+}
@@ -2,6 +2,7 @@ package com.odin.notification.config;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -12,13 +13,22 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.CommonLoggingErrorHandler;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import com.odin.notification.dto.NotificationDTO;
 import com.odin.notification.dto.PrivacyVisibilityChangeEvent;
 import com.odin.notification.dto.AccountDeletionEvent;
 
+import lombok.extern.slf4j.Slf4j;
 
+
+@Slf4j
 @EnableKafka
 @Configuration
 public class KafkaConsumerConfig {
@@ -38,6 +48,21 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.trusted-packages}")
     private String trustedPackages;
 
+    // When warm-up is on, containers are created stopped and started by ConsumerWarmupRunner
+    @Value("${warmup.enabled:true}")
+    private boolean warmupEnabled;
+
+    // Listener-thread waits are capped well below this (see DownstreamBackpressure)
+    @Value("${kafka.consumer.max-poll-interval.ms:300000}")
+    private int maxPollIntervalMs;
+
+    // Retries must outlast account.deletion.fanout.claim.ttl.seconds (see AccountDeletionNotificationServiceImpl)
+    @Value("${account.deletion.retry.backoff.ms:5000}")
+    private long accountDeletionRetryBackoffMs;
+
+    @Value("${account.deletion.retry.max-attempts:36}")
+    private long accountDeletionRetryMaxAttempts;
+
     @Bean
     public ConsumerFactory<String, NotificationDTO> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -45,6 +70,7 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, keyDeserializer);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, valueDeserializer);
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, maxPollIntervalMs);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, trustedPackages);
         return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
                 new JsonDeserializer<>(NotificationDTO.class, false));
@@ -55,9 +81,85 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, NotificationDTO> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setAutoStartup(!warmupEnabled);
         return factory;
     }
 
+    /**
+     * Listener container factory for NotificationDTO topics whose records are
+     * handed to a {@link com.odin.notification.util.ConsumerBulkhead}.
+     * The listener returns before the record is processed, so offsets are
+     * acknowledged manually by the bulkhead once the work is done; async acks
+     * let those acknowledgements arrive out of order and the container commits
+     * only up to the lowest offset that has no gap below it.
+     */
+    @Bean("bulkheadListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<String, NotificationDTO> bulkheadListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, NotificationDTO> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        useBulkheadAcks(factory);
+        factory.setAutoStartup(!warmupEnabled);
+        return factory;
+    }
+
+    /**
+     * Manual async acks for listeners that hand records to a bulkhead.
+     *
+     * With async acks a listener must never throw: the container keeps the
+     * failed record's offset pending (and, with a seeking error handler, the
+     * offsets of every record sought back) and pauses the partition until
+     * those acks arrive, which they never do. Listener failures are therefore
+     * logged and acknowledged here, skipping the record as the default error
+     * handler did after its retries.
+     *
+     * The one exception is a bulkhead that has been shut down: the container
+     * is stopping, so the record is left unacknowledged for the next owner of
+     * the partition, and the error handler must not acknowledge it either.
+     */
+    private static <V> void useBulkheadAcks(ConcurrentKafkaListenerContainerFactory<String, V> factory) {
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setAsyncAcks(true);
+
+        CommonLoggingErrorHandler errorHandler = new CommonLoggingErrorHandler();
+        errorHandler.setAckAfterHandle(false);
+        factory.setCommonErrorHandler(errorHandler);
+        factory.setContainerCustomizer(KafkaConsumerConfig::acknowledgeListenerFailures);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void acknowledgeListenerFailures(ConcurrentMessageListenerContainer<String, V> container) {
+        Object listener = container.getContainerProperties().getMessageListener();
+        if (!(listener instanceof AcknowledgingConsumerAwareMessageListener)) {
+            return;
+        }
+        AcknowledgingConsumerAwareMessageListener<String, V> delegate =
+                (AcknowledgingConsumerAwareMessageListener<String, V>) listener;
+        container.getContainerProperties().setMessageListener(
+                (AcknowledgingConsumerAwareMessageListener<String, V>) (record, ack, consumer) -> {
+                    try {
+                        delegate.onMessage(record, ack, consumer);
+                    } catch (RuntimeException e) {
+                        if (isBulkheadShutdown(e)) {
+                            throw e;
+                        }
+                        log.error("[KAFKA] Listener failed for {}-{}@{}, record skipped: {}",
+                                record.topic(), record.partition(), record.offset(), e.getMessage(), e);
+                        ack.acknowledge();
+                    }
+                });
+    }
+
+    private static boolean isBulkheadShutdown(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Consumer factory specifically for PrivacyVisibilityChangeEvent deserialization.
      * This separate factory ensures privacy change events are properly deserialized
@@ -82,12 +184,14 @@ public class KafkaConsumerConfig {
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, PrivacyVisibilityChangeEvent.class.getName());
         props.put(JsonDeserializer.TRUSTED_PACKAGES, trustedPackages);
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, maxPollIntervalMs);
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
     /**
      * Listener container factory for privacy visibility change events.
      * Must be explicitly used by @KafkaListener for privacy-visibility-updates topic.
+     * Records are processed on the privacy bulkhead, hence manual async acks.
      */
     @Bean("privacyVisibilityChangeListenerFactory")
     public ConcurrentKafkaListenerContainerFactory<String, PrivacyVisibilityChangeEvent>
@@ -95,6 +199,8 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, PrivacyVisibilityChangeEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(privacyVisibilityChangeConsumerFactory());
+        useBulkheadAcks(factory);
+        factory.setAutoStartup(!warmupEnabled);
         return factory;
     }
 
@@ -120,6 +226,8 @@ public class KafkaConsumerConfig {
     /**
      * Listener container factory for account deletion events.
      * Must be explicitly referenced by @KafkaListener for the account.deletion topic.
+     * A failed record is retried every account.deletion.retry.backoff.ms, long
+     * enough for the fan-out claim of a pod that died mid fan-out to expire.
      */
     @Bean("accountDeletionListenerFactory")
     public ConcurrentKafkaListenerContainerFactory<String, AccountDeletionEvent>
@@ -127,6 +235,9 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, AccountDeletionEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(accountDeletionConsumerFactory());
+        factory.setAutoStartup(!warmupEnabled);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new FixedBackOff(accountDeletionRetryBackoffMs, accountDeletionRetryMaxAttempts)));
         return factory;
     }
 }
@@ -30,6 +30,13 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.producer.retries:3}")
     private int retries;
 
+    // Fallback sends must not stall consumer threads; FallbackPublisher spills to disk instead
+    @Value("${spring.kafka.producer.max-block-ms:500}")
+    private long maxBlockMs;
+
+    @Value("${spring.kafka.producer.buffer-memory:8388608}")
+    private long bufferMemory;
+
     @Bean
     public ProducerFactory<String, NotificationDTO> notificationProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -38,6 +45,14 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, acks);
         configProps.put(ProducerConfig.RETRIES_CONFIG, retries);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        // FallbackPublisher replays the spill journal in order; retries must not reorder a partition
+        if ("all".equals(acks) || "-1".equals(acks)) {
+            configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        } else {
+            configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+        }
 
         log.info("Initializing Kafka ProducerFactory for FCM failure fallback with bootstrapServers={}", bootstrapServers);
         return new DefaultKafkaProducerFactory<>(configProps);
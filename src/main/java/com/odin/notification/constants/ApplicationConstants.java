@@ -9,6 +9,8 @@ public class ApplicationConstants {
 	public static final String SEND = "/send";
 	public static final String EMAIL = "/email";
 	public static final String REST = "/rest";
+	public static final String HEAP_BUDGET = "/heapBudget";
+	public static final String SPILL_JOURNAL = "/spillJournal";
 
 	// ===== Kafka Topics =====
 	public static final String KAFKA_OTP_NOTIFICATION_TOPIC = "otp.notification.message";
@@ -19,6 +21,18 @@ public class ApplicationConstants {
 	public static final String KAFKA_PROFILE_PHOTO_UPDATE_TOPIC = "profile-image-updates";
 	public static final String KAFKA_ACCOUNT_DELETION_TOPIC = "account.deletion";
 
+	// ===== Kafka Listener IDs (see ListenerPauseController) =====
+	public static final String LISTENER_ID_NOTIFICATION_EVENTS = "notification-events-listener";
+	public static final String LISTENER_ID_UNDELIVERED = "undelivered-notification-listener";
+	public static final String LISTENER_ID_STATUS_UPDATE = "status-update-listener";
+	public static final String LISTENER_ID_PROFILE_PHOTO_UPDATE = "profile-photo-update-listener";
+	public static final String LISTENER_ID_PRIVACY_VISIBILITY = "privacy-visibility-listener";
+	public static final String LISTENER_ID_OTP = "otp-notification-listener";
+
+	// ===== Redis Pub/Sub Channels =====
+	public static final String REDIS_TOKEN_INVALIDATION_CHANNEL = "notification-token.invalidate";
+	public static final String REDIS_CALL_CANCEL_CHANNEL = "call.cancel";
+
 	// ===== Notification Type/ID Constants =====
 	public static final Long NOTIFICATION_ID_DIRECT_MESSAGE = 1L;
 
@@ -39,6 +53,8 @@ public class ApplicationConstants {
 	public static final String FCM_NOTIFICATION_TYPE_STATUS = "STATUS_UPDATE";
 	public static final String FCM_NOTIFICATION_TYPE_STATUS_DELETE = "STATUS_DELETE";
 	public static final String FCM_NOTIFICATION_TYPE_PROFILE_PHOTO_UPDATE = "PROFILE_PHOTO_UPDATED";
+	public static final String FCM_NOTIFICATION_TYPE_PRIVACY_CHANGE = "PRIVACY_CHANGE";
+	public static final String FCM_NOTIFICATION_TYPE_ACCOUNT_DELETED = "ACCOUNT_DELETED";
 	public static final String FCM_NOTIFICATION_SOUND_DEFAULT = "default";
 	public static final String FCM_NOTIFICATION_SOUND_NONE = "none";
 
@@ -76,6 +92,14 @@ public class ApplicationConstants {
 	public static final String LOG_SMS_OTP_SENT_SUCCESS = "OTP SMS sent successfully to mobile: {}";
 	public static final String LOG_SMS_OTP_SENT_FAILURE = "OTP SMS sending failed for mobile: {}";
 
+	// ===== SMS DLT (bulk alert / reminder) Map Keys =====
+	public static final String SMS_DLT_MESSAGE_ID_KEY = "dltMessageId";
+	public static final String SMS_DLT_TEMPLATE_ID_KEY = "dltTemplateId";
+	public static final String SMS_DLT_VARIABLES_KEY = "variables";
+
+	// ===== Delayed Delivery (alerts / reminders) =====
+	public static final String SEND_AT_KEY = "sendAt";
+
 }
 
 
@@ -4,6 +4,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -20,6 +21,8 @@ import com.odin.notification.service.EmailService;
 @RequestMapping(ApplicationConstants.API_VERSION)
 public class EmailController {
 	
+	// Lazy so the e-mail stack can be a lazy bean in the faststart profile
+	@Lazy
 	@Autowired
 	private EmailService service;
 	
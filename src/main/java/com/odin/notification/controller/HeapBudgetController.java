@@ -0,0 +1,32 @@
+package com.odin.notification.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.odin.notification.constants.ApplicationConstants;
+import com.odin.notification.util.HeapBudgetGovernor;
+
+/**
+ * GET /v1/heapBudget — current usage of every heap budget and which
+ * listeners are paused, and why (see HeapBudgetGovernor).
+ */
+@RestController
+@RequestMapping(ApplicationConstants.API_VERSION)
+public class HeapBudgetController {
+
+	private final HeapBudgetGovernor heapBudgetGovernor;
+
+	public HeapBudgetController(HeapBudgetGovernor heapBudgetGovernor) {
+		this.heapBudgetGovernor = heapBudgetGovernor;
+	}
+
+	@GetMapping(ApplicationConstants.HEAP_BUDGET)
+	public ResponseEntity<Map<String, Object>> getHeapBudget() {
+		return new ResponseEntity<>(heapBudgetGovernor.getUsage(), HttpStatus.OK);
+	}
+}
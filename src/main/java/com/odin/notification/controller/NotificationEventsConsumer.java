@@ -3,12 +3,20 @@ package com.odin.notification.controller;
 import java.time.Duration;
 import java.util.Map;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
 import com.odin.notification.service.PushNotificationService;
+import com.odin.notification.util.CallCancellationRegistry;
+import com.odin.notification.util.ConsumerBulkheads;
+import com.odin.notification.util.FreshnessPolicy;
+import com.odin.notification.util.HeapBudgetGovernor;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,32 +25,58 @@ import lombok.extern.slf4j.Slf4j;
 public class NotificationEventsConsumer {
 
     private static final String CALL_INVITE_TYPE = "CALL_INVITE";
+    private static final String CALL_CANCEL_TYPE = "CALL_CANCEL";
     private static final String CALL_INVITE_KEY_PREFIX = "call_invite";
     private static final Duration CALL_INVITE_TTL = Duration.ofSeconds(60);
 
     private final PushNotificationService pushNotificationService;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final ConsumerBulkheads bulkheads;
+    private final FreshnessPolicy freshnessPolicy;
+    private final CallCancellationRegistry callCancellations;
+
+    @Value("${call.cancel.push.enabled:true}")
+    private boolean callCancelPushEnabled;
 
     public NotificationEventsConsumer(PushNotificationService pushNotificationService,
-            RedisTemplate<String, String> redisTemplate) {
+            ConsumerBulkheads bulkheads,
+            FreshnessPolicy freshnessPolicy,
+            CallCancellationRegistry callCancellations) {
         this.pushNotificationService = pushNotificationService;
-        this.redisTemplate = redisTemplate;
+        this.bulkheads = bulkheads;
+        this.freshnessPolicy = freshnessPolicy;
+        this.callCancellations = callCancellations;
     }
 
+    /**
+     * Validation and CALL_INVITE de-duplication run on the listener thread;
+     * the push itself runs on the chat bulkhead lane of the receiver, which
+     * keeps each receiver's events in order and acknowledges the record when
+     * done. Records skipped here are acknowledged immediately, including
+     * those past their freshness budget (e.g. CALL_INVITEs older than 60s).
+     *
+     * A CALL_CANCEL is applied here on the listener thread, ahead of anything
+     * queued on the lane: it aborts the call's in-flight send and makes queued
+     * invites for the call drop. The first CALL_CANCEL for a call is then sent
+     * as a push (call.cancel.push.enabled); repeats are acknowledged only.
+     */
     @KafkaListener(
+            id = ApplicationConstants.LISTENER_ID_NOTIFICATION_EVENTS,
             topics = "notification-events",
             groupId = "${spring.kafka.consumer.group-id}",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "bulkheadListenerContainerFactory"
     )
-    public void consumeNotificationEvent(NotificationDTO notificationDTO) {
+    public void consumeNotificationEvent(NotificationDTO notificationDTO, Acknowledgment ack,
+                                         @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long recordTimestamp) {
         if (notificationDTO == null) {
             log.warn("Received null NotificationDTO, skipping processing");
+            ack.acknowledge();
             return;
         }
 
         Map<String, Object> payload = notificationDTO.getMap();
         if (payload == null) {
             log.warn("Notification map missing for customerId={}, skipping", notificationDTO.getCustomerId());
+            ack.acknowledge();
             return;
         }
 
@@ -55,26 +89,90 @@ public class NotificationEventsConsumer {
         if (type == null || messageId == null || receiverCustomerId == null) {
             log.warn("Required fields missing, cannot process notification event: type={}, messageId={}, receiver={}",
                     type, messageId, receiverCustomerId);
+            ack.acknowledge();
+            return;
+        }
+
+        String callId = CallCancellationRegistry.callId(payload);
+        boolean cancelClaimed = false;
+        if (CALL_CANCEL_TYPE.equalsIgnoreCase(type) && callId == null) {
+            log.warn("CALL_CANCEL without callId cannot match a pending CALL_INVITE: receiver={} messageId={}",
+                    receiverCustomerId, messageId);
+            if (!callCancelPushEnabled) {
+                ack.acknowledge();
+                return;
+            }
+        } else if (CALL_CANCEL_TYPE.equalsIgnoreCase(type)) {
+            boolean first = callCancellations.cancel(receiverCustomerId, callId);
+            if (!first || !callCancelPushEnabled) {
+                log.info("CALL_CANCEL recorded for receiver={} callId={} (push={})", receiverCustomerId, callId,
+                        first ? "disabled" : "already sent");
+                ack.acknowledge();
+                return;
+            }
+            cancelClaimed = true;
+        }
+
+        if (freshnessPolicy.isExpired(notificationDTO, recordTimestamp)) {
+            ack.acknowledge();
             return;
         }
 
-        if (CALL_INVITE_TYPE.equalsIgnoreCase(type)) {
-            String redisKey = buildCallInviteKey(receiverCustomerId, messageId);
-            Boolean claimed = redisTemplate.opsForValue().setIfAbsent(redisKey, "1", CALL_INVITE_TTL);
-            if (Boolean.FALSE.equals(claimed)) {
+        boolean callInvite = CALL_INVITE_TYPE.equalsIgnoreCase(type);
+        String inviteKey = callInvite ? buildCallInviteKey(receiverCustomerId, messageId) : null;
+        if (callInvite) {
+            switch (callCancellations.claimInvite(receiverCustomerId, callId, inviteKey, CALL_INVITE_TTL)) {
+            case CANCELLED:
+                log.info("CALL_INVITE for cancelled call dropped for receiver={} callId={}", receiverCustomerId, callId);
+                callCancellations.recordAborted();
+                ack.acknowledge();
+                return;
+            case DUPLICATE:
                 log.info("Duplicate CALL_INVITE ignored for receiver={} messageId={}", receiverCustomerId, messageId);
+                ack.acknowledge();
                 return;
+            default:
+                break;
             }
         }
 
         try {
-            pushNotificationService.processPushNotification(notificationDTO);
-            log.info("Notification processed successfully for receiver={} messageId={}", receiverCustomerId, messageId);
-        } catch (Exception e) {
-            log.error("Error processing notification event messageId={}", messageId, e);
+            handOff(notificationDTO, recordTimestamp, ack, receiverCustomerId, messageId, callId, callInvite);
+        } catch (RuntimeException e) {
+            // Not acknowledged, so the record is redelivered: undo the claims it must claim again
+            if (callInvite) {
+                callCancellations.releaseInvite(inviteKey);
+            }
+            if (cancelClaimed) {
+                callCancellations.releaseCancel(receiverCustomerId, callId);
+            }
+            throw e;
         }
     }
 
+    private void handOff(NotificationDTO notificationDTO, long recordTimestamp, Acknowledgment ack,
+                         String receiverCustomerId, String messageId, String callId, boolean callInvite) {
+        bulkheads.get(ConsumerBulkheads.CHAT).execute(receiverCustomerId, () -> {
+            // Re-check: the record may have aged past its budget while queued
+            if (freshnessPolicy.isExpired(notificationDTO, recordTimestamp)) {
+                return;
+            }
+            // ...or its call may have been cancelled while it waited (local check)
+            if (callInvite && callCancellations.isCancelled(receiverCustomerId, callId)) {
+                log.info("Queued CALL_INVITE dropped, call cancelled: receiver={} callId={}", receiverCustomerId, callId);
+                callCancellations.recordAborted();
+                return;
+            }
+            try {
+                pushNotificationService.processPushNotification(notificationDTO,
+                        freshnessPolicy.deadlineFor(notificationDTO, recordTimestamp));
+                log.info("Notification processed successfully for receiver={} messageId={}", receiverCustomerId, messageId);
+            } catch (Exception e) {
+                log.error("Error processing notification event messageId={}", messageId, e);
+            }
+        }, ack, HeapBudgetGovernor.estimateBytes(notificationDTO));
+    }
+
     private String buildCallInviteKey(String receiverCustomerId, String messageId) {
         return String.format("%s:%s:%s", CALL_INVITE_KEY_PREFIX, receiverCustomerId, messageId);
     }
@@ -1,12 +1,17 @@
 package com.odin.notification.controller;
 
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
 import com.odin.notification.enums.NotificationChannel;
-import com.odin.notification.service.impl.Fast2SmsOtpService;
+import com.odin.notification.enums.NotificationType;
+import com.odin.notification.service.ReminderSchedulerService;
+import com.odin.notification.service.impl.ChannelDispatcherRegistry;
+import com.odin.notification.util.ConsumerBulkheads;
+import com.odin.notification.util.HeapBudgetGovernor;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -14,35 +19,30 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class NotificationListener {
 
-    private final Fast2SmsOtpService fast2SmsOtpService;
+    private final ChannelDispatcherRegistry channelDispatcherRegistry;
+    private final ReminderSchedulerService reminderSchedulerService;
+    private final ConsumerBulkheads bulkheads;
 
-    public NotificationListener(Fast2SmsOtpService fast2SmsOtpService) {
-        this.fast2SmsOtpService = fast2SmsOtpService;
+    public NotificationListener(ChannelDispatcherRegistry channelDispatcherRegistry,
+                                ReminderSchedulerService reminderSchedulerService,
+                                ConsumerBulkheads bulkheads) {
+        this.channelDispatcherRegistry = channelDispatcherRegistry;
+        this.reminderSchedulerService = reminderSchedulerService;
+        this.bulkheads = bulkheads;
     }
 
-    @KafkaListener(topics = ApplicationConstants.KAFKA_OTP_NOTIFICATION_TOPIC, groupId = "${spring.kafka.consumer.group-id}")
-    public void listenOtp(NotificationDTO notification) {
-        log.info("Received OTP notification: {}", notification);
+    @KafkaListener(id = ApplicationConstants.LISTENER_ID_OTP, topics = ApplicationConstants.KAFKA_OTP_NOTIFICATION_TOPIC,
+            groupId = "${spring.kafka.consumer.group-id}", containerFactory = "bulkheadListenerContainerFactory")
+    public void listenOtp(NotificationDTO notification, Acknowledgment ack) {
+        log.info("Received OTP notification: customerId={} notificationId={}",
+                notification.getCustomerId(), notification.getNotificationId());
+        bulkheads.get(ConsumerBulkheads.OTP).execute(notification.getCustomerId(), () -> handleOtp(notification), ack,
+                HeapBudgetGovernor.estimateBytes(notification));
+    }
 
+    private void handleOtp(NotificationDTO notification) {
         if (notification.getChannel() == NotificationChannel.SMS) {
-            String mobile = notification.getMobile();
-            String otp = notification.getMap() != null
-                    ? String.valueOf(notification.getMap().get("otp"))
-                    : null;
-
-            log.info(ApplicationConstants.LOG_SMS_OTP_RECEIVED, mobile);
-
-            if (mobile == null || mobile.isBlank() || otp == null || "null".equals(otp)) {
-                log.warn(ApplicationConstants.LOG_SMS_OTP_MISSING_DATA, mobile, otp != null);
-                return;
-            }
-
-            boolean sent = fast2SmsOtpService.sendOtp(mobile, otp, notification);
-            if (sent) {
-                log.info(ApplicationConstants.LOG_SMS_OTP_SENT_SUCCESS, mobile);
-            } else {
-                log.warn(ApplicationConstants.LOG_SMS_OTP_SENT_FAILURE, mobile);
-            }
+            channelDispatcherRegistry.dispatch(notification, NotificationType.OTP);
         } else {
             log.info("OTP notification channel is {} — skipping SMS send", notification.getChannel());
         }
@@ -50,13 +50,15 @@ public class NotificationListener {
 
     @KafkaListener(topics = ApplicationConstants.KAFKA_ALERT_NOTIFICATION_TOPIC, groupId = "${spring.kafka.consumer.group-id}")
     public void listenAlert(NotificationDTO notification) {
-        log.info("Received Alert notification: {}", notification);
-        // TODO: Forward to appropriate channel
+        log.info("Received Alert notification: customerId={} notificationId={}",
+                notification.getCustomerId(), notification.getNotificationId());
+        reminderSchedulerService.submit(notification);
     }
 
     @KafkaListener(topics = ApplicationConstants.KAFKA_REMINDER_NOTIFICATION_TOPIC, groupId = "${spring.kafka.consumer.group-id}")
     public void listenReminder(NotificationDTO notification) {
-        log.info("Received Reminder notification: {}", notification);
-        // TODO: Forward to appropriate channel
+        log.info("Received Reminder notification: customerId={} notificationId={}",
+                notification.getCustomerId(), notification.getNotificationId());
+        reminderSchedulerService.submit(notification);
     }
 }
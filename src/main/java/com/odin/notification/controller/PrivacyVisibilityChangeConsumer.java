@@ -1,12 +1,14 @@
 package com.odin.notification.controller;
 
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
 import com.odin.notification.dto.PrivacyVisibilityChangeEvent;
 import com.odin.notification.service.PrivacyVisibilityChangeService;
+import com.odin.notification.util.ConsumerBulkheads;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,17 +24,26 @@ import java.util.Map;
 public class PrivacyVisibilityChangeConsumer {
 
     private final PrivacyVisibilityChangeService privacyVisibilityChangeService;
+    private final ConsumerBulkheads bulkheads;
 
-    public PrivacyVisibilityChangeConsumer(PrivacyVisibilityChangeService privacyVisibilityChangeService) {
+    public PrivacyVisibilityChangeConsumer(PrivacyVisibilityChangeService privacyVisibilityChangeService,
+                                           ConsumerBulkheads bulkheads) {
         this.privacyVisibilityChangeService = privacyVisibilityChangeService;
+        this.bulkheads = bulkheads;
     }
 
     @KafkaListener(
+            id = ApplicationConstants.LISTENER_ID_PRIVACY_VISIBILITY,
             topics = "privacy-visibility-updates",
             groupId = "${spring.kafka.consumer.group-id}",
             containerFactory = "privacyVisibilityChangeListenerFactory"
     )
-    public void listenPrivacyVisibilityChange(PrivacyVisibilityChangeEvent event) {
+    public void listenPrivacyVisibilityChange(PrivacyVisibilityChangeEvent event, Acknowledgment ack) {
+        bulkheads.get(ConsumerBulkheads.PRIVACY).execute(event.getUserId(),
+                () -> handlePrivacyVisibilityChange(event), ack);
+    }
+
+    private void handlePrivacyVisibilityChange(PrivacyVisibilityChangeEvent event) {
         log.info("=== Privacy Visibility Change Consumer Started ===");
         
         String userId = event.getUserId() != null ? event.getUserId() : "UNKNOWN";
@@ -1,11 +1,14 @@
 package com.odin.notification.controller;
 
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
 import com.odin.notification.service.ProfilePhotoUpdateService;
+import com.odin.notification.util.ConsumerBulkheads;
+import com.odin.notification.util.HeapBudgetGovernor;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -19,16 +22,26 @@ import lombok.extern.slf4j.Slf4j;
 public class ProfilePhotoUpdateConsumer {
 
     private final ProfilePhotoUpdateService profilePhotoUpdateService;
+    private final ConsumerBulkheads bulkheads;
 
-    public ProfilePhotoUpdateConsumer(ProfilePhotoUpdateService profilePhotoUpdateService) {
+    public ProfilePhotoUpdateConsumer(ProfilePhotoUpdateService profilePhotoUpdateService,
+                                      ConsumerBulkheads bulkheads) {
         this.profilePhotoUpdateService = profilePhotoUpdateService;
+        this.bulkheads = bulkheads;
     }
 
     @KafkaListener(
+            id = ApplicationConstants.LISTENER_ID_PROFILE_PHOTO_UPDATE,
             topics = ApplicationConstants.KAFKA_PROFILE_PHOTO_UPDATE_TOPIC,
-            groupId = "${spring.kafka.consumer.group-id}"
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "bulkheadListenerContainerFactory"
     )
-    public void listenProfilePhotoUpdate(NotificationDTO notificationDTO) {
+    public void listenProfilePhotoUpdate(NotificationDTO notificationDTO, Acknowledgment ack) {
+        bulkheads.get(ConsumerBulkheads.PROFILE_PHOTO).execute(notificationDTO.getCustomerId(),
+                () -> handleProfilePhotoUpdate(notificationDTO), ack, HeapBudgetGovernor.estimateBytes(notificationDTO));
+    }
+
+    private void handleProfilePhotoUpdate(NotificationDTO notificationDTO) {
         log.info("=== Profile Photo Update Consumer Started ===");
         log.info("Received profile photo update notification from Kafka topic: {}",
                 ApplicationConstants.KAFKA_PROFILE_PHOTO_UPDATE_TOPIC);
@@ -0,0 +1,32 @@
+package com.odin.notification.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.odin.notification.constants.ApplicationConstants;
+import com.odin.notification.service.impl.FallbackPublisher;
+
+/**
+ * GET /v1/spillJournal — spill journal depth and spill/replay counters for
+ * the Kafka fallback path (see FallbackPublisher).
+ */
+@RestController
+@RequestMapping(ApplicationConstants.API_VERSION)
+public class SpillJournalController {
+
+	private final FallbackPublisher fallbackPublisher;
+
+	public SpillJournalController(FallbackPublisher fallbackPublisher) {
+		this.fallbackPublisher = fallbackPublisher;
+	}
+
+	@GetMapping(ApplicationConstants.SPILL_JOURNAL)
+	public ResponseEntity<Map<String, Object>> getSpillJournal() {
+		return new ResponseEntity<>(fallbackPublisher.getStats(), HttpStatus.OK);
+	}
+}
@@ -1,11 +1,21 @@
 package com.odin.notification.controller;
 
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
 import com.odin.notification.service.StatusUpdateService;
+import com.odin.notification.util.ConsumerBulkheads;
+import com.odin.notification.util.Deadline;
+import com.odin.notification.util.FreshnessPolicy;
+import com.odin.notification.util.HeapBudgetGovernor;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -13,15 +23,24 @@ import lombok.extern.slf4j.Slf4j;
  * Consumer for handling status update notifications
  * Listens to the status.update.notification.message Kafka topic
  * and triggers status update push notification sending logic
+ * on the status bulkhead
  */
 @Slf4j
 @Component
 public class StatusUpdateConsumer {
 
     private final StatusUpdateService statusUpdateService;
+    private final ConsumerBulkheads bulkheads;
+    private final FreshnessPolicy freshnessPolicy;
+
+    @Value("${freshness.status.supersede.enabled:true}")
+    private boolean supersedeEnabled;
 
-    public StatusUpdateConsumer(StatusUpdateService statusUpdateService) {
+    public StatusUpdateConsumer(StatusUpdateService statusUpdateService, ConsumerBulkheads bulkheads,
+                                FreshnessPolicy freshnessPolicy) {
         this.statusUpdateService = statusUpdateService;
+        this.bulkheads = bulkheads;
+        this.freshnessPolicy = freshnessPolicy;
     }
 
     /**
@@ -29,12 +48,58 @@ public class StatusUpdateConsumer {
      * and process them for push notification delivery
      * 
      * @param notificationDTO The status update notification data received from Kafka
+     * @param ack             Acknowledged by the bulkhead once processing is done
+     * @param recordTimestamp Kafka record timestamp, used when the payload has no map.timestamp
      */
     @KafkaListener(
+            id = ApplicationConstants.LISTENER_ID_STATUS_UPDATE,
             topics = ApplicationConstants.KAFKA_STATUS_UPDATE_NOTIFICATION_TOPIC,
-            groupId = "${spring.kafka.consumer.group-id}"
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "bulkheadListenerContainerFactory"
     )
-    public void listenStatusUpdate(NotificationDTO notificationDTO) {
+    public void listenStatusUpdate(NotificationDTO notificationDTO, Acknowledgment ack,
+                                   @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long recordTimestamp) {
+        if (freshnessPolicy.isExpired(notificationDTO, recordTimestamp)) {
+            ack.acknowledge();
+            return;
+        }
+        String supersedeKey = supersedeKey(notificationDTO);
+        long seq = freshnessPolicy.claim(supersedeKey);
+        bulkheads.get(ConsumerBulkheads.STATUS).execute(notificationDTO.getCustomerId(), () -> {
+            try {
+                if (!freshnessPolicy.isSuperseded(supersedeKey, seq, "STATUS")
+                        && !freshnessPolicy.isExpired(notificationDTO, recordTimestamp)) {
+                    handleStatusUpdate(notificationDTO, freshnessPolicy.deadlineFor(notificationDTO, recordTimestamp));
+                }
+            } finally {
+                freshnessPolicy.release(supersedeKey, seq);
+            }
+        }, ack, HeapBudgetGovernor.estimateBytes(notificationDTO));
+    }
+
+    /**
+     * A status push for (receiver, sender, map.statusId, update|delete) is
+     * superseded by a newer one for the same status that is already queued
+     * behind it, so a backlog sends only the newest. Pushes for different
+     * statuses never supersede each other, and a push without map.statusId is
+     * always delivered. Disable with freshness.status.supersede.enabled=false
+     * if every push must be delivered.
+     */
+    String supersedeKey(NotificationDTO notificationDTO) {
+        if (!supersedeEnabled) {
+            return null;
+        }
+        Map<String, Object> map = notificationDTO.getMap();
+        String sender = notificationDTO.getSenderCustomerId();
+        Object statusId = map != null ? map.get("statusId") : null;
+        if (notificationDTO.getCustomerId() == null || sender == null || statusId == null) {
+            return null;
+        }
+        boolean delete = "STATUS_DELETE".equals(map.get("statusDeleteSignal"));
+        return notificationDTO.getCustomerId() + ":" + sender + ":" + statusId + (delete ? ":delete" : ":update");
+    }
+
+    private void handleStatusUpdate(NotificationDTO notificationDTO, Deadline deadline) {
         log.info("=== Status Update Consumer Started ===");
         log.info("Received status update notification message from Kafka topic: {}",
                 ApplicationConstants.KAFKA_STATUS_UPDATE_NOTIFICATION_TOPIC);
@@ -45,7 +110,7 @@ public class StatusUpdateConsumer {
 
         try {
             // Process the status update through status update service
-            statusUpdateService.processStatusUpdateNotification(notificationDTO);
+            statusUpdateService.processStatusUpdateNotification(notificationDTO, deadline);
 
             log.info("=== Status Update Consumer Completed Successfully ===");
 
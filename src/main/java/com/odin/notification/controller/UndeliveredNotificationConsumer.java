@@ -1,27 +1,40 @@
 package com.odin.notification.controller;
 
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
 import com.odin.notification.service.PushNotificationService;
+import com.odin.notification.util.ConsumerBulkheads;
+import com.odin.notification.util.Deadline;
+import com.odin.notification.util.FreshnessPolicy;
+import com.odin.notification.util.HeapBudgetGovernor;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Consumer for handling undelivered notifications
  * Listens to the undelivered.notification.message Kafka topic
- * and triggers push notification sending logic
+ * and triggers push notification sending logic on the chat bulkhead
  */
 @Slf4j
 @Component
 public class UndeliveredNotificationConsumer {
 
     private final PushNotificationService pushNotificationService;
+    private final ConsumerBulkheads bulkheads;
+    private final FreshnessPolicy freshnessPolicy;
 
-    public UndeliveredNotificationConsumer(PushNotificationService pushNotificationService) {
+    public UndeliveredNotificationConsumer(PushNotificationService pushNotificationService,
+                                           ConsumerBulkheads bulkheads,
+                                           FreshnessPolicy freshnessPolicy) {
         this.pushNotificationService = pushNotificationService;
+        this.bulkheads = bulkheads;
+        this.freshnessPolicy = freshnessPolicy;
     }
 
     /**
@@ -29,24 +42,32 @@ public class UndeliveredNotificationConsumer {
      * and process them for push notification delivery
      * 
      * @param notificationDTO The notification data received from Kafka
+     * @param ack             Acknowledged by the bulkhead once processing is done
+     * @param recordTimestamp Kafka record timestamp, used when the payload has no map.timestamp
      */
     @KafkaListener(
+            id = ApplicationConstants.LISTENER_ID_UNDELIVERED,
             topics = ApplicationConstants.KAFKA_UNDELIVERED_NOTIFICATION_TOPIC,
-            groupId = "${spring.kafka.consumer.group-id}"
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "bulkheadListenerContainerFactory"
     )
-    public void listenUndeliveredNotification(NotificationDTO notificationDTO) {
-                // Log the raw JSON received from Kafka (if possible)
-                // Note: Spring Kafka by default deserializes to NotificationDTO, so to log the raw JSON, you would need to use a custom deserializer or log at the Kafka config level.
-                // As a workaround, log the NotificationDTO as JSON to verify the structure as received.
-                try {
-                    com.fasterxml.jackson.databind.ObjectMapper om = new com.fasterxml.jackson.databind.ObjectMapper();
-                    String notificationDtoJson = om.writeValueAsString(notificationDTO);
-                    log.info("[KAFKA-CONSUMER-JSON] NotificationDTO as received from Kafka: {}", notificationDtoJson);
-                } catch (Exception e) {
-                    log.warn("[KAFKA-CONSUMER-JSON] Failed to serialize NotificationDTO: {}", e.getMessage());
-                }
-        log.info("=== Undelivered Notification Consumer Started ===");
-        log.info("Received undelivered notification message from Kafka topic: {}",
+    public void listenUndeliveredNotification(NotificationDTO notificationDTO, Acknowledgment ack,
+                                              @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long recordTimestamp) {
+        if (freshnessPolicy.isExpired(notificationDTO, recordTimestamp)) {
+            ack.acknowledge();
+            return;
+        }
+        bulkheads.get(ConsumerBulkheads.CHAT).execute(notificationDTO.getCustomerId(), () -> {
+            // Re-check: the record may have aged past its budget while queued
+            if (!freshnessPolicy.isExpired(notificationDTO, recordTimestamp)) {
+                handleUndeliveredNotification(notificationDTO,
+                        freshnessPolicy.deadlineFor(notificationDTO, recordTimestamp));
+            }
+        }, ack, HeapBudgetGovernor.estimateBytes(notificationDTO));
+    }
+
+    private void handleUndeliveredNotification(NotificationDTO notificationDTO, Deadline deadline) {
+        log.debug("Received undelivered notification message from Kafka topic: {}",
                 ApplicationConstants.KAFKA_UNDELIVERED_NOTIFICATION_TOPIC);
         log.debug("Notification details - CustomerId: {}, NotificationId: {}, Channel: {}",
                 notificationDTO.getCustomerId(),
@@ -55,9 +76,7 @@ public class UndeliveredNotificationConsumer {
 
         try {
             // Process the notification through push notification service
-            pushNotificationService.processPushNotification(notificationDTO);
-
-            log.info("=== Undelivered Notification Consumer Completed Successfully ===");
+            pushNotificationService.processPushNotification(notificationDTO, deadline);
 
         } catch (Exception e) {
             log.error("Error processing undelivered notification for customerId: {}. Error: {}",
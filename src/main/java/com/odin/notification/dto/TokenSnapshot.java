@@ -0,0 +1,42 @@
+package com.odin.notification.dto;
+
+import com.odin.notification.entity.NotificationToken;
+
+import lombok.Getter;
+
+/**
+ * Immutable, read-only view of a notification_token row as held in the
+ * per-pod token cache. Safe to share between threads; never persisted.
+ */
+@Getter
+public final class TokenSnapshot {
+
+    private final Long customerId;
+    private final String fcmToken;
+    private final String voipToken;
+    private final String deviceSignature;
+
+    /** Row version: update_timestamp (or create_timestamp) in epoch millis. */
+    private final long version;
+
+    private TokenSnapshot(Long customerId, String fcmToken, String voipToken, String deviceSignature, long version) {
+        this.customerId = customerId;
+        this.fcmToken = fcmToken;
+        this.voipToken = voipToken;
+        this.deviceSignature = deviceSignature;
+        this.version = version;
+    }
+
+    public static TokenSnapshot of(Long customerId, String fcmToken, String voipToken,
+                                   String deviceSignature, long version) {
+        return new TokenSnapshot(customerId, fcmToken, voipToken, deviceSignature, version);
+    }
+
+    public static TokenSnapshot of(NotificationToken token) {
+        long version = token.getUpdateTimestamp() != null
+                ? token.getUpdateTimestamp().getTime()
+                : token.getCreateTimestamp() != null ? token.getCreateTimestamp().getTime() : 0L;
+        return new TokenSnapshot(token.getCustomerId(), token.getFcmToken(), token.getVoipToken(),
+                token.getDeviceSignature(), version);
+    }
+}
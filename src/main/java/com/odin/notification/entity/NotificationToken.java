@@ -7,7 +7,9 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -17,7 +19,11 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "notification_token")
+@Table(name = "notification_token",
+        uniqueConstraints = @UniqueConstraint(name = "uk_notification_token_customer_device",
+                columnNames = {"customer_id", "device_signature"}),
+        indexes = @Index(name = "idx_notification_token_customer_updated",
+                columnList = "customer_id, update_timestamp"))
 public class NotificationToken {
 
     @Id
@@ -37,6 +43,10 @@ public class NotificationToken {
     @Column(name = "update_timestamp")
     private Timestamp updateTimestamp;
     
+    /**
+     * One row per (customer, device). Never NULL in practice — a missing
+     * signature is stored as "" so the unique key still applies.
+     */
     @Column(nullable = true, length = 200, name = "device_signature")
     private String deviceSignature;
 
@@ -0,0 +1,10 @@
+package com.odin.notification.enums;
+
+/**
+ * The flow a notification comes from. Dispatchers use it where a channel
+ * delivers differently per flow (SMS: OTP vs. template).
+ */
+public enum NotificationType {
+
+	OTP, PUSH, STATUS_UPDATE, REMINDER
+}
@@ -1,8 +1,15 @@
 package com.odin.notification.repo;
 
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.odin.notification.entity.NotificationToken;
 
@@ -10,8 +17,69 @@ public interface NotificationTokenRepository extends JpaRepository<NotificationT
 	
 	Optional<NotificationToken> findFirstByCustomerId(Long customerId);
 
+	/**
+	 * The customer's most recently registered device that has an FCM token.
+	 * A VoIP-only row (VoIP registered before FCM on a new device) is newer
+	 * but has no FCM token, so it is returned only if no row has one.
+	 */
+	@Query(value = "SELECT * FROM notification_token WHERE customer_id = :customerId "
+			+ "ORDER BY (fcm_token IS NULL OR fcm_token = ''), update_timestamp DESC LIMIT 1", nativeQuery = true)
+	Optional<NotificationToken> findLatestDevice(@Param("customerId") Long customerId);
+
 	Optional<NotificationToken> findFirstByCustomerIdAndDeviceSignature(Long customerId, String deviceSignature);
 
 	void deleteByCustomerId(Long customerId);
 
-}
\ No newline at end of file
+	/** Every device row of the given customers, for bulk fan-out resolution. */
+	List<NotificationToken> findByCustomerIdIn(Collection<Long> customerIds);
+
+	/**
+	 * Single DELETE statement for all of a customer's device rows. Unlike the
+	 * derived deleteByCustomerId it does not load each entity first.
+	 */
+	@Modifying
+	@Query("DELETE FROM NotificationToken t WHERE t.customerId = :customerId")
+	int purgeByCustomerId(@Param("customerId") Long customerId);
+
+	/**
+	 * Single-statement FCM token registration on uk_notification_token_customer_device.
+	 * An existing VoIP token is kept when the incoming one is NULL.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "INSERT INTO notification_token "
+			+ "(customer_id, device_signature, fcm_token, voip_token, create_timestamp, update_timestamp) "
+			+ "VALUES (:customerId, :deviceSignature, :fcmToken, :voipToken, :now, :now) "
+			+ "ON DUPLICATE KEY UPDATE fcm_token = VALUES(fcm_token), "
+			+ "voip_token = COALESCE(VALUES(voip_token), voip_token), "
+			+ "update_timestamp = VALUES(update_timestamp)", nativeQuery = true)
+	int upsertFcmToken(@Param("customerId") Long customerId, @Param("deviceSignature") String deviceSignature,
+			@Param("fcmToken") String fcmToken, @Param("voipToken") String voipToken, @Param("now") Timestamp now);
+
+	/**
+	 * Single-statement VoIP token registration on uk_notification_token_customer_device.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "INSERT INTO notification_token "
+			+ "(customer_id, device_signature, voip_token, create_timestamp, update_timestamp) "
+			+ "VALUES (:customerId, :deviceSignature, :voipToken, :now, :now) "
+			+ "ON DUPLICATE KEY UPDATE voip_token = VALUES(voip_token), "
+			+ "update_timestamp = VALUES(update_timestamp)", nativeQuery = true)
+	int upsertVoipToken(@Param("customerId") Long customerId, @Param("deviceSignature") String deviceSignature,
+			@Param("voipToken") String voipToken, @Param("now") Timestamp now);
+
+	/**
+	 * Attach a VoIP token to the customer's latest device, as chosen by
+	 * {@link #findLatestDevice(Long)}, when the client did not send a device
+	 * signature. Returns 0 if the customer has no row yet.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "UPDATE notification_token SET voip_token = :voipToken, update_timestamp = :now "
+			+ "WHERE customer_id = :customerId "
+			+ "ORDER BY (fcm_token IS NULL OR fcm_token = ''), update_timestamp DESC LIMIT 1", nativeQuery = true)
+	int updateLatestVoipToken(@Param("customerId") Long customerId, @Param("voipToken") String voipToken,
+			@Param("now") Timestamp now);
+
+}
@@ -0,0 +1,45 @@
+package com.odin.notification.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.enums.NotificationChannel;
+import com.odin.notification.enums.NotificationType;
+
+/**
+ * Channel Dispatcher SPI
+ * One implementation per {@link NotificationChannel}. Implementations are
+ * collected into {@link com.odin.notification.service.impl.ChannelDispatcherRegistry},
+ * which is the single place notifications are routed by channel.
+ *
+ * Dispatchers receive batches so a channel can own its own pooling, batching
+ * and rate limiting without callers knowing about it.
+ */
+public interface ChannelDispatcher {
+
+    /**
+     * @return the channel this dispatcher delivers
+     */
+    NotificationChannel getChannel();
+
+    /**
+     * Deliver the given notifications. Every element has {@link #getChannel()}
+     * as its channel. Failures are handled per notification and never abort
+     * the rest of the batch.
+     *
+     * @param notifications notifications to deliver, never empty
+     * @param type          the flow the notifications come from
+     * @return future completing with false if any notification failed and a
+     *         retry may deliver it; skipped notifications count as handled
+     */
+    CompletableFuture<Boolean> dispatch(List<NotificationDTO> notifications, NotificationType type);
+
+    /**
+     * Combine per-notification outcomes: true once every one is true.
+     */
+    static CompletableFuture<Boolean> allDelivered(List<CompletableFuture<Boolean>> outcomes) {
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0]))
+                .thenApply(done -> outcomes.stream().allMatch(outcome -> Boolean.TRUE.equals(outcome.join())));
+    }
+}
@@ -1,6 +1,7 @@
 package com.odin.notification.service;
 
 import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.Deadline;
 
 /**
  * Push Notification Service Interface
@@ -12,6 +13,19 @@ public interface PushNotificationService {
      * Process undelivered notification and send push notification
      * 
      * @param notificationDTO The notification data transfer object
+     * @return false if the notification was neither delivered nor handed to
+     *         the fallback topic, so a retry may still deliver it
      */
-    void processPushNotification(NotificationDTO notificationDTO);
+    boolean processPushNotification(NotificationDTO notificationDTO);
+
+    /**
+     * Process a notification, abandoning all remaining work (lookup, sends,
+     * retries, fallback publication) once the deadline has passed
+     * 
+     * @param notificationDTO The notification data transfer object
+     * @param deadline        End-to-end deadline of the notification
+     * @return false if the notification was neither delivered nor handed to
+     *         the fallback topic; work abandoned at the deadline is not a failure
+     */
+    boolean processPushNotification(NotificationDTO notificationDTO, Deadline deadline);
 }
@@ -0,0 +1,19 @@
+package com.odin.notification.service;
+
+import com.odin.notification.dto.NotificationDTO;
+
+/**
+ * Reminder / Alert Scheduling Service Interface
+ * Defines the contract for delivering alert and reminder notifications,
+ * either immediately or at a future "sendAt" time carried in the DTO map.
+ */
+public interface ReminderSchedulerService {
+
+    /**
+     * Deliver the notification now, or store it for delayed delivery when its
+     * map carries a "sendAt" in the future.
+     *
+     * @param notificationDTO The alert or reminder notification
+     */
+    void submit(NotificationDTO notificationDTO);
+}
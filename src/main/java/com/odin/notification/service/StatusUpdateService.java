@@ -1,6 +1,7 @@
 package com.odin.notification.service;
 
 import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.Deadline;
 
 /**
  * Status Update Notification Service Interface
@@ -14,4 +15,13 @@ public interface StatusUpdateService {
      * @param notificationDTO The status update notification data
      */
     void processStatusUpdateNotification(NotificationDTO notificationDTO);
+
+    /**
+     * Process status update notification, abandoning all remaining work once
+     * the deadline has passed
+     * 
+     * @param notificationDTO The status update notification data
+     * @param deadline        End-to-end deadline of the notification
+     */
+    void processStatusUpdateNotification(NotificationDTO notificationDTO, Deadline deadline);
 }
@@ -1,55 +1,111 @@
 package com.odin.notification.service.impl;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.google.firebase.messaging.FirebaseMessagingException;
-import com.odin.notification.constants.ApplicationConstants;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.SendResponse;
 import com.odin.notification.dto.AccountDeletionEvent;
 import com.odin.notification.entity.NotificationToken;
 import com.odin.notification.repo.NotificationTokenRepository;
 import com.odin.notification.service.AccountDeletionNotificationService;
+import com.odin.notification.util.DeliveryLog;
+import com.odin.notification.util.FcmPayloadTemplate;
 import com.odin.notification.util.FcmUtil;
+import com.odin.notification.util.ProviderIoExecutor;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Handles all notification-side work triggered by an account deletion event:
+ * Handles all notification-side work triggered by an account deletion event,
+ * as one pipeline:
  *
- *  1. Purge the deleted user's own FCM/VoIP tokens from notification_tokens.
- *  2. Fan-out a silent ACCOUNT_DELETED FCM push to every user who had the
- *     deleted account saved in their contacts.  This triggers Flutter's
- *     _handleAccountDeleted() which clears the local photo cache, removes the
- *     contactsBox entry, and evicts the customerMappingBox entry — so the
- *     receiver's home screen stops showing the deleted user's photo.
+ *  1. Purge the deleted user's own FCM/VoIP tokens with a single DELETE in a
+ *     short transaction of its own, then invalidate the token near cache.
+ *     Token saves still parked in the {@link TokenWriteBuffer} are discarded
+ *     first so a later flush cannot recreate the rows. Purging is idempotent,
+ *     so it runs on every delivery of the event.
+ *  2. Resolve the FCM tokens of every contact owner with bulk IN queries
+ *     (token.fanout.lookup.batch.size ids per query). No transaction or
+ *     connection is held past this point.
+ *  3. Fan-out a silent ACCOUNT_DELETED push to those tokens through FCM
+ *     multicast, 500 tokens per call, chunks in parallel on the provider I/O
+ *     executor. This triggers Flutter's _handleAccountDeleted() which clears
+ *     the local photo cache, removes the contactsBox entry, and evicts the
+ *     customerMappingBox entry — so the receiver's home screen stops showing
+ *     the deleted user's photo.
  *
- * Fan-out failures are logged but never rethrown so one bad token cannot abort
- * the entire delivery loop.
+ * The fan-out is claimed per deleted customer in Redis
+ * (account_deletion:{customerId}). The claim is taken as "in progress" for
+ * account.deletion.fanout.claim.ttl.seconds and promoted to "done" for
+ * account.deletion.fanout.dedupe.ttl.hours once the fan-out has run, so a
+ * redelivered event does not push to every contact owner again, while a pod
+ * that dies mid fan-out only holds the claim until it expires. A delivery
+ * that finds the claim in progress throws, and the container retries it
+ * until the claim is done or has expired. If token resolution fails the
+ * claim is released and the exception is rethrown so the container retries
+ * the record. Per-token and per-chunk FCM failures are counted and logged
+ * but never rethrown.
  */
 @Slf4j
 @Service
 public class AccountDeletionNotificationServiceImpl implements AccountDeletionNotificationService {
 
-    /** FCM data-map key that the Flutter router uses to dispatch the event. */
-    private static final String FCM_TYPE_ACCOUNT_DELETED = "ACCOUNT_DELETED";
+    private static final String FANOUT_KEY_PREFIX = "account_deletion";
+    private static final String FANOUT_IN_PROGRESS = "in-progress";
+    private static final String FANOUT_DONE = "done";
+    private static final int FCM_MULTICAST_LIMIT = 500;
 
     private final NotificationTokenRepository notificationTokenRepository;
     private final FcmUtil fcmUtil;
+    private final DeliveryLog deliveryLog;
+    private final NotificationTokenCache tokenCache;
+    private final TokenWriteBuffer tokenWriteBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ProviderIoExecutor providerIoExecutor;
+
+    @Value("${account.deletion.fanout.dedupe.ttl.hours:24}")
+    private long fanoutDedupeTtlHours;
+
+    @Value("${account.deletion.fanout.claim.ttl.seconds:120}")
+    private long fanoutClaimTtlSeconds;
+
+    @Value("${token.fanout.lookup.batch.size:1000}")
+    private int lookupBatchSize;
 
     public AccountDeletionNotificationServiceImpl(
             NotificationTokenRepository notificationTokenRepository,
-            FcmUtil fcmUtil) {
+            FcmUtil fcmUtil,
+            DeliveryLog deliveryLog,
+            NotificationTokenCache tokenCache,
+            TokenWriteBuffer tokenWriteBuffer,
+            TransactionTemplate transactionTemplate,
+            RedisTemplate<String, String> redisTemplate,
+            ProviderIoExecutor providerIoExecutor) {
         this.notificationTokenRepository = notificationTokenRepository;
         this.fcmUtil = fcmUtil;
+        this.deliveryLog = deliveryLog;
+        this.tokenCache = tokenCache;
+        this.tokenWriteBuffer = tokenWriteBuffer;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.providerIoExecutor = providerIoExecutor;
     }
 
     @Override
-    @Transactional
     public void processAccountDeletion(AccountDeletionEvent event) {
         if (event == null || event.getCustomerId() == null || event.getCustomerId().isBlank()) {
             log.warn("[ACCOUNT-DELETION] Received null or empty event, skipping");
@@ -59,14 +115,8 @@ public class AccountDeletionNotificationServiceImpl implements AccountDeletionNo
         String deletedCustomerId = event.getCustomerId();
         log.info("[ACCOUNT-DELETION] Processing deletion for customerId={}", deletedCustomerId);
 
-        // --- 1. Purge deleted user's own FCM tokens ---
-        try {
-            Long customerIdLong = Long.parseLong(deletedCustomerId);
-            notificationTokenRepository.deleteByCustomerId(customerIdLong);
-            log.info("[ACCOUNT-DELETION] FCM/VoIP tokens purged for customerId={}", deletedCustomerId);
-        } catch (NumberFormatException e) {
-            log.error("[ACCOUNT-DELETION] Invalid customerId format='{}', cannot purge tokens", deletedCustomerId);
-        }
+        // --- 1. Purge deleted user's own FCM tokens (short transaction) ---
+        purgeTokens(deletedCustomerId);
 
         // --- 2. Fan-out ACCOUNT_DELETED FCM to each contact owner ---
         List<String> contactOwnerIds = event.getContactOwnerIds();
@@ -75,63 +125,133 @@ public class AccountDeletionNotificationServiceImpl implements AccountDeletionNo
             return;
         }
 
-        log.info("[ACCOUNT-DELETION] Notifying {} contact owner(s) for customerId={}",
-                contactOwnerIds.size(), deletedCustomerId);
+        String fanoutKey = FANOUT_KEY_PREFIX + ":" + deletedCustomerId;
+        Boolean claimed = redisTemplate.opsForValue()
+                .setIfAbsent(fanoutKey, FANOUT_IN_PROGRESS, Duration.ofSeconds(fanoutClaimTtlSeconds));
+        if (Boolean.FALSE.equals(claimed)) {
+            String state = redisTemplate.opsForValue().get(fanoutKey);
+            if (state == null || FANOUT_IN_PROGRESS.equals(state)) {
+                throw new IllegalStateException("Fan-out for customerId=" + deletedCustomerId
+                        + " is claimed by another delivery, retrying");
+            }
+            log.info("[ACCOUNT-DELETION] Fan-out already done for customerId={}, skipping redelivery", deletedCustomerId);
+            return;
+        }
+
+        Map<String, Long> ownerByToken;
+        try {
+            ownerByToken = resolveOwnerTokens(contactOwnerIds);
+        } catch (RuntimeException e) {
+            redisTemplate.delete(fanoutKey);
+            throw e;
+        }
+
+        log.info("[ACCOUNT-DELETION] Notifying {} contact owner(s) on {} device(s) for customerId={}",
+                contactOwnerIds.size(), ownerByToken.size(), deletedCustomerId);
+        if (!ownerByToken.isEmpty()) {
+            int[] counts = fanOut(ownerByToken, buildAccountDeletedFcmPayload(deletedCustomerId));
+            log.info("[ACCOUNT-DELETION] Fan-out complete for customerId={} — sent={} failed={}",
+                    deletedCustomerId, counts[0], counts[1]);
+        }
+
+        redisTemplate.opsForValue().set(fanoutKey, FANOUT_DONE, Duration.ofHours(fanoutDedupeTtlHours));
+    }
+
+    private void purgeTokens(String deletedCustomerId) {
+        Long customerIdLong;
+        try {
+            customerIdLong = Long.parseLong(deletedCustomerId);
+        } catch (NumberFormatException e) {
+            log.error("[ACCOUNT-DELETION] Invalid customerId format='{}', cannot purge tokens", deletedCustomerId);
+            return;
+        }
 
-        Map<String, String> fcmData = buildAccountDeletedFcmPayload(deletedCustomerId);
-        int successCount = 0;
-        int failCount = 0;
+        tokenWriteBuffer.discard(customerIdLong);
+        Integer purged = transactionTemplate.execute(status ->
+                notificationTokenRepository.purgeByCustomerId(customerIdLong));
+        tokenCache.invalidate(customerIdLong, System.currentTimeMillis());
+        log.info("[ACCOUNT-DELETION] {} FCM/VoIP token row(s) purged for customerId={}", purged, deletedCustomerId);
+    }
 
+    /**
+     * Distinct non-blank FCM tokens of every device of every owner, mapped to
+     * the owning customerId.
+     */
+    private Map<String, Long> resolveOwnerTokens(List<String> contactOwnerIds) {
+        Set<Long> ownerIds = new LinkedHashSet<>();
         for (String ownerUserId : contactOwnerIds) {
             try {
-                Long ownerIdLong = Long.parseLong(ownerUserId);
-                Optional<NotificationToken> tokenOpt =
-                        notificationTokenRepository.findFirstByCustomerId(ownerIdLong);
-
-                if (tokenOpt.isEmpty() || tokenOpt.get().getFcmToken() == null
-                        || tokenOpt.get().getFcmToken().isBlank()) {
-                    log.debug("[ACCOUNT-DELETION] No FCM token for ownerUserId={}, skipping", ownerUserId);
-                    continue;
+                ownerIds.add(Long.parseLong(ownerUserId));
+            } catch (NumberFormatException e) {
+                log.warn("[ACCOUNT-DELETION] Invalid ownerUserId format='{}', skipping", ownerUserId);
+            }
+        }
+
+        Map<String, Long> ownerByToken = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(ownerIds);
+        for (int from = 0; from < ids.size(); from += lookupBatchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + lookupBatchSize, ids.size()));
+            for (NotificationToken row : notificationTokenRepository.findByCustomerIdIn(batch)) {
+                if (row.getFcmToken() != null && !row.getFcmToken().isBlank()) {
+                    ownerByToken.putIfAbsent(row.getFcmToken(), row.getCustomerId());
                 }
+            }
+        }
+        return ownerByToken;
+    }
 
-                String fcmToken = tokenOpt.get().getFcmToken();
-                String maskedToken = fcmToken.length() > 12
-                        ? fcmToken.substring(0, 6) + "..." + fcmToken.substring(fcmToken.length() - 6)
-                        : "***";
-                log.info("[ACCOUNT-DELETION] Sending FCM to ownerUserId={} token={} payload={}",
-                        ownerUserId, maskedToken, fcmData);
-                fcmUtil.sendDataOnlyPushNotification(fcmToken, fcmData, true);
-                successCount++;
-                log.info("[ACCOUNT-DELETION] FCM delivered successfully to ownerUserId={}", ownerUserId);
+    /**
+     * @return {sent, failed}
+     */
+    private int[] fanOut(Map<String, Long> ownerByToken, Map<String, String> fcmData) {
+        List<String> tokens = new ArrayList<>(ownerByToken.keySet());
+        List<Callable<BatchResponse>> calls = new ArrayList<>();
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < tokens.size(); from += FCM_MULTICAST_LIMIT) {
+            List<String> chunk = tokens.subList(from, Math.min(from + FCM_MULTICAST_LIMIT, tokens.size()));
+            chunks.add(chunk);
+            calls.add(() -> fcmUtil.sendDataOnlyMulticast(chunk, FcmPayloadTemplate.ACCOUNT_DELETED, fcmData));
+        }
 
-            } catch (NumberFormatException e) {
-                log.warn("[ACCOUNT-DELETION] Invalid ownerUserId format='{}', skipping", ownerUserId);
-                failCount++;
-            } catch (FirebaseMessagingException e) {
-                log.warn("[ACCOUNT-DELETION] FCM delivery failed for ownerUserId={}: {}", ownerUserId, e.getMessage());
-                failCount++;
+        int sent = 0;
+        int failed = 0;
+        List<CompletableFuture<BatchResponse>> results = providerIoExecutor.invokeAll(calls);
+        for (int i = 0; i < results.size(); i++) {
+            List<String> chunk = chunks.get(i);
+            BatchResponse response;
+            try {
+                response = results.get(i).join();
             } catch (Exception e) {
-                log.warn("[ACCOUNT-DELETION] Unexpected error notifying ownerUserId={}: {}", ownerUserId, e.getMessage());
-                failCount++;
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("[ACCOUNT-DELETION] Multicast of {} token(s) failed: {}", chunk.size(), cause.getMessage());
+                failed += chunk.size();
+                continue;
             }
-        }
 
-        log.info("[ACCOUNT-DELETION] Fan-out complete for customerId={} — sent={} failed={}",
-                deletedCustomerId, successCount, failCount);
+            List<SendResponse> responses = response.getResponses();
+            for (int j = 0; j < responses.size(); j++) {
+                SendResponse r = responses.get(j);
+                if (r.isSuccessful()) {
+                    deliveryLog.sent(DeliveryLog.CATEGORY_FCM, ownerByToken.get(chunk.get(j)), chunk.get(j), r.getMessageId(), 1);
+                } else {
+                    deliveryLog.failed(DeliveryLog.CATEGORY_FCM, ownerByToken.get(chunk.get(j)), chunk.get(j),
+                            r.getException() != null ? r.getException().getMessage() : "unknown", 1);
+                }
+            }
+            sent += response.getSuccessCount();
+            failed += response.getFailureCount();
+        }
+        return new int[] {sent, failed};
     }
 
     /**
-     * Builds the FCM data-only payload for the ACCOUNT_DELETED signal.
+     * Per-recipient fields of the ACCOUNT_DELETED signal.
      *
-     * Flutter router matches on "type" == "ACCOUNT_DELETED" (kTypeAccountDeleted).
+     * Flutter router matches on "type" == "ACCOUNT_DELETED" (kTypeAccountDeleted),
+     * which comes from {@link FcmPayloadTemplate#ACCOUNT_DELETED}.
      * "deletedCustomerId" is read by _handleAccountDeleted() to identify the peer.
      */
     private Map<String, String> buildAccountDeletedFcmPayload(String deletedCustomerId) {
-        Map<String, String> data = new HashMap<>();
-        data.put("type", FCM_TYPE_ACCOUNT_DELETED);
-        data.put("deletedCustomerId", deletedCustomerId);
-        data.put("sound", ApplicationConstants.FCM_NOTIFICATION_SOUND_NONE);
-        data.put("badge", "0");
-        return data;
+        return Map.of("deletedCustomerId", deletedCustomerId);
     }
 }
@@ -0,0 +1,78 @@
+package com.odin.notification.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.constants.ApplicationConstants;
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.enums.NotificationChannel;
+import com.odin.notification.enums.NotificationType;
+import com.odin.notification.service.ChannelDispatcher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Routes notifications to the {@link ChannelDispatcher} registered for their
+ * channel. Replaces the per-service switch statements on NotificationChannel.
+ */
+@Slf4j
+@Component
+public class ChannelDispatcherRegistry {
+
+    private final Map<NotificationChannel, ChannelDispatcher> dispatchers = new EnumMap<>(NotificationChannel.class);
+
+    public ChannelDispatcherRegistry(List<ChannelDispatcher> channelDispatchers) {
+        for (ChannelDispatcher dispatcher : channelDispatchers) {
+            ChannelDispatcher previous = dispatchers.put(dispatcher.getChannel(), dispatcher);
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate ChannelDispatcher for channel " + dispatcher.getChannel()
+                        + ": " + previous.getClass().getSimpleName() + " and " + dispatcher.getClass().getSimpleName());
+            }
+        }
+        log.info("Registered channel dispatchers: {}", dispatchers.keySet());
+    }
+
+    /**
+     * Dispatch a single notification on its channel.
+     *
+     * @return the outcome, see {@link ChannelDispatcher#dispatch}
+     */
+    public CompletableFuture<Boolean> dispatch(NotificationDTO notification, NotificationType type) {
+        return dispatch(Collections.singletonList(notification), type);
+    }
+
+    /**
+     * Dispatch a mixed batch — notifications are grouped by channel and each
+     * group is handed to its dispatcher in one call. Notifications without a
+     * supported channel are logged and count as handled.
+     *
+     * @return future completing with false if any channel reported a failure
+     */
+    public CompletableFuture<Boolean> dispatch(List<NotificationDTO> notifications, NotificationType type) {
+        Map<NotificationChannel, List<NotificationDTO>> byChannel = new EnumMap<>(NotificationChannel.class);
+        for (NotificationDTO notification : notifications) {
+            if (notification == null || notification.getChannel() == null) {
+                log.warn(ApplicationConstants.LOG_UNSUPPORTED_CHANNEL, (Object) null);
+                continue;
+            }
+            byChannel.computeIfAbsent(notification.getChannel(), c -> new ArrayList<>()).add(notification);
+        }
+
+        List<CompletableFuture<Boolean>> outcomes = new ArrayList<>();
+        byChannel.forEach((channel, batch) -> {
+            ChannelDispatcher dispatcher = dispatchers.get(channel);
+            if (dispatcher == null) {
+                log.warn(ApplicationConstants.LOG_UNSUPPORTED_CHANNEL, channel);
+                return;
+            }
+            outcomes.add(dispatcher.dispatch(batch, type));
+        });
+        return ChannelDispatcher.allDelivered(outcomes);
+    }
+}
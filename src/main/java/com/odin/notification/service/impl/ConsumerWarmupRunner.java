@@ -0,0 +1,148 @@
+package com.odin.notification.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.FcmUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Warms the push path up before this pod joins any consumer group.
+ *
+ * With warmup.enabled (default) every listener container is created with
+ * autoStartup=false (see KafkaConsumerConfig), so no partitions are assigned
+ * while this runner:
+ *   1. sends one validate-only FCM request, which mints the OAuth access
+ *      token and opens the DNS/TLS connection of the configured FcmTransport;
+ *   2. signs the APNs provider token and opens the HTTP/2 connection to APNs;
+ *   3. runs Kafka JSON deserialization, buildFcmDataMap and the FCM payload
+ *      builders warmup.iterations times on synthetic DTOs so they are
+ *      JIT-compiled before real traffic.
+ * It then starts every container. Failures are logged and never block
+ * startup, and the whole phase is capped at warmup.timeout.ms.
+ *
+ * Runners complete before the application reports readiness, so a rolling
+ * deploy does not route traffic to a cold pod either.
+ */
+@Slf4j
+@Component
+public class ConsumerWarmupRunner implements ApplicationRunner {
+
+    // Long enough to pass FcmUtil.isValidFcmToken; FCM rejects it as INVALID_ARGUMENT
+    private static final String SYNTHETIC_TOKEN = "warmup-" + "x".repeat(150);
+
+    private static final String SYNTHETIC_EVENT = "{\"customerId\":1,\"notificationId\":1,\"channel\":\"INAPP\","
+            + "\"map\":{\"type\":\"MESSAGE\",\"conversationId\":\"1:2\",\"senderCustomerId\":\"2\","
+            + "\"receiverCustomerId\":\"1\",\"messageId\":\"warmup\",\"message\":\"warmup\","
+            + "\"timestamp\":0}}";
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final FcmUtil fcmUtil;
+    private final PushNotificationServiceImpl pushNotificationService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:2000}")
+    private int iterations;
+
+    @Value("${warmup.timeout.ms:30000}")
+    private long timeoutMs;
+
+    public ConsumerWarmupRunner(KafkaListenerEndpointRegistry registry, FcmUtil fcmUtil,
+                                PushNotificationServiceImpl pushNotificationService) {
+        this.registry = registry;
+        this.fcmUtil = fcmUtil;
+        this.pushNotificationService = pushNotificationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            CompletableFuture.runAsync(this::warmUp).get(timeoutMs, TimeUnit.MILLISECONDS);
+            log.info("[WARMUP] Completed in {}ms", System.currentTimeMillis() - start);
+        } catch (TimeoutException e) {
+            log.warn("[WARMUP] Not finished after {}ms, starting listeners anyway", timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("[WARMUP] Failed, starting listeners anyway: {}", e.getMessage(), e);
+        } finally {
+            startListeners();
+        }
+    }
+
+    private void warmUp() {
+        Map<String, String> sampleData = warmUpBuilders();
+
+        long t = System.currentTimeMillis();
+        try {
+            fcmUtil.warmUpFcm(SYNTHETIC_TOKEN, sampleData, iterations);
+            log.info("[WARMUP] FCM credentials and connection ready in {}ms", System.currentTimeMillis() - t);
+        } catch (Exception e) {
+            log.warn("[WARMUP] FCM warm-up failed: {}", e.getMessage());
+        }
+
+        t = System.currentTimeMillis();
+        try {
+            int status = fcmUtil.warmUpApns();
+            if (status >= 0) {
+                log.info("[WARMUP] APNs token and connection ready in {}ms (status={})",
+                        System.currentTimeMillis() - t, status);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("[WARMUP] APNs warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Deserialize and build the FCM data map for synthetic events.
+     *
+     * @return the last data map, reused as the sample payload for FCM
+     */
+    private Map<String, String> warmUpBuilders() {
+        long t = System.currentTimeMillis();
+        Map<String, String> data = Map.of("type", "MESSAGE");
+        try {
+            for (int i = 0; i < iterations; i++) {
+                NotificationDTO dto = objectMapper.readValue(SYNTHETIC_EVENT, NotificationDTO.class);
+                Map<String, String> built = pushNotificationService.buildFcmDataMap(dto);
+                if (built != null) {
+                    data = built;
+                }
+            }
+            log.info("[WARMUP] Payload builders exercised {}x in {}ms", iterations, System.currentTimeMillis() - t);
+        } catch (Exception e) {
+            log.warn("[WARMUP] Payload builder warm-up failed: {}", e.getMessage());
+        }
+        return data;
+    }
+
+    private void startListeners() {
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (!container.isRunning()) {
+                container.start();
+            }
+        }
+        log.info("[WARMUP] Started {} Kafka listener container(s)", registry.getListenerContainers().size());
+    }
+}
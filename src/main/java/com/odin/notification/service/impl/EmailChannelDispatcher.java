@@ -0,0 +1,38 @@
+package com.odin.notification.service.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.enums.NotificationChannel;
+import com.odin.notification.enums.NotificationType;
+import com.odin.notification.service.ChannelDispatcher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * EMAIL channel dispatcher.
+ * Kafka-driven email is not wired yet; email is only sent through the REST
+ * endpoints in EmailController.
+ */
+@Slf4j
+@Component
+public class EmailChannelDispatcher implements ChannelDispatcher {
+
+    @Override
+    public NotificationChannel getChannel() {
+        return NotificationChannel.EMAIL;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> dispatch(List<NotificationDTO> notifications, NotificationType type) {
+        for (NotificationDTO notification : notifications) {
+            // TODO: Implement email sending logic
+            log.info("Email notification handling not yet implemented for customerId: {}",
+                    notification.getCustomerId());
+        }
+        return CompletableFuture.completedFuture(true);
+    }
+}
@@ -0,0 +1,257 @@
+package com.odin.notification.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.SpillJournal;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes FCM-failure fallback records to Kafka without blocking the
+ * caller and without losing them while Kafka is unavailable.
+ *
+ * Every record is appended to the {@link SpillJournal} first (a memory-mapped
+ * write, no network I/O on the caller's thread) and the "spill-replayer"
+ * thread publishes the journal in append order: a batch of up to
+ * spill.replay.batch.size records is sent, acknowledgements are awaited in
+ * order and the journal is committed up to the last record before the first
+ * failure. Kafka being down therefore only grows the journal, records are
+ * never overtaken by later ones, and nothing runs on the producer's network
+ * thread. The replayer backs off for spill.replay.backoff.ms after a failure.
+ *
+ * Delivery is at-least-once: records after a failed one in the same batch,
+ * and records sent but not yet committed when the pod dies, are published
+ * again, so consumers of the fallback topics must treat records as
+ * idempotent.
+ *
+ * With spill.enabled=false records are sent directly and a failure is only
+ * logged.
+ */
+@Slf4j
+@Component
+public class FallbackPublisher {
+
+    private final KafkaTemplate<String, NotificationDTO> kafkaTemplate;
+    private final SpillJournal journal;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private final Semaphore wakeup = new Semaphore(0);
+    private Thread replayer;
+    private volatile boolean running;
+    private volatile boolean replayFailing;
+
+    @Value("${spill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spill.replay.interval.ms:1000}")
+    private long replayIntervalMs;
+
+    @Value("${spill.replay.backoff.ms:5000}")
+    private long replayBackoffMs;
+
+    @Value("${spill.replay.send.timeout.ms:10000}")
+    private long replaySendTimeoutMs;
+
+    @Value("${spill.replay.batch.size:100}")
+    private int replayBatchSize;
+
+    public FallbackPublisher(KafkaTemplate<String, NotificationDTO> kafkaTemplate, SpillJournal journal) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.journal = journal;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("[SPILL] Spill journal disabled, fallback records are lost while Kafka is unavailable");
+            return;
+        }
+        if (journal.hasPending()) {
+            log.info("[SPILL] Journal holds records from a previous run, replaying");
+        }
+        running = true;
+        replayer = new Thread(this::replayLoop, "spill-replayer");
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (replayer != null) {
+            replayer.interrupt();
+        }
+    }
+
+    /**
+     * Queue {@code notificationDTO} for publication to {@code topic}.
+     *
+     * @return false only if the record could not be journaled (journal full
+     *         or unserialisable record), i.e. it is lost
+     */
+    public boolean publish(String topic, String key, NotificationDTO notificationDTO) {
+        if (!enabled) {
+            try {
+                kafkaTemplate.send(topic, key, notificationDTO);
+                return true;
+            } catch (Exception e) {
+                lost.incrementAndGet();
+                log.error("[SPILL] Kafka publish to topic={} failed and spill is disabled, record LOST: {}",
+                        topic, e.getMessage());
+                return false;
+            }
+        }
+        try {
+            if (journal.append(topic, key, serialize(notificationDTO))) {
+                spilled.incrementAndGet();
+                if (wakeup.availablePermits() == 0) {
+                    wakeup.release();
+                }
+                return true;
+            }
+        } catch (Exception e) {
+            log.error("[SPILL] Failed to serialize record for topic={} key={}: {}", topic, key, e.getMessage());
+        }
+        lost.incrementAndGet();
+        log.error("[SPILL] Record for topic={} key={} could not be journaled, record LOST", topic, key);
+        return false;
+    }
+
+    private void replayLoop() {
+        while (running) {
+            long delayMs;
+            try {
+                delayMs = replayBatch() ? 0 : replayFailing ? replayBackoffMs : replayIntervalMs;
+            } catch (Exception e) {
+                log.error("[SPILL] Replay failed: {}", e.getMessage(), e);
+                delayMs = replayBackoffMs;
+            }
+            if (delayMs > 0) {
+                try {
+                    wakeup.tryAcquire(delayMs, TimeUnit.MILLISECONDS);
+                    wakeup.drainPermits();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Publish the next batch of journaled records in order.
+     *
+     * @return true if the whole batch was published and more may follow
+     */
+    boolean replayBatch() throws Exception {
+        List<SpillJournal.Record> batch = journal.read(replayBatchSize);
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        // Sends are issued in journal order; the producer keeps that order per partition
+        List<Future<?>> sends = new ArrayList<>(batch.size());
+        Exception failure = null;
+        for (SpillJournal.Record record : batch) {
+            NotificationDTO notificationDTO;
+            try {
+                notificationDTO = objectMapper.readValue(record.getValue(), NotificationDTO.class);
+            } catch (Exception e) {
+                log.error("[SPILL] Dropping unreadable journal record for topic={}: {}",
+                        record.getTopic(), e.getMessage());
+                sends.add(null);
+                continue;
+            }
+            try {
+                sends.add(kafkaTemplate.send(record.getTopic(), record.getKey(), notificationDTO));
+            } catch (Exception e) {
+                failure = e;
+                break;
+            }
+        }
+
+        int published = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(replaySendTimeoutMs);
+        for (Future<?> send : sends) {
+            if (send != null) {
+                try {
+                    send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = e;
+                    break;
+                } catch (Exception e) {
+                    failure = e;
+                    break;
+                }
+            }
+            published++;
+        }
+
+        if (published > 0) {
+            journal.commit(batch.get(published - 1));
+            replayed.addAndGet(published);
+        }
+        if (failure != null) {
+            if (!replayFailing) {
+                replayFailing = true;
+                log.warn("[SPILL] Kafka unavailable, replay paused with journal pending: {}", failure.getMessage());
+            }
+            return false;
+        }
+        if (replayFailing) {
+            replayFailing = false;
+            log.info("[SPILL] Kafka available again, replaying journal");
+        }
+        return true;
+    }
+
+    /**
+     * Serialise only the DTO's own fields; its derived getters would
+     * otherwise be folded back into the map on replay (see NotificationDTO's
+     * any-setter).
+     */
+    private byte[] serialize(NotificationDTO notificationDTO) throws Exception {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("customerId", notificationDTO.getCustomerId());
+        fields.put("notificationId", notificationDTO.getNotificationId());
+        fields.put("channel", notificationDTO.getChannel());
+        fields.put("map", notificationDTO.getMap());
+        fields.put("mobile", notificationDTO.getMobile());
+        fields.put("email", notificationDTO.getEmail());
+        return objectMapper.writeValueAsBytes(fields);
+    }
+
+    /** Journal and replay counters, for the spill journal endpoint. */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", journal.hasPending());
+        stats.put("segments", journal.getSegmentCount());
+        stats.put("journaled", spilled.get());
+        stats.put("replayed", replayed.get());
+        stats.put("lost", lost.get());
+        stats.put("corruptSkipped", journal.getCorruptCount());
+        stats.put("replayFailing", replayFailing);
+        return stats;
+    }
+}
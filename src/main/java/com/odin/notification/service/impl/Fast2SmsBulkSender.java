@@ -0,0 +1,219 @@
+package com.odin.notification.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.odin.notification.constants.ApplicationConstants;
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.ProviderIoExecutor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batching SMS sender for non-OTP DLT templates (alerts, reminders).
+ *
+ * Fast2SMS's DLT route accepts a comma-separated "numbers" list, so recipients
+ * that share the same message id, template id and variable values are grouped
+ * for up to fast2sms.bulk.window.ms and sent as a single request. A batch is
+ * flushed early once it reaches fast2sms.bulk.max-numbers.
+ *
+ * The gateway answers per request, not per number, so each recipient's future
+ * completes with the outcome of the request that carried it. Numbers outside
+ * the +91 DLT route are completed individually without a gateway call.
+ *
+ * OTPs never go through here — they are per-recipient and latency critical.
+ */
+@Slf4j
+@Service
+public class Fast2SmsBulkSender {
+
+    private final Fast2SmsOtpService fast2SmsOtpService;
+    private final ProviderIoExecutor providerIoExecutor;
+
+    private final Map<BatchKey, Batch> pending = new HashMap<>();
+    private ScheduledExecutorService flusher;
+
+    @Value("${fast2sms.bulk.window.ms:250}")
+    private long windowMs;
+
+    @Value("${fast2sms.bulk.max-numbers:100}")
+    private int maxNumbersPerRequest;
+
+    public Fast2SmsBulkSender(Fast2SmsOtpService fast2SmsOtpService, ProviderIoExecutor providerIoExecutor) {
+        this.fast2SmsOtpService = fast2SmsOtpService;
+        this.providerIoExecutor = providerIoExecutor;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sms-bulk-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        long tick = Math.max(10, windowMs / 2);
+        flusher.scheduleWithFixedDelay(this::flushExpired, tick, tick, TimeUnit.MILLISECONDS);
+        log.info("[SMS-BULK] Bulk sender started — window={}ms, maxNumbers={}", windowMs, maxNumbersPerRequest);
+    }
+
+    /**
+     * Queue an alert/reminder SMS. The DLT message id, template id and variable
+     * values come from the notification map.
+     *
+     * @return future completing with true if the gateway accepted the request
+     *         that carried this recipient
+     */
+    public CompletableFuture<Boolean> submit(NotificationDTO notification) {
+        String mobile = notification.getMobile();
+        Map<String, Object> map = notification.getMap();
+        Object messageId = map != null ? map.get(ApplicationConstants.SMS_DLT_MESSAGE_ID_KEY) : null;
+        Object templateId = map != null ? map.get(ApplicationConstants.SMS_DLT_TEMPLATE_ID_KEY) : null;
+        Object variables = map != null ? map.get(ApplicationConstants.SMS_DLT_VARIABLES_KEY) : null;
+
+        if (mobile == null || mobile.isBlank() || messageId == null || templateId == null) {
+            log.warn("[SMS-BULK] Missing mobile or DLT template for customerId={}, skipping", notification.getCustomerId());
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return submit(mobile, String.valueOf(messageId), String.valueOf(templateId),
+                variables != null ? String.valueOf(variables) : "");
+    }
+
+    /**
+     * Queue one recipient for a shared DLT template.
+     *
+     * @return future completing with true if the gateway accepted the request
+     *         that carried this number
+     */
+    public CompletableFuture<Boolean> submit(String phoneNumber, String messageId, String templateId, String variables) {
+        if (phoneNumber == null || phoneNumber.isBlank()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!fast2SmsOtpService.isSmsDeliveryEnabled() || !phoneNumber.startsWith("91")) {
+            log.info("[SMS-BULK] SMS delivery is DISABLED. Skipping: {}", Fast2SmsOtpService.maskPhone(phoneNumber));
+            return CompletableFuture.completedFuture(true);
+        }
+
+        BatchKey key = new BatchKey(messageId, templateId, variables);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Batch full = null;
+
+        synchronized (pending) {
+            Batch batch = pending.computeIfAbsent(key, k -> new Batch(System.currentTimeMillis()));
+            CompletableFuture<Boolean> existing = batch.recipients.putIfAbsent(phoneNumber, result);
+            if (existing != null) {
+                // Same number twice in one window — one SMS, shared outcome
+                return existing;
+            }
+            if (batch.recipients.size() >= maxNumbersPerRequest) {
+                full = pending.remove(key);
+            }
+        }
+
+        if (full != null) {
+            dispatch(key, full);
+        }
+        return result;
+    }
+
+    private void flushExpired() {
+        long cutoff = System.currentTimeMillis() - windowMs;
+        List<Map.Entry<BatchKey, Batch>> due = new ArrayList<>();
+
+        synchronized (pending) {
+            Iterator<Map.Entry<BatchKey, Batch>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<BatchKey, Batch> entry = it.next();
+                if (entry.getValue().createdAt <= cutoff) {
+                    due.add(entry);
+                    it.remove();
+                }
+            }
+        }
+
+        for (Map.Entry<BatchKey, Batch> entry : due) {
+            dispatch(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void dispatch(BatchKey key, Batch batch) {
+        String numbers = String.join(",", batch.recipients.keySet());
+        int count = batch.recipients.size();
+
+        providerIoExecutor.submit(() -> fast2SmsOtpService.sendDlt(key.messageId, key.templateId, key.variables, numbers))
+                .whenComplete((accepted, error) -> {
+                    boolean ok = error == null && Boolean.TRUE.equals(accepted);
+                    if (ok) {
+                        log.info("[SMS-BULK] Batch accepted — template={}, numbers={}", key.templateId, count);
+                    } else {
+                        log.warn("[SMS-BULK] Batch failed — template={}, numbers={}, error={}",
+                                key.templateId, count, error != null ? error.getMessage() : "gateway rejected");
+                    }
+                    batch.recipients.values().forEach(f -> f.complete(ok));
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        List<Map.Entry<BatchKey, Batch>> remaining;
+        synchronized (pending) {
+            remaining = new ArrayList<>(pending.entrySet());
+            pending.clear();
+        }
+        remaining.forEach(e -> dispatch(e.getKey(), e.getValue()));
+    }
+
+    private static final class BatchKey {
+        private final String messageId;
+        private final String templateId;
+        private final String variables;
+
+        private BatchKey(String messageId, String templateId, String variables) {
+            this.messageId = messageId;
+            this.templateId = templateId;
+            this.variables = variables;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BatchKey)) return false;
+            BatchKey other = (BatchKey) o;
+            return Objects.equals(messageId, other.messageId)
+                    && Objects.equals(templateId, other.templateId)
+                    && Objects.equals(variables, other.variables);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(messageId, templateId, variables);
+        }
+    }
+
+    private static final class Batch {
+        private final long createdAt;
+        private final Map<String, CompletableFuture<Boolean>> recipients = new LinkedHashMap<>();
+
+        private Batch(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.odin.notification.service.impl;
 
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -7,22 +13,28 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import com.odin.notification.dto.Fast2SmsRequest;
 import com.odin.notification.dto.Fast2SmsResponse;
 import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.ProviderIoExecutor;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Service for sending OTP SMS via Fast2SMS gateway. Uses POST with JSON body
- * and route "q".
+ * Service for sending OTP SMS via Fast2SMS gateway. Uses GET on the DLT route.
+ *
+ * Requests go through the pooled, timeout-bounded client from
+ * {@link com.odin.notification.config.Fast2SmsHttpClientConfig}; async variants
+ * run on the shared {@link ProviderIoExecutor}.
  */
 @Slf4j
 @Service
 public class Fast2SmsOtpService {
 
 	private final RestTemplate restTemplate;
+	private final ProviderIoExecutor providerIoExecutor;
 
 	@Value("${fast2sms.api.url}")
 	private String apiUrl;
@@ -36,8 +48,18 @@ public class Fast2SmsOtpService {
 	@Value("${fast2sms.sender-id}")
 	private String senderId;
 
-	public Fast2SmsOtpService() {
-		this.restTemplate = new RestTemplate();
+	public Fast2SmsOtpService(@Qualifier("fast2SmsRestTemplate") RestTemplate restTemplate,
+			ProviderIoExecutor providerIoExecutor) {
+		this.restTemplate = restTemplate;
+		this.providerIoExecutor = providerIoExecutor;
+	}
+
+	/**
+	 * Asynchronous variant of {@link #sendOtp(String, String, NotificationDTO)}.
+	 * The returned future completes with the same result sendOtp would return.
+	 */
+	public CompletableFuture<Boolean> sendOtpAsync(String phoneNumber, String otp, NotificationDTO notification) {
+		return providerIoExecutor.submit(() -> sendOtp(phoneNumber, otp, notification));
 	}
 
 	/**
@@ -69,17 +91,7 @@ public class Fast2SmsOtpService {
 	            dltTemplateId = "1207178119211275573";
 	        }
 
-	        String url = String.format("%s?authorization=%s&route=dlt&sender_id=%s&message=%s&template_id=%s&variables_values=%s&numbers=%s",
-	                apiUrl, authorizationKey, senderId, messageId, dltTemplateId, otp, phoneNumber);
-
-	        log.info("[SMS-OTP] Sending DLT request to Fast2SMS. URL: {}", url);
-
-	        // Using getForEntity to match the successful GET request structure
-	        ResponseEntity<Fast2SmsResponse> response = restTemplate.getForEntity(url, Fast2SmsResponse.class);
-
-	        Fast2SmsResponse responseBody = response.getBody();
-	        
-	        return response.getStatusCode().is2xxSuccessful() && responseBody != null && responseBody.isSuccess();
+	        return sendDlt(messageId, dltTemplateId, otp, phoneNumber);
 
 	    } catch (Exception e) {
 	        log.error("[SMS-OTP] Failed to send DLT SMS. Error: {}", e.getMessage(), e);
@@ -87,10 +99,55 @@ public class Fast2SmsOtpService {
 	    }
 	}
 
+	/**
+	 * Send a single DLT request. {@code numbers} may be one number or a
+	 * comma-separated list; Fast2SMS applies the same template and variables to
+	 * every number in the list.
+	 *
+	 * @return true if the gateway accepted the request
+	 */
+	boolean sendDlt(String messageId, String dltTemplateId, String variables, String numbers) {
+		URI uri = dltUri(messageId, dltTemplateId, variables, numbers);
+
+		log.info("[SMS-DLT] Sending DLT request to Fast2SMS — message={}, template={}", messageId, dltTemplateId);
+
+		// Using getForEntity to match the successful GET request structure
+		ResponseEntity<Fast2SmsResponse> response = restTemplate.getForEntity(uri, Fast2SmsResponse.class);
+
+		Fast2SmsResponse responseBody = response.getBody();
+
+		return response.getStatusCode().is2xxSuccessful() && responseBody != null && responseBody.isSuccess();
+	}
+
+	/**
+	 * Build the DLT request URI. Every value is expanded as a URI variable so
+	 * it is fully percent-encoded: '&', '+', '#', '|' and spaces in variables
+	 * or the key can neither split nor alter the query.
+	 */
+	URI dltUri(String messageId, String dltTemplateId, String variables, String numbers) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		values.put("authorization", authorizationKey);
+		values.put("sender_id", senderId);
+		values.put("message", messageId);
+		values.put("template_id", dltTemplateId);
+		values.put("variables_values", variables);
+		values.put("numbers", numbers);
+
+		UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(apiUrl).queryParam("route", "dlt");
+		for (String name : values.keySet()) {
+			builder.queryParam(name, "{" + name + "}");
+		}
+		return builder.encode().buildAndExpand(values).toUri();
+	}
+
+	boolean isSmsDeliveryEnabled() {
+		return smsDeliveryEnabled;
+	}
+
 	/**
 	 * Mask phone number for safe logging (show last 4 digits only).
 	 */
-	private String maskPhone(String phone) {
+	static String maskPhone(String phone) {
 		if (phone == null || phone.length() <= 4)
 			return "****";
 		return "****" + phone.substring(phone.length() - 4);
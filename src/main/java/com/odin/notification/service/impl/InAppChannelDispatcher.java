@@ -0,0 +1,44 @@
+package com.odin.notification.service.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.enums.NotificationChannel;
+import com.odin.notification.enums.NotificationType;
+import com.odin.notification.service.ChannelDispatcher;
+import com.odin.notification.service.PushNotificationService;
+
+/**
+ * INAPP (push) channel dispatcher — delivers through the FCM / APNs push path.
+ *
+ * PushNotificationService itself routes non-INAPP channels through the
+ * registry, so it is resolved lazily here to keep the bean graph acyclic.
+ */
+@Component
+public class InAppChannelDispatcher implements ChannelDispatcher {
+
+    private final ObjectProvider<PushNotificationService> pushNotificationService;
+
+    public InAppChannelDispatcher(ObjectProvider<PushNotificationService> pushNotificationService) {
+        this.pushNotificationService = pushNotificationService;
+    }
+
+    @Override
+    public NotificationChannel getChannel() {
+        return NotificationChannel.INAPP;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> dispatch(List<NotificationDTO> notifications, NotificationType type) {
+        PushNotificationService service = pushNotificationService.getObject();
+        boolean delivered = true;
+        for (NotificationDTO notification : notifications) {
+            delivered &= service.processPushNotification(notification);
+        }
+        return CompletableFuture.completedFuture(delivered);
+    }
+}
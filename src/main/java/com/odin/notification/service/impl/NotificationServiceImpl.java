@@ -1,15 +1,14 @@
 package com.odin.notification.service.impl;
 
-import java.util.Optional;
+import java.sql.Timestamp;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odin.notification.constants.ResponseCodes;
 import com.odin.notification.dto.NotificationTokenDTO;
 import com.odin.notification.dto.ResponseDTO;
-import com.odin.notification.entity.NotificationToken;
 import com.odin.notification.repo.NotificationTokenRepository;
 import com.odin.notification.service.NotificationService;
 import com.odin.notification.util.ResponseObject;
@@ -24,28 +23,44 @@ public class NotificationServiceImpl implements NotificationService {
 	private ResponseObject responseObj;
 
 	@Autowired
-	private ObjectMapper mapper;
+	private NotificationTokenCache tokenCache;
 
+	@Autowired
+	private TokenWriteBuffer tokenWriteBuffer;
+
+	@Value("${token.write-buffer.enabled:true}")
+	private boolean writeBufferEnabled;
+
+	/**
+	 * Registers the device's FCM token. With the write buffer enabled (default)
+	 * unchanged tokens are not written at all and changed ones are coalesced
+	 * and flushed in batches by {@link TokenWriteBuffer}. Otherwise it is a
+	 * single INSERT ... ON DUPLICATE KEY UPDATE on (customer_id, device_signature),
+	 * so concurrent app launches for the same device converge on a single row.
+	 */
 	@Override
 	public ResponseDTO save(NotificationTokenDTO notificationServ) {
+		if (notificationServ == null || notificationServ.getCustomerId() == null) {
+			return responseObj.buildResponse(ResponseCodes.FAILURE_CODE);
+		}
 		try {
-			NotificationToken obj = null;
-			Optional<NotificationToken> exists = repo.findFirstByCustomerId(
-					notificationServ.getCustomerId());
-			if (exists.isPresent()) {
-				obj = exists.get();
-				obj.setFcmToken(notificationServ.getFcmToken());
-				obj.setDeviceSignature(notificationServ.getDeviceSignature());
-				// Preserve voipToken if the incoming DTO has one (e.g. iOS re-registration)
-				if (notificationServ.getVoipToken() != null && !notificationServ.getVoipToken().isBlank()) {
-					obj.setVoipToken(notificationServ.getVoipToken());
-				}
-				obj.setUpdateTimestamp(new java.sql.Timestamp(System.currentTimeMillis()));
+			Timestamp now = new Timestamp(System.currentTimeMillis());
+			String deviceSignature = normalizeDeviceSignature(notificationServ.getDeviceSignature());
+			String voipToken = notificationServ.getVoipToken() != null && !notificationServ.getVoipToken().isBlank()
+					? notificationServ.getVoipToken()
+					: null;
+			if (writeBufferEnabled) {
+				tokenWriteBuffer.submit(notificationServ.getCustomerId(), deviceSignature,
+						notificationServ.getFcmToken(), voipToken);
 			} else {
-				obj = mapper.readValue(mapper.writeValueAsString(notificationServ), NotificationToken.class);
+				repo.upsertFcmToken(notificationServ.getCustomerId(), deviceSignature,
+						notificationServ.getFcmToken(), voipToken, now);
+				tokenCache.invalidate(notificationServ.getCustomerId(), now.getTime());
 			}
-			repo.save(obj);
-			return responseObj.buildResponse(ResponseCodes.SUCCESS_CODE, obj);
+
+			notificationServ.setDeviceSignature(deviceSignature);
+			notificationServ.setUpdateTimestamp(now);
+			return responseObj.buildResponse(ResponseCodes.SUCCESS_CODE, notificationServ);
 		} catch (Exception e) {
 			return responseObj.buildResponse(ResponseCodes.FAILURE_CODE);
 		}
@@ -57,31 +72,30 @@ public class NotificationServiceImpl implements NotificationService {
 			return responseObj.buildResponse(ResponseCodes.FAILURE_CODE);
 		}
 		try {
-			NotificationToken obj;
-			Optional<NotificationToken> byDevice = deviceSignature != null && !deviceSignature.isBlank()
-					? repo.findFirstByCustomerIdAndDeviceSignature(customerId, deviceSignature)
-					: Optional.empty();
-			if (byDevice.isPresent()) {
-				obj = byDevice.get();
-			} else {
-				Optional<NotificationToken> any = repo.findFirstByCustomerId(customerId);
-				if (any.isPresent()) {
-					obj = any.get();
-				} else {
-					obj = new NotificationToken();
-					obj.setCustomerId(customerId);
-					if (deviceSignature != null && !deviceSignature.isBlank()) {
-						obj.setDeviceSignature(deviceSignature);
-					}
-				}
+			Timestamp now = new Timestamp(System.currentTimeMillis());
+			String signature = normalizeDeviceSignature(deviceSignature);
+			// Without a signature, attach to the customer's latest device (previous behaviour);
+			// only create a signature-less row if the customer has none yet.
+			if (!signature.isEmpty() || repo.updateLatestVoipToken(customerId, voipToken, now) == 0) {
+				repo.upsertVoipToken(customerId, signature, voipToken, now);
 			}
-			obj.setVoipToken(voipToken);
-			obj.setUpdateTimestamp(new java.sql.Timestamp(System.currentTimeMillis()));
-			repo.save(obj);
-			return responseObj.buildResponse(ResponseCodes.SUCCESS_CODE, obj);
+			tokenCache.invalidate(customerId, now.getTime());
+
+			NotificationTokenDTO saved = NotificationTokenDTO.builder()
+					.customerId(customerId)
+					.deviceSignature(signature)
+					.voipToken(voipToken)
+					.updateTimestamp(now)
+					.build();
+			return responseObj.buildResponse(ResponseCodes.SUCCESS_CODE, saved);
 		} catch (Exception e) {
 			return responseObj.buildResponse(ResponseCodes.FAILURE_CODE);
 		}
 	}
 
+	/** NULL never matches in a unique key, so a missing signature is stored as "". */
+	private static String normalizeDeviceSignature(String deviceSignature) {
+		return deviceSignature != null ? deviceSignature.trim() : "";
+	}
+
 }
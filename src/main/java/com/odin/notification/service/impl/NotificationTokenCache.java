@@ -0,0 +1,267 @@
+package com.odin.notification.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.odin.notification.constants.ApplicationConstants;
+import com.odin.notification.dto.TokenSnapshot;
+import com.odin.notification.repo.NotificationTokenRepository;
+import com.odin.notification.util.HeapBudgetGovernor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-pod near cache for customerId → token lookups, kept consistent across
+ * pods by Redis pub/sub invalidation.
+ *
+ * Every write path (token save, VoIP token save, account deletion) calls
+ * {@link #invalidate(Long, long)} after its change is committed. That evicts
+ * the local entry and publishes "customerId:version" on
+ * {@value ApplicationConstants#REDIS_TOKEN_INVALIDATION_CHANNEL}; every pod
+ * (including the publisher) evicts its entry unless it already holds a row at
+ * least as new as that version. Because stale entries are actively evicted,
+ * the TTL (token.cache.ttl.seconds) is only a safety net for lost messages
+ * and can be long.
+ *
+ * Customers without a row are cached too (negative entries) so repeated pushes
+ * to users who never registered do not hit MariaDB each time.
+ *
+ * A load that races with an invalidation must not re-insert the pre-write row.
+ * Every write to an entry (load, local put, invalidation) is stamped with a
+ * sequence number inside entries.compute for that key; a load records the
+ * sequence before querying and is discarded if the key was written after
+ * that. An invalidation of a key that is not cached leaves a short-lived
+ * tombstone carrying its sequence, so the check also covers loads that
+ * started before the key was ever cached. Writes to other customers never
+ * affect a load.
+ *
+ * The entry limit is the smaller of token.cache.max-entries and what fits in
+ * token.cache.heap.percent of max heap ({@link HeapBudgetGovernor}), so the
+ * cache shrinks with the container instead of assuming a fixed heap.
+ */
+@Slf4j
+@Component
+public class NotificationTokenCache implements MessageListener {
+
+    // customerId key, map node, Entry, TokenSnapshot and its strings (FCM token ~160 chars, VoIP token, device signature)
+    private static final long ESTIMATED_ENTRY_BYTES = 800;
+
+    // Longer than any token query, so a tombstone outlives the loads it guards
+    private static final long TOMBSTONE_TTL_MS = 60_000;
+
+    private final NotificationTokenRepository notificationTokenRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final HeapBudgetGovernor heapBudget;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${token.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${token.cache.ttl.seconds:21600}")
+    private long ttlSeconds;
+
+    @Value("${token.cache.max-entries:200000}")
+    private int maxEntries;
+
+    @Value("${token.cache.heap.percent:15}")
+    private double heapPercent;
+
+    public NotificationTokenCache(NotificationTokenRepository notificationTokenRepository,
+                                  RedisTemplate<String, String> redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  HeapBudgetGovernor heapBudget) {
+        this.notificationTokenRepository = notificationTokenRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.heapBudget = heapBudget;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this,
+                new ChannelTopic(ApplicationConstants.REDIS_TOKEN_INVALIDATION_CHANNEL));
+        long budgetBytes = heapBudget.track("token-cache", heapPercent, this::estimatedBytes);
+        maxEntries = (int) Math.max(1, Math.min(maxEntries, budgetBytes / ESTIMATED_ENTRY_BYTES));
+        log.info("[TOKEN-CACHE] Near cache {} — ttl={}s, maxEntries={}",
+                enabled ? "enabled" : "disabled", ttlSeconds, maxEntries);
+    }
+
+    /**
+     * The customer's latest device row ({@link NotificationTokenRepository#findLatestDevice(Long)}),
+     * served from the near cache.
+     */
+    public Optional<TokenSnapshot> findByCustomerId(Long customerId) {
+        if (customerId == null) {
+            return Optional.empty();
+        }
+        if (!enabled) {
+            return notificationTokenRepository.findLatestDevice(customerId).map(TokenSnapshot::of);
+        }
+
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(customerId);
+        if (cached != null && !cached.tombstone && cached.expiresAt > now) {
+            return Optional.ofNullable(cached.snapshot);
+        }
+
+        long loadStart = sequence.get();
+        TokenSnapshot loaded = notificationTokenRepository.findLatestDevice(customerId)
+                .map(TokenSnapshot::of)
+                .orElse(null);
+        makeRoom(now);
+        entries.compute(customerId, (id, existing) -> existing != null && existing.seq > loadStart
+                ? existing
+                : new Entry(loaded, now + ttlSeconds * 1000L, sequence.incrementAndGet(), false));
+        return Optional.ofNullable(loaded);
+    }
+
+    /**
+     * Seed the local entry with a row this pod just wrote (read-your-writes)
+     * without evicting it on the other pods' behalf. Callers must still
+     * {@link #invalidate(Long, long)} so other pods drop their copy.
+     */
+    public void put(TokenSnapshot snapshot) {
+        if (enabled && snapshot != null && snapshot.getCustomerId() != null) {
+            long now = System.currentTimeMillis();
+            makeRoom(now);
+            entries.put(snapshot.getCustomerId(),
+                    new Entry(snapshot, now + ttlSeconds * 1000L, sequence.incrementAndGet(), false));
+        }
+    }
+
+    /**
+     * Evict locally and tell every pod to evict entries older than {@code version}.
+     * A failed publish is logged, not thrown: the write itself has succeeded
+     * and the TTL bounds how long other pods can serve the old row.
+     */
+    public void invalidate(Long customerId, long version) {
+        if (customerId == null) {
+            return;
+        }
+        applyInvalidation(customerId, version);
+        try {
+            redisTemplate.convertAndSend(ApplicationConstants.REDIS_TOKEN_INVALIDATION_CHANNEL,
+                    customerId + ":" + version);
+        } catch (Exception e) {
+            log.warn("[TOKEN-CACHE] Failed to publish invalidation for customerId={}: {}",
+                    customerId, e.getMessage());
+        }
+    }
+
+    /**
+     * {@link #invalidate(Long, long)} once the surrounding transaction commits,
+     * so no pod can reload the pre-commit row after being told to evict it.
+     * Runs immediately when there is no transaction.
+     */
+    public void invalidateAfterCommit(Long customerId, long version) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(customerId, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(customerId, version);
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int sep = body.indexOf(':');
+        try {
+            Long customerId = Long.valueOf(sep > 0 ? body.substring(0, sep) : body);
+            long version = sep > 0 ? Long.parseLong(body.substring(sep + 1)) : Long.MAX_VALUE;
+            applyInvalidation(customerId, version);
+        } catch (NumberFormatException e) {
+            log.warn("[TOKEN-CACHE] Ignoring malformed invalidation message '{}'", body);
+        }
+    }
+
+    /**
+     * Keep an entry already at least as new as {@code version} (restamped, so
+     * an older in-flight load cannot replace it); otherwise leave a tombstone.
+     */
+    private void applyInvalidation(Long customerId, long version) {
+        long now = System.currentTimeMillis();
+        entries.compute(customerId, (id, entry) -> {
+            long seq = sequence.incrementAndGet();
+            if (entry != null && !entry.tombstone && entry.snapshot != null
+                    && entry.snapshot.getVersion() >= version) {
+                return new Entry(entry.snapshot, entry.expiresAt, seq, false);
+            }
+            return new Entry(null, now + TOMBSTONE_TTL_MS, seq, true);
+        });
+    }
+
+    private void makeRoom(long now) {
+        if (entries.size() >= maxEntries) {
+            evictExpiredOrAny(now);
+        }
+    }
+
+    /**
+     * Drop expired entries; if none were expired, drop an arbitrary slice of
+     * live (non-tombstone) entries so the map stays bounded on a small heap.
+     */
+    private void evictExpiredOrAny(long now) {
+        int target = Math.max(1, maxEntries / 10);
+        int removed = 0;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+                removed++;
+            }
+        }
+        it = entries.values().iterator();
+        while (removed < target && it.hasNext()) {
+            if (!it.next().tombstone) {
+                it.remove();
+                removed++;
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private long estimatedBytes() {
+        return entries.size() * ESTIMATED_ENTRY_BYTES;
+    }
+
+    private static final class Entry {
+        private final TokenSnapshot snapshot;
+        private final long expiresAt;
+        private final long seq;
+        private final boolean tombstone;
+
+        private Entry(TokenSnapshot snapshot, long expiresAt, long seq, boolean tombstone) {
+            this.snapshot = snapshot;
+            this.expiresAt = expiresAt;
+            this.seq = seq;
+            this.tombstone = tombstone;
+        }
+    }
+}
@@ -1,20 +1,23 @@
 package com.odin.notification.service.impl;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.stereotype.Service;
 
-import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.dto.TokenSnapshot;
 import com.odin.notification.dto.PrivacyVisibilityChangeEvent;
-import com.odin.notification.entity.NotificationToken;
 import com.odin.notification.enums.NotificationChannel;
-import com.odin.notification.repo.NotificationTokenRepository;
 import com.odin.notification.service.PrivacyVisibilityChangeService;
+import com.odin.notification.util.DeliveryLog;
+import com.odin.notification.util.FcmPayloadTemplate;
 import com.odin.notification.util.FcmUtil;
+import com.odin.notification.util.ProviderIoExecutor;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,11 +32,16 @@ import lombok.extern.slf4j.Slf4j;
 public class PrivacyVisibilityChangeServiceImpl implements PrivacyVisibilityChangeService {
 
     private final FcmUtil fcmUtil;
-    private final NotificationTokenRepository notificationTokenRepository;
+    private final NotificationTokenCache tokenCache;
+    private final ProviderIoExecutor providerIoExecutor;
+    private final DeliveryLog deliveryLog;
 
-    public PrivacyVisibilityChangeServiceImpl(FcmUtil fcmUtil, NotificationTokenRepository notificationTokenRepository) {
+    public PrivacyVisibilityChangeServiceImpl(FcmUtil fcmUtil, NotificationTokenCache tokenCache,
+                                              ProviderIoExecutor providerIoExecutor, DeliveryLog deliveryLog) {
         this.fcmUtil = fcmUtil;
-        this.notificationTokenRepository = notificationTokenRepository;
+        this.tokenCache = tokenCache;
+        this.providerIoExecutor = providerIoExecutor;
+        this.deliveryLog = deliveryLog;
     }
 
     @Override
@@ -60,28 +68,25 @@ public class PrivacyVisibilityChangeServiceImpl implements PrivacyVisibilityChan
 
         log.info("[PRIVACY-SERVICE] 👥 Sending notifications to {} eligible contacts", eligibleContacts.size());
 
-        int successCount = 0;
-        int failureCount = 0;
         String action = determineAction(event);
 
+        // The payload does not depend on the contact — build the variable part once
+        // and share the frozen map across every send.
+        Map<String, String> fcmData = buildFcmDataMap(userId, action, photoPrivacy, lastSeenPrivacy);
+
+        // Each contact is an independent blocking FCM call — run them on the provider I/O
+        // executor so a large contact list is not delivered strictly one-by-one.
+        List<Callable<Boolean>> sends = new ArrayList<>(eligibleContacts.size());
         for (String contactId : eligibleContacts) {
-            try {
-                String fcmToken = fetchFcmToken(contactId);
-                if (fcmToken == null || fcmToken.isEmpty()) {
-                    log.warn("[PRIVACY-SERVICE] ⚠️ No FCM token for contact: {}. Skipping.", contactId);
-                    failureCount++;
-                    continue;
-                }
-
-                Map<String, String> fcmData = buildFcmDataMap(userId, action, photoPrivacy, lastSeenPrivacy);
-                String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken, fcmData, true);
-                
-                log.info("[PRIVACY-SERVICE] ✅ Privacy change FCM sent. MessageId={}, contactId={}, action=",
-                        messageId, contactId, action);
-                successCount++;
+            sends.add(() -> sendToContact(contactId, action, fcmData));
+        }
 
-            } catch (Exception e) {
-                log.error("[PRIVACY-SERVICE] ❌ Failed to send FCM to contact: {}. Error: {}", contactId, e.getMessage());
+        int successCount = 0;
+        int failureCount = 0;
+        for (CompletableFuture<Boolean> result : providerIoExecutor.invokeAll(sends)) {
+            if (!result.isCompletedExceptionally() && Boolean.TRUE.equals(result.getNow(false))) {
+                successCount++;
+            } else {
                 failureCount++;
             }
         }
@@ -94,6 +99,26 @@ public class PrivacyVisibilityChangeServiceImpl implements PrivacyVisibilityChan
         }
     }
 
+    private boolean sendToContact(String contactId, String action, Map<String, String> fcmData) {
+        try {
+            String fcmToken = fetchFcmToken(contactId);
+            if (fcmToken == null || fcmToken.isEmpty()) {
+                log.warn("[PRIVACY-SERVICE] ⚠️ No FCM token for contact: {}. Skipping.", contactId);
+                return false;
+            }
+
+            String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken,
+                    FcmPayloadTemplate.PRIVACY_CHANGE, fcmData);
+
+            deliveryLog.sent(DeliveryLog.CATEGORY_FCM, contactId, fcmToken, messageId, 1);
+            return true;
+
+        } catch (Exception e) {
+            log.error("[PRIVACY-SERVICE] ❌ Failed to send FCM to contact: {}. Error: {}", contactId, e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Determine action based on privacy levels.
      * GRANTED = visibility increased, REVOKED = visibility decreased
@@ -134,8 +159,9 @@ public class PrivacyVisibilityChangeServiceImpl implements PrivacyVisibilityChan
     }
 
     /**
-     * Build FCM data payload for privacy change notification.
-     * This is a silent notification (data-only, no sound).
+     * Build the per-recipient fields of the privacy change payload.
+     * type/sound/badge and the silent platform configs come from
+     * {@link FcmPayloadTemplate#PRIVACY_CHANGE}.
      */
     private Map<String, String> buildFcmDataMap(
             String userId,
@@ -143,37 +169,25 @@ public class PrivacyVisibilityChangeServiceImpl implements PrivacyVisibilityChan
             String photoPrivacy,
             String lastSeenPrivacy) {
 
-        Map<String, String> fcmData = new HashMap<>();
-
-        // Type: PRIVACY_CHANGE
-        fcmData.put("type", "PRIVACY_CHANGE");
-        fcmData.put("sound", ApplicationConstants.FCM_NOTIFICATION_SOUND_NONE);
-        fcmData.put("badge", "0");
-
-        // User who changed privacy
-        fcmData.put("targetUserId", userId);
-        fcmData.put("senderCustomerId", userId);
-
-        // Privacy change details
-        fcmData.put("action", action); // GRANTED or REVOKED
-        fcmData.put("photoPrivacy", photoPrivacy != null ? photoPrivacy : "UNKNOWN");
-        fcmData.put("lastSeenPrivacy", lastSeenPrivacy != null ? lastSeenPrivacy : "UNKNOWN");
-
         // Determine attributes
-        StringBuilder attributes = new StringBuilder();
-        if (photoPrivacy != null) {
-            attributes.append("PHOTO");
-        }
-        if (lastSeenPrivacy != null) {
-            if (attributes.length() > 0) {
-                attributes.append(",");
-            }
-            attributes.append("LAST_SEEN");
+        String attributes;
+        if (photoPrivacy != null && lastSeenPrivacy != null) {
+            attributes = "PHOTO,LAST_SEEN";
+        } else if (photoPrivacy != null) {
+            attributes = "PHOTO";
+        } else if (lastSeenPrivacy != null) {
+            attributes = "LAST_SEEN";
+        } else {
+            attributes = "";
         }
-        fcmData.put("attributes", attributes.toString());
 
-        log.debug("[PRIVACY-SERVICE] 📦 Built FCM payload with {} entries", fcmData.size());
-        return fcmData;
+        return Map.of(
+                "targetUserId", userId,
+                "senderCustomerId", userId,
+                "action", action, // GRANTED or REVOKED
+                "photoPrivacy", photoPrivacy != null ? photoPrivacy : "UNKNOWN",
+                "lastSeenPrivacy", lastSeenPrivacy != null ? lastSeenPrivacy : "UNKNOWN",
+                "attributes", attributes);
     }
 
     /**
@@ -182,7 +196,7 @@ public class PrivacyVisibilityChangeServiceImpl implements PrivacyVisibilityChan
     private String fetchFcmToken(String contactId) {
         try {
             Long contactIdLong = Long.parseLong(contactId);
-            Optional<NotificationToken> token = notificationTokenRepository.findFirstByCustomerId(contactIdLong);
+            Optional<TokenSnapshot> token = tokenCache.findByCustomerId(contactIdLong);
             
             if (token.isPresent() && token.get().getFcmToken() != null && !token.get().getFcmToken().isEmpty()) {
                 log.debug("[PRIVACY-SERVICE] 🔑 Found FCM token for contact: {}", contactId);
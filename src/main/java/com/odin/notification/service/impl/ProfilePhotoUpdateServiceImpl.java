@@ -8,10 +8,11 @@ import org.springframework.stereotype.Service;
 
 import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
-import com.odin.notification.entity.NotificationToken;
+import com.odin.notification.dto.TokenSnapshot;
 import com.odin.notification.enums.NotificationChannel;
-import com.odin.notification.repo.NotificationTokenRepository;
 import com.odin.notification.service.ProfilePhotoUpdateService;
+import com.odin.notification.util.DeliveryLog;
+import com.odin.notification.util.FcmPayloadTemplate;
 import com.odin.notification.util.FcmUtil;
 
 import lombok.extern.slf4j.Slf4j;
@@ -25,11 +26,14 @@ import lombok.extern.slf4j.Slf4j;
 public class ProfilePhotoUpdateServiceImpl implements ProfilePhotoUpdateService {
 
     private final FcmUtil fcmUtil;
-    private final NotificationTokenRepository notificationTokenRepository;
+    private final NotificationTokenCache tokenCache;
+    private final DeliveryLog deliveryLog;
 
-    public ProfilePhotoUpdateServiceImpl(FcmUtil fcmUtil, NotificationTokenRepository notificationTokenRepository) {
+    public ProfilePhotoUpdateServiceImpl(FcmUtil fcmUtil, NotificationTokenCache tokenCache,
+                                         DeliveryLog deliveryLog) {
         this.fcmUtil = fcmUtil;
-        this.notificationTokenRepository = notificationTokenRepository;
+        this.tokenCache = tokenCache;
+        this.deliveryLog = deliveryLog;
     }
 
     @Override
@@ -69,20 +73,21 @@ public class ProfilePhotoUpdateServiceImpl implements ProfilePhotoUpdateService
         Map<String, String> fcmData = buildFcmDataMap(notificationDTO);
 
         try {
-            String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken, fcmData, true);
-            log.info("Profile photo update push sent successfully. MessageId: {}", messageId);
+            String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken,
+                    FcmPayloadTemplate.PROFILE_PHOTO_UPDATE, fcmData);
+            deliveryLog.sent(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), fcmToken, messageId, 1);
         } catch (Exception e) {
             log.error("Failed to send profile photo update push for customerId: {}. Error: {}",
                     notificationDTO.getCustomerId(), e.getMessage(), e);
         }
     }
 
+    /**
+     * Per-recipient fields only; type/sound/badge come from
+     * {@link FcmPayloadTemplate#PROFILE_PHOTO_UPDATE}.
+     */
     private Map<String, String> buildFcmDataMap(NotificationDTO notificationDTO) {
-        Map<String, String> fcmData = new HashMap<>();
-
-        fcmData.put("type", ApplicationConstants.FCM_NOTIFICATION_TYPE_PROFILE_PHOTO_UPDATE);
-        fcmData.put("sound", ApplicationConstants.FCM_NOTIFICATION_SOUND_NONE);
-        fcmData.put("badge", "0");
+        Map<String, String> fcmData = new HashMap<>(4);
 
         if (notificationDTO.getSenderCustomerId() != null) {
             fcmData.put(ApplicationConstants.FCM_SENDER_CUSTOMER_ID_KEY, notificationDTO.getSenderCustomerId());
@@ -93,7 +98,6 @@ public class ProfilePhotoUpdateServiceImpl implements ProfilePhotoUpdateService
             fcmData.put("senderPhone", notificationDTO.getSenderMobile());
         }
 
-        log.debug("Built FCM data map for profile photo update with {} entries", fcmData.size());
         return fcmData;
     }
 
@@ -106,7 +110,7 @@ public class ProfilePhotoUpdateServiceImpl implements ProfilePhotoUpdateService
 
     private String fetchFcmToken(Long customerId) {
         try {
-            Optional<NotificationToken> token = notificationTokenRepository.findFirstByCustomerId(customerId);
+            Optional<TokenSnapshot> token = tokenCache.findByCustomerId(customerId);
             if (token.isPresent() && token.get().getFcmToken() != null && !token.get().getFcmToken().isEmpty()) {
                 return token.get().getFcmToken();
             }
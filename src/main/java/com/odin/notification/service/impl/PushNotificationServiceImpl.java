@@ -4,9 +4,15 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -14,16 +20,22 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.MessagingErrorCode;
 
 import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
-import com.odin.notification.entity.NotificationToken;
+import com.odin.notification.dto.TokenSnapshot;
 import com.odin.notification.enums.NotificationChannel;
-import com.odin.notification.repo.NotificationTokenRepository;
+import com.odin.notification.enums.NotificationType;
 import com.odin.notification.service.PushNotificationService;
+import com.odin.notification.util.CallCancellationRegistry;
+import com.odin.notification.util.CallCancellationRegistry.InFlightCall;
+import com.odin.notification.util.Deadline;
+import com.odin.notification.util.DeliveryLog;
+import com.odin.notification.util.DownstreamBackpressure;
+import com.odin.notification.util.FcmSendException;
 import com.odin.notification.util.FcmUtil;
+import com.odin.notification.util.FreshnessPolicy;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,10 +48,15 @@ import lombok.extern.slf4j.Slf4j;
 public class PushNotificationServiceImpl implements PushNotificationService {
 
     private final FcmUtil fcmUtil;
-    private final NotificationTokenRepository notificationTokenRepository;
-    private final Fast2SmsOtpService fast2SmsOtpService;
-    private final KafkaTemplate<String, NotificationDTO> kafkaTemplate;
+    private final NotificationTokenCache tokenCache;
+    private final ChannelDispatcherRegistry channelDispatcherRegistry;
+    private final FallbackPublisher fallbackPublisher;
+    private final DeliveryLog deliveryLog;
+    private final FreshnessPolicy freshnessPolicy;
+    private final CallCancellationRegistry callCancellations;
+    private final DownstreamBackpressure downstreamBackpressure;
     private static final String CALL_INVITE_TYPE = "CALL_INVITE";
+    private static final String CALL_CANCEL_TYPE = "CALL_CANCEL";
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // Non-retryable FCM error codes — retrying these would never succeed
@@ -71,17 +88,45 @@ public class PushNotificationServiceImpl implements PushNotificationService {
     @Value("${fcm.failure.kafka.publish.enabled:true}")
     private boolean fcmFailureKafkaPublishEnabled;
 
-    public PushNotificationServiceImpl(FcmUtil fcmUtil, NotificationTokenRepository notificationTokenRepository,
-                                       Fast2SmsOtpService fast2SmsOtpService,
-                                       KafkaTemplate<String, NotificationDTO> kafkaTemplate) {
+    // ===== Hedged CALL_INVITE (APNs VoIP + FCM) =====
+    @Value("${call.hedge.enabled:true}")
+    private boolean callHedgeEnabled;
+
+    @Value("${call.hedge.delay.ms:500}")
+    private long callHedgeDelayMs;
+
+    @Value("${call.hedge.timeout.ms:10000}")
+    private long callHedgeTimeoutMs;
+
+    public PushNotificationServiceImpl(FcmUtil fcmUtil, NotificationTokenCache tokenCache,
+                                       ChannelDispatcherRegistry channelDispatcherRegistry,
+                                       FallbackPublisher fallbackPublisher,
+                                       DeliveryLog deliveryLog,
+                                       FreshnessPolicy freshnessPolicy,
+                                       CallCancellationRegistry callCancellations,
+                                       DownstreamBackpressure downstreamBackpressure) {
         this.fcmUtil = fcmUtil;
-        this.notificationTokenRepository = notificationTokenRepository;
-        this.fast2SmsOtpService = fast2SmsOtpService;
-        this.kafkaTemplate = kafkaTemplate;
+        this.tokenCache = tokenCache;
+        this.channelDispatcherRegistry = channelDispatcherRegistry;
+        this.fallbackPublisher = fallbackPublisher;
+        this.deliveryLog = deliveryLog;
+        this.freshnessPolicy = freshnessPolicy;
+        this.callCancellations = callCancellations;
+        this.downstreamBackpressure = downstreamBackpressure;
     }
 
     @Override
-    public void processPushNotification(NotificationDTO notificationDTO) {
+    public boolean processPushNotification(NotificationDTO notificationDTO) {
+        return processPushNotification(notificationDTO, Deadline.none());
+    }
+
+    /**
+     * Same as {@link #processPushNotification(NotificationDTO)}, abandoning
+     * token lookup, sends, retries and fallback publication once
+     * {@code deadline} has passed.
+     */
+    @Override
+    public boolean processPushNotification(NotificationDTO notificationDTO, Deadline deadline) {
         log.info(ApplicationConstants.LOG_NOTIFICATION_PROCESSING_STARTED);
         log.info(ApplicationConstants.LOG_UNDELIVERED_NOTIFICATION_RECEIVED,
                 notificationDTO.getCustomerId(),
@@ -92,48 +137,43 @@ public class PushNotificationServiceImpl implements PushNotificationService {
             // Validate notification data
             if (!isValidNotification(notificationDTO)) {
                 log.error("Invalid notification data received: {}", notificationDTO);
-                return;
+                return true;
             }
 
             // Route notification based on channel
-            routeNotificationByChannel(notificationDTO);
+            boolean handled = routeNotificationByChannel(notificationDTO, deadline);
 
             log.info(ApplicationConstants.LOG_NOTIFICATION_PROCESSING_COMPLETED);
+            return handled;
 
         } catch (Exception e) {
             log.error(ApplicationConstants.LOG_ERROR_PROCESSING_NOTIFICATION,
                     notificationDTO.getCustomerId(),
                     e.getMessage(),
                     e);
+            return false;
         }
     }
 
     /**
      * Route notification to appropriate handler based on channel
+     * INAPP is handled here; other channels go through the ChannelDispatcher registry.
      * 
      * @param notificationDTO The notification to process
+     * @return false if delivery failed, see {@link #processPushNotification(NotificationDTO, Deadline)}
      */
-    private void routeNotificationByChannel(NotificationDTO notificationDTO) {
+    private boolean routeNotificationByChannel(NotificationDTO notificationDTO, Deadline deadline) {
         log.info(ApplicationConstants.LOG_PROCESSING_NOTIFICATION,
                 notificationDTO.getCustomerId(),
                 notificationDTO.getNotificationId(),
                 notificationDTO.getChannel());
 
-        NotificationChannel channel = notificationDTO.getChannel();
-
-        switch (channel) {
-            case INAPP:
-                handleInAppNotification(notificationDTO);
-                break;
-            case EMAIL:
-                handleEmailNotification(notificationDTO);
-                break;
-            case SMS:
-                handleSmsNotification(notificationDTO);
-                break;
-            default:
-                log.warn(ApplicationConstants.LOG_UNSUPPORTED_CHANNEL, channel);
+        // INAPP is this service's own chat/call push path; every other channel
+        // is owned by its ChannelDispatcher.
+        if (notificationDTO.getChannel() == NotificationChannel.INAPP) {
+            return handleInAppNotification(notificationDTO, deadline);
         }
+        return channelDispatcherRegistry.dispatch(notificationDTO, NotificationType.PUSH).join();
     }
 
     /**
@@ -141,17 +181,10 @@ public class PushNotificationServiceImpl implements PushNotificationService {
      * 
      * @param notificationDTO The notification data
      */
-    private void handleInAppNotification(NotificationDTO notificationDTO) {
+    private boolean handleInAppNotification(NotificationDTO notificationDTO, Deadline deadline) {
         log.debug("Processing INAPP notification for customerId: {}", notificationDTO.getCustomerId());
         if (notificationDTO.getMap() != null) {
-            log.info("[NOTIFY-CONSUMER-DEBUG] Received notification map from Kafka: {}", notificationDTO.getMap());
-            log.info("[NOTIFY-CONSUMER-DEBUG] conversationId={}, groupId={}", notificationDTO.getMap().get("conversationId"), notificationDTO.getMap().get("groupId"));
-            log.info(
-              "[KAFKA-ENTRY] dtoHash={} mapHash={} mapKeys={}",
-              System.identityHashCode(notificationDTO),
-              System.identityHashCode(notificationDTO.getMap()),
-              notificationDTO.getMap().keySet()
-            );
+            log.debug("[NOTIFY-CONSUMER-DEBUG] conversationId={}, groupId={}", notificationDTO.getMap().get("conversationId"), notificationDTO.getMap().get("groupId"));
         } else {
             log.warn("[NOTIFY-CONSUMER-DEBUG] NotificationDTO map is null for customerId={}", notificationDTO.getCustomerId());
         }
@@ -168,65 +201,28 @@ public class PushNotificationServiceImpl implements PushNotificationService {
             String signalForCheck = notificationDTO.getMap() != null && notificationDTO.getMap().get("signal") != null
                     ? String.valueOf(notificationDTO.getMap().get("signal"))
                     : null;
-            boolean isCallInviteNotif = CALL_INVITE_TYPE.equalsIgnoreCase(signalForCheck);
-            // If it's not encrypted AND not a CALL_INVITE, we require a message body.
-            // CALL_INVITE pushes carry no body text — they are routed to APNs VoIP or FCM data-only.
+            boolean isCallInviteNotif = CALL_INVITE_TYPE.equalsIgnoreCase(signalForCheck)
+                    || CALL_CANCEL_TYPE.equalsIgnoreCase(signalForCheck);
+            // If it's not encrypted AND not a call signal, we require a message body.
+            // CALL_INVITE / CALL_CANCEL pushes carry no body text — they are routed to APNs VoIP or FCM data-only.
             if (!notificationDTO.isEncrypted() && !isCallInviteNotif && (message == null || message.isEmpty())) {
                 log.warn("No message found in notification map for non-encrypted message, customerId: {}",
                         notificationDTO.getCustomerId());
-                return;
+                return true;
             }
             if (isCallInviteNotif) {
-                log.info("[CALL_INVITE] Bypassing message body requirement for CALL_INVITE notification, customerId={}",
-                        notificationDTO.getCustomerId());
+                log.info("[CALL_INVITE] Bypassing message body requirement for {} notification, customerId={}",
+                        signalForCheck, notificationDTO.getCustomerId());
             }
 
             // Send push notification
-            sendPushNotification(notificationDTO, message);
+            return sendPushNotification(notificationDTO, message, deadline);
 
-        } else {
-            log.debug("Notification ID is not direct message. Would fetch template from database for ID: {}",
-                    notificationDTO.getNotificationId());
-            // TODO: Implement template fetching from database for other notification IDs
-        }
-    }
-
-    /**
-     * Handle EMAIL notifications
-     * 
-     * @param notificationDTO The notification data
-     */
-    private void handleEmailNotification(NotificationDTO notificationDTO) {
-        log.debug("Processing EMAIL notification for customerId: {}", notificationDTO.getCustomerId());
-        // TODO: Implement email sending logic
-        log.info("Email notification handling not yet implemented for customerId: {}",
-                notificationDTO.getCustomerId());
-    }
-
-    /**
-     * Handle SMS notifications
-     * 
-     * @param notificationDTO The notification data
-     */
-    private void handleSmsNotification(NotificationDTO notificationDTO) {
-        log.debug("Processing SMS notification for customerId: {}", notificationDTO.getCustomerId());
-
-        String mobile = notificationDTO.getMobile();
-        String otp = notificationDTO.getMap() != null
-                ? String.valueOf(notificationDTO.getMap().get("otp"))
-                : null;
-
-        if (mobile == null || mobile.isBlank() || otp == null || "null".equals(otp)) {
-            log.warn(ApplicationConstants.LOG_SMS_OTP_MISSING_DATA, mobile, otp != null);
-            return;
-        }
-
-        boolean sent = fast2SmsOtpService.sendOtp(mobile, otp, notificationDTO);
-        if (sent) {
-            log.info(ApplicationConstants.LOG_SMS_OTP_SENT_SUCCESS, mobile);
-        } else {
-            log.warn(ApplicationConstants.LOG_SMS_OTP_SENT_FAILURE, mobile);
         }
+        log.debug("Notification ID is not direct message. Would fetch template from database for ID: {}",
+                notificationDTO.getNotificationId());
+        // TODO: Implement template fetching from database for other notification IDs
+        return true;
     }
 
     /**
@@ -235,11 +231,36 @@ public class PushNotificationServiceImpl implements PushNotificationService {
      * 
      * @param notificationDTO The notification data
      * @param message         The message to send
+     * @param deadline        Point after which no further work is done for this message
+     * @return false if the push was neither delivered nor handed to the fallback topic
      */
-    private void sendPushNotification(NotificationDTO notificationDTO, String message) {
+    private boolean sendPushNotification(NotificationDTO notificationDTO, String message, Deadline deadline) {
+        // CALL_INVITE sends are registered so a CALL_CANCEL can abort them mid-retry
+        InFlightCall call = CALL_INVITE_TYPE.equalsIgnoreCase(resolveSignal(notificationDTO.getMap()))
+                ? callCancellations.register(notificationDTO.getCustomerId(),
+                        CallCancellationRegistry.callId(notificationDTO.getMap()))
+                : InFlightCall.NONE;
+        try {
+            return sendPushNotification(notificationDTO, message, deadline, call);
+        } finally {
+            callCancellations.complete(call);
+        }
+    }
+
+    private boolean sendPushNotification(NotificationDTO notificationDTO, String message, Deadline deadline,
+                                         InFlightCall call) {
         log.debug("Preparing to send push notification for customerId: {}",
                 notificationDTO.getCustomerId());
 
+        if (deadline.isExpired()) {
+            abandonOnDeadline(notificationDTO, "token-lookup");
+            return true;
+        }
+        if (call.isCancelled()) {
+            abandonOnCancel(notificationDTO, "token-lookup");
+            return true;
+        }
+
         // ── Phase 3: iOS VoIP push path for CALL_INVITE ──────────────────────
         // Decision tree for CALL_INVITE:
         //   1. customerId null              → skip VoIP block entirely (NPE guard)
@@ -252,46 +273,57 @@ public class PushNotificationServiceImpl implements PushNotificationService {
         // Therefore Android always lands on case 3 and takes the original FCM path unchanged.
         // Check both "signal" (WebSocket path) and "type" (Kafka/FCM payload path) for CALL_INVITE.
         // Kafka consumer payloads use "type=CALL_INVITE" — "signal" is absent in that case.
-        String signalField = null;
-        if (notificationDTO.getMap() != null) {
-            Object sig = notificationDTO.getMap().get("signal");
-            Object typ = notificationDTO.getMap().get("type");
-            if (sig != null) {
-                signalField = String.valueOf(sig);
-            } else if (typ != null) {
-                signalField = String.valueOf(typ);
-            }
-        }
+        String signalField = resolveSignal(notificationDTO.getMap());
         log.debug("[VoIP-APNs] signalField resolved as '{}' for customerId={}", signalField, notificationDTO.getCustomerId());
 
-        if (CALL_INVITE_TYPE.equalsIgnoreCase(signalField) && notificationDTO.getCustomerId() != null) {
+        // For CALL_INVITE the token row is looked up once and shared by the APNs and FCM legs
+        boolean callInvite = CALL_INVITE_TYPE.equalsIgnoreCase(signalField) && notificationDTO.getCustomerId() != null;
+        Optional<TokenSnapshot> callTokens = Optional.empty();
+        if (callInvite) {
             // Safe DB lookup — customerId non-null is guaranteed by the guard above
-            Optional<NotificationToken> tokenRecord =
-                    notificationTokenRepository.findFirstByCustomerId(notificationDTO.getCustomerId());
+            callTokens = tokenCache.findByCustomerId(notificationDTO.getCustomerId());
 
-            String voipToken = tokenRecord.isPresent() ? tokenRecord.get().getVoipToken() : null;
+            String voipToken = callTokens.map(TokenSnapshot::getVoipToken).orElse(null);
 
-                log.info("[VoIP-APNs] CALL_INVITE routing — customerId={} hasVoipToken={}",
+            log.info("[VoIP-APNs] CALL_INVITE routing — customerId={} hasVoipToken={}",
                     notificationDTO.getCustomerId(), voipToken != null && !voipToken.isBlank());
 
             if (voipToken != null && !voipToken.isBlank()) {
                 // ── iOS device with PushKit token registered → APNs VoIP push ──
-                log.info("[VoIP-APNs] CALL_INVITE — iOS device with voipToken found for customerId={}, routing to APNs (bypassing FCM)",
-                        notificationDTO.getCustomerId());
                 Map<String, String> fcmDataMap = buildFcmDataMap(notificationDTO);
-                if (fcmDataMap != null) {
+                String callFcmToken = callTokens.map(TokenSnapshot::getFcmToken).orElse(null);
+                if (fcmDataMap == null) {
+                    log.warn("[VoIP-APNs] buildFcmDataMap returned null for customerId={}, falling back to FCM",
+                            notificationDTO.getCustomerId());
+                } else if (callHedgeEnabled && callFcmToken != null && !callFcmToken.isEmpty()) {
+                    // ── Hedged: APNs now, FCM after call.hedge.delay.ms, first success wins ──
+                    if (sendHedgedCallInvite(notificationDTO, voipToken, callFcmToken, fcmDataMap, deadline, call)) {
+                        return true;
+                    }
+                    if (deadline.isExpired()) {
+                        abandonOnDeadline(notificationDTO, "call-hedge");
+                        return true;
+                    }
+                    if (call.isCancelled()) {
+                        abandonOnCancel(notificationDTO, "call-hedge");
+                        return true;
+                    }
+                    log.warn("[CALL-HEDGE] Both transports failed for customerId={} — falling back to FCM retry",
+                            notificationDTO.getCustomerId());
+                } else {
+                    log.info("[VoIP-APNs] CALL_INVITE — iOS device with voipToken found for customerId={}, routing to APNs (bypassing FCM)",
+                            notificationDTO.getCustomerId());
                     int apnsStatus = fcmUtil.sendVoipApnsPush(voipToken, fcmDataMap);
-                    log.info("[VoIP-APNs] APNs result: status={} customerId={}",
-                            apnsStatus, notificationDTO.getCustomerId());
                     if (apnsStatus == 200) {
-                        return; // APNs VoIP push delivered successfully — skip FCM
+                        deliveryLog.sent(DeliveryLog.CATEGORY_APNS, notificationDTO.getCustomerId(),
+                                voipToken, "status=200", 1);
+                        return true; // APNs VoIP push delivered successfully — skip FCM
                     }
+                    deliveryLog.failed(DeliveryLog.CATEGORY_APNS, notificationDTO.getCustomerId(),
+                            voipToken, "status=" + apnsStatus, 1);
                     // APNs push failed — fall through to FCM so the call is not silently dropped
                     log.warn("[VoIP-APNs] ⚠️ APNs VoIP push failed (status={}) for customerId={} — falling back to FCM",
                             apnsStatus, notificationDTO.getCustomerId());
-                } else {
-                    log.warn("[VoIP-APNs] buildFcmDataMap returned null for customerId={}, falling back to FCM",
-                            notificationDTO.getCustomerId());
                 }
                 // Fall through to standard FCM path below
             } else {
@@ -303,49 +335,144 @@ public class PushNotificationServiceImpl implements PushNotificationService {
         }
         // ─────────────────────────────────────────────────────────────────────
 
-        // Fetch FCM token from database based on customerId
-        String fcmToken = fetchFcmTokenFromDatabase(notificationDTO.getCustomerId());
+        // Fetch FCM token from database based on customerId (reusing the CALL_INVITE lookup)
+        String fcmToken = callInvite
+                ? callTokens.map(TokenSnapshot::getFcmToken).orElse(null)
+                : fetchFcmTokenFromDatabase(notificationDTO.getCustomerId());
 
         if (fcmToken == null || fcmToken.isEmpty()) {
             log.error(ApplicationConstants.LOG_FCM_TOKEN_NOT_FOUND, notificationDTO.getCustomerId());
-            publishToFcmFailureTopic(notificationDTO, "FCM_TOKEN_NOT_FOUND");
-            return;
+            return publishToFcmFailureTopic(notificationDTO, "FCM_TOKEN_NOT_FOUND", 0, deadline, call);
         }
 
-        log.info(ApplicationConstants.LOG_SENDING_FCM_PUSH_NOTIFICATION,
-                fcmToken,
+        log.debug(ApplicationConstants.LOG_SENDING_FCM_PUSH_NOTIFICATION,
+                DeliveryLog.maskToken(fcmToken),
                 message);
 
         // Build data map for FCM
         Map<String, String> fcmDataMap = buildFcmDataMap(notificationDTO);
         if (fcmDataMap == null) {
             log.warn("[FCM] Skipping push for customerId={} due to missing conversationId", notificationDTO.getCustomerId());
-            return;
+            return true;
         }
 
         // Attempt FCM send with retry
         if (fcmRetryEnabled) {
-            sendWithRetry(notificationDTO, fcmToken, fcmDataMap);
-        } else {
-            sendOnce(notificationDTO, fcmToken, fcmDataMap);
+            return sendWithRetry(notificationDTO, fcmToken, fcmDataMap, deadline, call);
         }
+        return sendOnce(notificationDTO, fcmToken, fcmDataMap, deadline, call);
+    }
+
+    /**
+     * Hedged CALL_INVITE for iOS devices that have both a VoIP and an FCM token.
+     *
+     * The APNs VoIP push is sent immediately; the FCM data push is sent after
+     * call.hedge.delay.ms, or as soon as APNs fails if that is earlier. The
+     * first transport to succeed wins and the other send is cancelled if it is
+     * still in flight, so the time to ring is the faster transport's latency
+     * instead of APNs timeout + FCM retries. When APNs is slower than the hedge
+     * delay both pushes can reach the device; the app de-duplicates call
+     * invites by call id. A CALL_CANCEL for the call cancels the hedge.
+     *
+     * @return true if either transport delivered within call.hedge.timeout.ms (and the deadline)
+     */
+    private boolean sendHedgedCallInvite(NotificationDTO notificationDTO, String voipToken, String fcmToken,
+                                         Map<String, String> fcmDataMap, Deadline deadline, InFlightCall call) {
+        Long customerId = notificationDTO.getCustomerId();
+        CompletableFuture<String> winner = new CompletableFuture<>();
+        call.attach(winner);
+        CompletableFuture<Void> fireFcm = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<String>> fcmLeg = new AtomicReference<>();
+        AtomicInteger failedLegs = new AtomicInteger();
+
+        CompletableFuture<Integer> apnsLeg = fcmUtil.sendVoipApnsPushAsync(voipToken, fcmDataMap);
+        apnsLeg.whenComplete((status, t) -> {
+            if (status != null && status == 200) {
+                deliveryLog.sent(DeliveryLog.CATEGORY_APNS, customerId, voipToken, "status=200", 1);
+                winner.complete(DeliveryLog.CATEGORY_APNS);
+                return;
+            }
+            if (apnsLeg.isCancelled()) {
+                return;
+            }
+            deliveryLog.failed(DeliveryLog.CATEGORY_APNS, customerId, voipToken, "status=" + status, 1);
+            fireFcm.complete(null); // no point waiting out the hedge delay
+            if (failedLegs.incrementAndGet() == 2) {
+                winner.completeExceptionally(new IllegalStateException("APNs and FCM both failed"));
+            }
+        });
+
+        CompletableFuture.delayedExecutor(callHedgeDelayMs, TimeUnit.MILLISECONDS).execute(() -> fireFcm.complete(null));
+        fireFcm.thenRun(() -> {
+            if (winner.isDone()) {
+                return;
+            }
+            CompletableFuture<String> fcm = fcmUtil.sendDataOnlyPushNotificationAsync(fcmToken, fcmDataMap, false);
+            fcmLeg.set(fcm);
+            fcm.whenComplete((messageId, t) -> {
+                if (t == null) {
+                    deliveryLog.sent(DeliveryLog.CATEGORY_FCM, customerId, fcmToken, messageId, 1);
+                    winner.complete(DeliveryLog.CATEGORY_FCM);
+                } else if (!fcm.isCancelled()) {
+                    deliveryLog.failed(DeliveryLog.CATEGORY_FCM, customerId, fcmToken, t.getMessage(), 1);
+                    if (failedLegs.incrementAndGet() == 2) {
+                        winner.completeExceptionally(t);
+                    }
+                }
+            });
+        });
+
+        winner.whenComplete((transport, t) -> {
+            apnsLeg.cancel(true);
+            CompletableFuture<String> fcm = fcmLeg.get();
+            if (fcm != null) {
+                fcm.cancel(true);
+            }
+        });
+
+        try {
+            String transport = winner.get(deadline.bound(callHedgeTimeoutMs), TimeUnit.MILLISECONDS);
+            log.info("[CALL-HEDGE] CALL_INVITE delivered via {} for customerId={}", transport, customerId);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (CancellationException e) {
+            log.info("[CALL-HEDGE] CALL_INVITE hedge cancelled for customerId={} — call ended", customerId);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("[CALL-HEDGE] No transport delivered CALL_INVITE for customerId={}: {}",
+                    customerId, e.getMessage());
+        }
+        winner.cancel(true);
+        return false;
     }
 
     /**
      * Send FCM with configurable retry and exponential backoff.
      * On terminal failure (retries exhausted or non-retryable error), publishes to Kafka fallback topic.
+     * No attempt is started, and no backoff is slept, that would end past the deadline.
+     * A cancelled call stops the loop, including during a backoff.
+     *
+     * @return false if every attempt failed and the fallback publish did not happen
      */
-    private void sendWithRetry(NotificationDTO notificationDTO, String fcmToken, Map<String, String> fcmDataMap) {
+    private boolean sendWithRetry(NotificationDTO notificationDTO, String fcmToken, Map<String, String> fcmDataMap,
+                                  Deadline deadline, InFlightCall call) {
         long backoffMs = fcmRetryInitialBackoffMs;
 
         for (int attempt = 1; attempt <= fcmRetryMaxAttempts; attempt++) {
+            if (deadline.isExpired()) {
+                abandonOnDeadline(notificationDTO, "fcm-retry");
+                return true;
+            }
+            if (call.isCancelled()) {
+                abandonOnCancel(notificationDTO, "fcm-retry");
+                return true;
+            }
             try {
                 String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken, fcmDataMap, false);
-                log.info("[FCM-RETRY] Push sent successfully for customerId={}, attempt={}/{}, messageId={}",
-                        notificationDTO.getCustomerId(), attempt, fcmRetryMaxAttempts, messageId);
-                return; // Success — exit
+                deliveryLog.sent(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), fcmToken, messageId, attempt);
+                return true; // Success — exit
 
-            } catch (FirebaseMessagingException e) {
+            } catch (FcmSendException e) {
                 MessagingErrorCode errorCode = e.getMessagingErrorCode();
                 log.warn("[FCM-RETRY] Attempt {}/{} failed for customerId={}, errorCode={}, message={}",
                         attempt, fcmRetryMaxAttempts, notificationDTO.getCustomerId(), errorCode, e.getMessage());
@@ -354,22 +481,28 @@ public class PushNotificationServiceImpl implements PushNotificationService {
                 if (errorCode != null && NON_RETRYABLE_ERRORS.contains(errorCode)) {
                     log.error("[FCM-RETRY] Non-retryable error {} for customerId={}, publishing to fallback",
                             errorCode, notificationDTO.getCustomerId());
-                    publishToFcmFailureTopic(notificationDTO,
-                            "NON_RETRYABLE:" + errorCode.name());
-                    return;
+                    return publishToFcmFailureTopic(notificationDTO,
+                            "NON_RETRYABLE:" + errorCode.name(), attempt, deadline, call);
                 }
 
                 // Last attempt — publish to fallback
                 if (attempt == fcmRetryMaxAttempts) {
                     log.error("[FCM-RETRY] All {} attempts exhausted for customerId={}, publishing to fallback",
                             fcmRetryMaxAttempts, notificationDTO.getCustomerId());
-                    publishToFcmFailureTopic(notificationDTO,
-                            "RETRIES_EXHAUSTED:" + (errorCode != null ? errorCode.name() : "UNKNOWN"));
-                    return;
+                    return publishToFcmFailureTopic(notificationDTO,
+                            "RETRIES_EXHAUSTED:" + (errorCode != null ? errorCode.name() : "UNKNOWN"), attempt,
+                            deadline, call);
                 }
 
-                // Backoff before next attempt
-                sleep(backoffMs);
+                // Backoff before next attempt — pointless if the next attempt would start past the deadline
+                if (deadline.remainingMs() <= backoffMs) {
+                    abandonOnDeadline(notificationDTO, "fcm-retry");
+                    return true;
+                }
+                if (sleep(backoffMs, call)) {
+                    abandonOnCancel(notificationDTO, "fcm-retry");
+                    return true;
+                }
                 backoffMs = Math.min((long) (backoffMs * fcmRetryBackoffMultiplier), fcmRetryMaxBackoffMs);
 
             } catch (Exception e) {
@@ -377,33 +510,44 @@ public class PushNotificationServiceImpl implements PushNotificationService {
                         attempt, fcmRetryMaxAttempts, notificationDTO.getCustomerId(), e.getMessage(), e);
 
                 if (attempt == fcmRetryMaxAttempts) {
-                    publishToFcmFailureTopic(notificationDTO, "UNEXPECTED_ERROR");
-                    return;
+                    return publishToFcmFailureTopic(notificationDTO, "UNEXPECTED_ERROR", attempt, deadline, call);
                 }
 
-                sleep(backoffMs);
+                if (deadline.remainingMs() <= backoffMs) {
+                    abandonOnDeadline(notificationDTO, "fcm-retry");
+                    return true;
+                }
+                if (sleep(backoffMs, call)) {
+                    abandonOnCancel(notificationDTO, "fcm-retry");
+                    return true;
+                }
                 backoffMs = Math.min((long) (backoffMs * fcmRetryBackoffMultiplier), fcmRetryMaxBackoffMs);
             }
         }
+        return false;
     }
 
     /**
      * Single FCM attempt (retry disabled). On failure, publishes to Kafka fallback topic.
+     *
+     * @return false if the attempt failed and the fallback publish did not happen
      */
-    private void sendOnce(NotificationDTO notificationDTO, String fcmToken, Map<String, String> fcmDataMap) {
+    private boolean sendOnce(NotificationDTO notificationDTO, String fcmToken, Map<String, String> fcmDataMap,
+                             Deadline deadline, InFlightCall call) {
         try {
             String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken, fcmDataMap, false);
-            log.info("Push notification sent successfully for customerId: {}, messageId: {}",
-                    notificationDTO.getCustomerId(), messageId);
-        } catch (FirebaseMessagingException e) {
+            deliveryLog.sent(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), fcmToken, messageId, 1);
+            return true;
+        } catch (FcmSendException e) {
             log.error("Failed to send push notification for customerId: {}, error: {}",
                     notificationDTO.getCustomerId(), e.getMessage(), e);
-            publishToFcmFailureTopic(notificationDTO,
-                    "FCM_ERROR:" + (e.getMessagingErrorCode() != null ? e.getMessagingErrorCode().name() : "UNKNOWN"));
+            return publishToFcmFailureTopic(notificationDTO,
+                    "FCM_ERROR:" + (e.getMessagingErrorCode() != null ? e.getMessagingErrorCode().name() : "UNKNOWN"), 1,
+                    deadline, call);
         } catch (Exception e) {
             log.error("Unexpected error sending push notification for customerId: {}: {}",
                     notificationDTO.getCustomerId(), e.getMessage(), e);
-            publishToFcmFailureTopic(notificationDTO, "UNEXPECTED_ERROR");
+            return publishToFcmFailureTopic(notificationDTO, "UNEXPECTED_ERROR", 1, deadline, call);
         }
     }
 
@@ -411,11 +555,28 @@ public class PushNotificationServiceImpl implements PushNotificationService {
      * Publish the original NotificationDTO to the FCM failure Kafka topic.
      * The websocket-service consumer will pick this up and store the message in Redis
      * as an undelivered message, ensuring the user gets it on next login.
+     * Skipped once the deadline has passed or the call was cancelled: the
+     * message is no longer worth storing.
+     *
+     * @param attempts FCM attempts made before giving up (0 if none was possible)
+     * @return true if the record was handed to the fallback publisher, or
+     *         was no longer worth storing
      */
-    private void publishToFcmFailureTopic(NotificationDTO notificationDTO, String failureReason) {
+    private boolean publishToFcmFailureTopic(NotificationDTO notificationDTO, String failureReason, int attempts,
+                                             Deadline deadline, InFlightCall call) {
+        if (deadline.isExpired()) {
+            abandonOnDeadline(notificationDTO, "fallback-publish");
+            return true;
+        }
+        if (call.isCancelled()) {
+            abandonOnCancel(notificationDTO, "fallback-publish");
+            return true;
+        }
+        deliveryLog.failed(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), null, failureReason, attempts);
+
         if (!fcmFailureKafkaPublishEnabled) {
             log.info("[FCM-FALLBACK] Kafka publish disabled, skipping for customerId={}", notificationDTO.getCustomerId());
-            return;
+            return false;
         }
 
         try {
@@ -425,44 +586,75 @@ public class PushNotificationServiceImpl implements PushNotificationService {
             }
 
             String kafkaKey = "fcm-failure:" + notificationDTO.getCustomerId();
-            kafkaTemplate.send(fcmFailureKafkaTopic, kafkaKey, notificationDTO);
-
-            log.info("[FCM-FALLBACK] Published to topic={} for customerId={}, reason={}",
-                    fcmFailureKafkaTopic, notificationDTO.getCustomerId(), failureReason);
+            if (fallbackPublisher.publish(fcmFailureKafkaTopic, kafkaKey, notificationDTO)) {
+                log.info("[FCM-FALLBACK] Queued for topic={} for customerId={}, reason={}",
+                        fcmFailureKafkaTopic, notificationDTO.getCustomerId(), failureReason);
+                return true;
+            } else {
+                log.error("[FCM-FALLBACK-CRITICAL] Spill journal refused the record for " +
+                                "customerId={}, reason={}. Message is still available in Redis undelivered store.",
+                        notificationDTO.getCustomerId(), failureReason);
+            }
         } catch (Exception e) {
             // Critical: Kafka publish failed too. Log prominently but message is still safe in Redis.
             log.error("[FCM-FALLBACK-CRITICAL] Failed to publish to Kafka for customerId={}, reason={}: {}. " +
                             "Message is still available in Redis undelivered store.",
                     notificationDTO.getCustomerId(), failureReason, e.getMessage(), e);
         }
+        return false;
+    }
+
+    private void abandonOnDeadline(NotificationDTO notificationDTO, String stage) {
+        freshnessPolicy.recordDeadlineExceeded(stage);
+        deliveryLog.failed(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), null,
+                "DEADLINE_EXCEEDED:" + stage, 0);
     }
 
-    private void sleep(long ms) {
+    private void abandonOnCancel(NotificationDTO notificationDTO, String stage) {
+        callCancellations.recordAborted();
+        deliveryLog.failed(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), null,
+                "CALL_CANCELLED:" + stage, 0);
+    }
+
+    /**
+     * Retry backoff; wakes early if the call is cancelled. Counted as retry
+     * depth for {@link DownstreamBackpressure} while it waits.
+     *
+     * @return true if the call was cancelled during the backoff
+     */
+    private boolean sleep(long ms, InFlightCall call) {
+        downstreamBackpressure.retryStarted();
         try {
-            Thread.sleep(ms);
+            return call.awaitBackoff(ms);
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
             log.warn("[FCM-RETRY] Retry sleep interrupted");
+            return false;
+        } finally {
+            downstreamBackpressure.retryFinished();
         }
     }
 
+    /** "signal" (WebSocket path) wins over "type" (Kafka/FCM payload path). */
+    private static String resolveSignal(Map<String, Object> map) {
+        if (map == null) {
+            return null;
+        }
+        Object sig = map.get("signal");
+        Object typ = map.get("type");
+        if (sig != null) {
+            return String.valueOf(sig);
+        }
+        return typ != null ? String.valueOf(typ) : null;
+    }
+
     /**
      * Build FCM data map from notification DTO
      * 
      * @param notificationDTO The notification data
      * @return Map with FCM data
      */
-    private Map<String, String> buildFcmDataMap(NotificationDTO notificationDTO) {
-                log.info(
-                  "[FCM-BUILD] dtoHash={} mapHash={} mapKeys={}",
-                  System.identityHashCode(notificationDTO),
-                  notificationDTO.getMap() != null
-                      ? System.identityHashCode(notificationDTO.getMap())
-                      : null,
-                  notificationDTO.getMap() != null
-                      ? notificationDTO.getMap().keySet()
-                      : null
-                );
+    Map<String, String> buildFcmDataMap(NotificationDTO notificationDTO) {
         Map<String, String> fcmData = new HashMap<>();
 
         Map<String, Object> map = notificationDTO.getMap();
@@ -516,7 +708,7 @@ public class PushNotificationServiceImpl implements PushNotificationService {
             fcmData.putIfAbsent("groupName", groupName);
         }
 
-        log.info(
+        log.debug(
             "[FCM-BUILD] conversationId={} groupId={} isGroup={} groupName={}",
             conversationId, groupId, isGroup, groupName
         );
@@ -563,21 +755,11 @@ public class PushNotificationServiceImpl implements PushNotificationService {
         fcmData.put("notificationId", String.valueOf(notificationDTO.getNotificationId()));
         fcmData.put("channel", notificationDTO.getChannel().toString());
 
-        log.debug("Built FCM data-only map for MESSAGE with {} entries", fcmData.size());
-        if (isCallInvite) {
-            log.info("CALL_INVITE FCM STRUCTURE: {}", fcmData);
-            try {
-                log.info("========== BACKEND FINAL FCM DATA ==========");
-                log.info("{}", objectMapper.writeValueAsString(fcmData));
-                log.info("============================================");
-            } catch (Exception e) {
-                log.error("Failed to serialize FCM data map for logging", e);
-            }
+        if (log.isDebugEnabled()) {
+            log.debug("Built FCM data-only map for {} with {} entries: {}",
+                    isCallInvite ? CALL_INVITE_TYPE : resolvedType, fcmData.size(),
+                    DeliveryLog.maskPayload(fcmData));
         }
-        log.info("FINAL FCM DATA PAYLOAD: {}", fcmData);
-        log.info("========== FINAL FCM DATA MAP ==========");
-        log.info("{}", fcmData);
-        log.info("========================================");
         return fcmData;
     }
 
@@ -665,7 +847,7 @@ public class PushNotificationServiceImpl implements PushNotificationService {
         log.debug(ApplicationConstants.LOG_FCM_TOKEN_FETCHING_FROM_DB, customerId);
 
         try {
-            Optional<NotificationToken> notificationToken = notificationTokenRepository.findFirstByCustomerId(customerId);
+            Optional<TokenSnapshot> notificationToken = tokenCache.findByCustomerId(customerId);
 
             if (notificationToken.isPresent()) {
                 String fcmToken = notificationToken.get().getFcmToken();
@@ -0,0 +1,423 @@
+package com.odin.notification.service.impl;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odin.notification.constants.ApplicationConstants;
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.enums.NotificationType;
+import com.odin.notification.service.ReminderSchedulerService;
+import com.odin.notification.util.ProviderIoExecutor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durable delayed delivery for alert and reminder notifications.
+ *
+ * Storage (Redis, one slot per minute of the timing wheel):
+ *   reminder:bucket:{epochMinute}   ZSET  member=reminderId, score=sendAt (ms)
+ *   reminder:payload:{epochMinute}  HASH  reminderId -> NotificationDTO JSON
+ *   reminder:cursor                 STRING oldest minute not yet fully drained
+ *   reminder:processing             ZSET  member=reminderId, score=claim expiry (ms)
+ *   reminder:processing:payload     HASH  reminderId -> NotificationDTO JSON
+ *   reminder:processing:attempts    HASH  reminderId -> delivery attempts
+ *
+ * The poller only ever touches the buckets between the cursor and the current
+ * minute (plus reminder.scheduler.lag.buckets behind the cursor, for items
+ * written just after their bucket was drained), so pending volume does not
+ * affect poll cost — millions of future reminders sit in buckets nobody reads
+ * until their minute comes round.
+ *
+ * Delivery is at-least-once. Due items are claimed atomically (one Lua script
+ * moves them from their bucket into reminder:processing with a claim expiry),
+ * so with several pods polling the same buckets each reminder is claimed by
+ * one of them; the claim is deleted only once the send has completed. A claim
+ * whose pod crashed, whose send failed or whose hand-off to the provider
+ * executor was rejected expires and is re-driven by the next poll, up to
+ * reminder.scheduler.max.attempts.
+ *
+ * "Now" is always Redis server time (TIME), never the pod's clock, so pods
+ * with skewed clocks agree on which buckets are due.
+ */
+@Slf4j
+@Service
+public class ReminderSchedulerServiceImpl implements ReminderSchedulerService {
+
+    private static final String BUCKET_KEY_PREFIX = "reminder:bucket:";
+    private static final String PAYLOAD_KEY_PREFIX = "reminder:payload:";
+    private static final String CURSOR_KEY = "reminder:cursor";
+    private static final String PROCESSING_KEY = "reminder:processing";
+    private static final String PROCESSING_PAYLOAD_KEY = "reminder:processing:payload";
+    private static final String PROCESSING_ATTEMPTS_KEY = "reminder:processing:attempts";
+    private static final List<String> PROCESSING_KEYS =
+            List.of(PROCESSING_KEY, PROCESSING_PAYLOAD_KEY, PROCESSING_ATTEMPTS_KEY);
+    private static final long BUCKET_MILLIS = 60_000L;
+
+    /**
+     * Move due items of one bucket into the processing set.
+     * KEYS: bucket, bucket payloads, processing, processing payloads, attempts.
+     * ARGV: now, limit, claim expiry. Returns {id, payload, attempts, ...}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_DUE_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) "
+                    + "if #ids == 0 then return {} end "
+                    + "redis.call('ZREM', KEYS[1], unpack(ids)) "
+                    + "local payloads = redis.call('HMGET', KEYS[2], unpack(ids)) "
+                    + "redis.call('HDEL', KEYS[2], unpack(ids)) "
+                    + "local claimed = {} "
+                    + "for i, id in ipairs(ids) do "
+                    + "  if payloads[i] then "
+                    + "    redis.call('ZADD', KEYS[3], ARGV[3], id) "
+                    + "    redis.call('HSET', KEYS[4], id, payloads[i]) "
+                    + "    local n = redis.call('HINCRBY', KEYS[5], id, 1) "
+                    + "    table.insert(claimed, id) table.insert(claimed, payloads[i]) table.insert(claimed, tostring(n)) "
+                    + "  end "
+                    + "end "
+                    + "return claimed",
+            List.class);
+
+    /**
+     * Re-claim processing entries whose claim has expired.
+     * KEYS: processing, processing payloads, attempts. ARGV: now, limit, claim expiry.
+     * Returns {id, payload, attempts, ...}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REDRIVE_EXPIRED_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) "
+                    + "local claimed = {} "
+                    + "for _, id in ipairs(ids) do "
+                    + "  local payload = redis.call('HGET', KEYS[2], id) "
+                    + "  if payload then "
+                    + "    redis.call('ZADD', KEYS[1], ARGV[3], id) "
+                    + "    local n = redis.call('HINCRBY', KEYS[3], id, 1) "
+                    + "    table.insert(claimed, id) table.insert(claimed, payload) table.insert(claimed, tostring(n)) "
+                    + "  else "
+                    + "    redis.call('ZREM', KEYS[1], id) "
+                    + "    redis.call('HDEL', KEYS[3], id) "
+                    + "  end "
+                    + "end "
+                    + "return claimed",
+            List.class);
+
+    /** Delete a completed claim. KEYS: processing, processing payloads, attempts. ARGV: id. */
+    private static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HDEL', KEYS[2], ARGV[1]) "
+                    + "redis.call('HDEL', KEYS[3], ARGV[1]) "
+                    + "return redis.call('ZREM', KEYS[1], ARGV[1])",
+            Long.class);
+
+    private static final RedisScript<Long> ADVANCE_CURSOR_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0') "
+                    + "if tonumber(ARGV[1]) > current then redis.call('SET', KEYS[1], ARGV[1]) return 1 end "
+                    + "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChannelDispatcherRegistry channelDispatcherRegistry;
+    private final ProviderIoExecutor providerIoExecutor;
+
+    private ScheduledExecutorService poller;
+
+    @Value("${reminder.scheduler.enabled:true}")
+    private boolean schedulerEnabled;
+
+    @Value("${reminder.scheduler.poll.interval.ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${reminder.scheduler.batch.size:200}")
+    private int batchSize;
+
+    @Value("${reminder.scheduler.max.batches.per.tick:20}")
+    private int maxBatchesPerTick;
+
+    @Value("${reminder.scheduler.max.catchup.buckets:60}")
+    private int maxCatchUpBuckets;
+
+    @Value("${reminder.scheduler.lag.buckets:2}")
+    private int lagBuckets;
+
+    @Value("${reminder.scheduler.claim.ttl.ms:120000}")
+    private long claimTtlMs;
+
+    @Value("${reminder.scheduler.max.attempts:5}")
+    private int maxAttempts;
+
+    public ReminderSchedulerServiceImpl(RedisTemplate<String, String> redisTemplate,
+                                        ObjectMapper objectMapper,
+                                        ChannelDispatcherRegistry channelDispatcherRegistry,
+                                        ProviderIoExecutor providerIoExecutor) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channelDispatcherRegistry = channelDispatcherRegistry;
+        this.providerIoExecutor = providerIoExecutor;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!schedulerEnabled) {
+            log.info("[REMINDER] Scheduler poller disabled on this instance");
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reminder-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("[REMINDER] Scheduler poller started — interval={}ms, batchSize={}", pollIntervalMs, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdown();
+        }
+    }
+
+    @Override
+    public void submit(NotificationDTO notificationDTO) {
+        if (notificationDTO == null) {
+            log.warn("[REMINDER] Ignoring null notification");
+            return;
+        }
+        if (notificationDTO.getChannel() == null) {
+            log.warn("[REMINDER] Ignoring notification without channel: customerId={} notificationId={}",
+                    notificationDTO.getCustomerId(), notificationDTO.getNotificationId());
+            return;
+        }
+
+        Long sendAt = resolveSendAt(notificationDTO.getMap());
+        if (sendAt == null || sendAt <= redisNow()) {
+            dispatchNow(notificationDTO);
+            return;
+        }
+
+        try {
+            schedule(notificationDTO, sendAt);
+        } catch (Exception e) {
+            log.error("[REMINDER] Failed to schedule notification for customerId={}, sendAt={}: {}",
+                    notificationDTO.getCustomerId(), sendAt, e.getMessage(), e);
+            throw new IllegalStateException("Unable to schedule reminder", e);
+        }
+    }
+
+    private void schedule(NotificationDTO notificationDTO, long sendAt) throws Exception {
+        long bucket = sendAt / BUCKET_MILLIS;
+        String reminderId = UUID.randomUUID().toString();
+
+        // Payload first: the poller only sees the id once it is in the ZSET
+        redisTemplate.opsForHash().put(PAYLOAD_KEY_PREFIX + bucket, reminderId, serialize(notificationDTO));
+        redisTemplate.opsForZSet().add(BUCKET_KEY_PREFIX + bucket, reminderId, sendAt);
+        redisTemplate.opsForValue().setIfAbsent(CURSOR_KEY, String.valueOf(redisNow() / BUCKET_MILLIS));
+
+        log.info("[REMINDER] Scheduled reminderId={} for customerId={} channel={} sendAt={}",
+                reminderId, notificationDTO.getCustomerId(), notificationDTO.getChannel(), Instant.ofEpochMilli(sendAt));
+    }
+
+    /**
+     * One turn of the wheel: re-drive expired claims, sweep the lag window
+     * behind the cursor, then drain every bucket from the cursor up to the
+     * current minute, advancing the cursor past buckets that are empty.
+     */
+    private void poll() {
+        try {
+            long now = redisNow();
+            long nowBucket = now / BUCKET_MILLIS;
+            long cursor = readCursor(nowBucket);
+            long lastBucket = Math.min(nowBucket, cursor + maxCatchUpBuckets);
+
+            redriveExpiredClaims(now);
+            for (long bucket = cursor - lagBuckets; bucket < cursor; bucket++) {
+                drainBucket(bucket, now);
+            }
+            for (long bucket = cursor; bucket <= lastBucket; bucket++) {
+                boolean drained = drainBucket(bucket, now);
+                if (bucket < nowBucket && drained) {
+                    redisTemplate.execute(ADVANCE_CURSOR_SCRIPT, Collections.singletonList(CURSOR_KEY),
+                            String.valueOf(bucket + 1));
+                } else {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("[REMINDER] Poll cycle failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claim due items from one bucket in batches.
+     *
+     * @return true if no due items remain in the bucket
+     */
+    @SuppressWarnings("unchecked")
+    private boolean drainBucket(long bucket, long now) {
+        List<String> keys = List.of(BUCKET_KEY_PREFIX + bucket, PAYLOAD_KEY_PREFIX + bucket,
+                PROCESSING_KEY, PROCESSING_PAYLOAD_KEY, PROCESSING_ATTEMPTS_KEY);
+
+        for (int i = 0; i < maxBatchesPerTick; i++) {
+            List<String> claimed = redisTemplate.execute(CLAIM_DUE_SCRIPT, keys,
+                    String.valueOf(now), String.valueOf(batchSize), String.valueOf(now + claimTtlMs));
+            if (claimed == null || claimed.isEmpty()) {
+                return true;
+            }
+            dispatchClaimed(claimed);
+            if (claimed.size() / 3 < batchSize) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void redriveExpiredClaims(long now) {
+        List<String> claimed = redisTemplate.execute(REDRIVE_EXPIRED_SCRIPT, PROCESSING_KEYS,
+                String.valueOf(now), String.valueOf(batchSize), String.valueOf(now + claimTtlMs));
+        if (claimed != null && !claimed.isEmpty()) {
+            log.warn("[REMINDER] Re-driving {} reminder(s) whose claim expired", claimed.size() / 3);
+            dispatchClaimed(claimed);
+        }
+    }
+
+    /** Hand claimed {id, payload, attempts} triples to the provider executor. */
+    private void dispatchClaimed(List<String> claimed) {
+        for (int i = 0; i + 2 < claimed.size(); i += 3) {
+            String reminderId = claimed.get(i);
+            String payload = claimed.get(i + 1);
+            int attempts = Integer.parseInt(claimed.get(i + 2));
+            if (attempts > maxAttempts) {
+                log.error("[REMINDER] Giving up on reminderId={} after {} delivery attempts", reminderId, maxAttempts);
+                ack(reminderId);
+                continue;
+            }
+            dispatchPayload(reminderId, payload);
+        }
+    }
+
+    private void dispatchPayload(String reminderId, String payload) {
+        NotificationDTO notificationDTO;
+        try {
+            notificationDTO = objectMapper.readValue(payload, NotificationDTO.class);
+        } catch (Exception e) {
+            log.error("[REMINDER] Dropping unreadable reminder payload reminderId={}: {}", reminderId, e.getMessage());
+            ack(reminderId);
+            return;
+        }
+        // Acked only once every channel reports delivery; otherwise the claim expires and is re-driven
+        providerIoExecutor.submit(() -> dispatchNow(notificationDTO))
+                .thenCompose(delivery -> delivery)
+                .whenComplete((delivered, t) -> {
+                    Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                    if (cause == null && Boolean.TRUE.equals(delivered)) {
+                        ack(reminderId);
+                    } else if (cause instanceof RejectedExecutionException) {
+                        log.warn("[REMINDER] Provider executor rejected reminderId={}, re-driving on the next poll",
+                                reminderId);
+                        release(reminderId);
+                    } else {
+                        log.warn("[REMINDER] Delivery of reminderId={} failed, will retry once its claim expires: {}",
+                                reminderId, cause != null ? cause.getMessage() : "not delivered");
+                    }
+                });
+    }
+
+    private void ack(String reminderId) {
+        try {
+            redisTemplate.execute(ACK_SCRIPT, PROCESSING_KEYS, reminderId);
+        } catch (Exception e) {
+            // The claim expires and the reminder is delivered again
+            log.warn("[REMINDER] Failed to ack reminderId={}: {}", reminderId, e.getMessage());
+        }
+    }
+
+    /** Expire the claim now so the next poll re-drives it. */
+    private void release(String reminderId) {
+        try {
+            redisTemplate.opsForZSet().add(PROCESSING_KEY, reminderId, 0);
+        } catch (Exception e) {
+            log.warn("[REMINDER] Failed to release reminderId={}: {}", reminderId, e.getMessage());
+        }
+    }
+
+    /** Redis server time in epoch millis, shared by every pod. */
+    private long redisNow() {
+        Long time = redisTemplate.execute((RedisCallback<Long>) connection -> connection.time());
+        return time != null ? time : System.currentTimeMillis();
+    }
+
+    private CompletableFuture<Boolean> dispatchNow(NotificationDTO notificationDTO) {
+        return channelDispatcherRegistry.dispatch(notificationDTO, NotificationType.REMINDER);
+    }
+
+    private long readCursor(long nowBucket) {
+        String cursor = redisTemplate.opsForValue().get(CURSOR_KEY);
+        if (cursor == null) {
+            redisTemplate.opsForValue().setIfAbsent(CURSOR_KEY, String.valueOf(nowBucket));
+            return nowBucket;
+        }
+        return Long.parseLong(cursor);
+    }
+
+    /**
+     * Serialise only the DTO's own fields. Serialising the DTO directly would
+     * also emit its derived getters (senderName, message, ...), which the
+     * any-setter would then fold back into the map on read.
+     */
+    private String serialize(NotificationDTO notificationDTO) throws Exception {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("customerId", notificationDTO.getCustomerId());
+        fields.put("notificationId", notificationDTO.getNotificationId());
+        fields.put("channel", notificationDTO.getChannel());
+        fields.put("map", notificationDTO.getMap());
+        fields.put("mobile", notificationDTO.getMobile());
+        fields.put("email", notificationDTO.getEmail());
+        return objectMapper.writeValueAsString(fields);
+    }
+
+    /**
+     * "sendAt" may be epoch millis (number or numeric string) or an ISO-8601 instant.
+     */
+    private Long resolveSendAt(Map<String, Object> map) {
+        Object raw = map != null ? map.get(ApplicationConstants.SEND_AT_KEY) : null;
+        if (raw == null) {
+            return null;
+        }
+        if (raw instanceof Number) {
+            return ((Number) raw).longValue();
+        }
+        String value = String.valueOf(raw).trim();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ignored) {
+            // fall through to ISO-8601
+        }
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (Exception e) {
+            log.warn("[REMINDER] Unparseable sendAt='{}', delivering immediately", value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.odin.notification.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.constants.ApplicationConstants;
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.enums.NotificationChannel;
+import com.odin.notification.enums.NotificationType;
+import com.odin.notification.service.ChannelDispatcher;
+import com.odin.notification.util.ProviderIoExecutor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SMS channel dispatcher.
+ *
+ * Routed on the {@link NotificationType}, not on the payload:
+ *   - OTP and PUSH are OTP sends, straight to Fast2SMS one request per
+ *     recipient (latency critical); a missing mobile or otp is logged;
+ *   - REMINDER is a shared DLT template and goes through
+ *     {@link Fast2SmsBulkSender};
+ *   - STATUS_UPDATE has no SMS delivery.
+ */
+@Slf4j
+@Component
+public class SmsChannelDispatcher implements ChannelDispatcher {
+
+    private static final String OTP_KEY = "otp";
+
+    private final Fast2SmsOtpService fast2SmsOtpService;
+    private final Fast2SmsBulkSender fast2SmsBulkSender;
+    private final ProviderIoExecutor providerIoExecutor;
+
+    public SmsChannelDispatcher(Fast2SmsOtpService fast2SmsOtpService, Fast2SmsBulkSender fast2SmsBulkSender,
+                                ProviderIoExecutor providerIoExecutor) {
+        this.fast2SmsOtpService = fast2SmsOtpService;
+        this.fast2SmsBulkSender = fast2SmsBulkSender;
+        this.providerIoExecutor = providerIoExecutor;
+    }
+
+    @Override
+    public NotificationChannel getChannel() {
+        return NotificationChannel.SMS;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> dispatch(List<NotificationDTO> notifications, NotificationType type) {
+        switch (type) {
+            case OTP:
+            case PUSH:
+                return sendOtps(notifications);
+            case REMINDER:
+                return ChannelDispatcher.allDelivered(notifications.stream()
+                        .map(fast2SmsBulkSender::submit)
+                        .collect(Collectors.toList()));
+            default:
+                for (NotificationDTO notification : notifications) {
+                    log.info("SMS {} handling not yet implemented for customerId: {}", type,
+                            notification.getCustomerId());
+                }
+                return CompletableFuture.completedFuture(true);
+        }
+    }
+
+    private CompletableFuture<Boolean> sendOtps(List<NotificationDTO> notifications) {
+        if (notifications.size() == 1) {
+            return CompletableFuture.completedFuture(sendOtp(notifications.get(0)));
+        }
+        List<CompletableFuture<Boolean>> pending = new ArrayList<>();
+        for (NotificationDTO notification : notifications) {
+            pending.add(providerIoExecutor.submit(() -> sendOtp(notification)));
+        }
+        CompletableFuture<Boolean> delivered = ChannelDispatcher.allDelivered(pending);
+        delivered.exceptionally(t -> false).join();
+        return delivered;
+    }
+
+    /**
+     * @return false if Fast2SMS did not accept the OTP; an OTP missing its
+     *         mobile or code is logged and counts as handled
+     */
+    private boolean sendOtp(NotificationDTO notification) {
+        String mobile = notification.getMobile();
+        Object otpValue = notification.getMap() != null ? notification.getMap().get(OTP_KEY) : null;
+        String otp = otpValue != null ? String.valueOf(otpValue) : null;
+
+        log.info(ApplicationConstants.LOG_SMS_OTP_RECEIVED, mobile);
+
+        if (mobile == null || mobile.isBlank() || otp == null) {
+            log.warn(ApplicationConstants.LOG_SMS_OTP_MISSING_DATA, mobile, otp != null);
+            return true;
+        }
+
+        boolean sent = fast2SmsOtpService.sendOtp(mobile, otp, notification);
+        if (sent) {
+            log.info(ApplicationConstants.LOG_SMS_OTP_SENT_SUCCESS, mobile);
+        } else {
+            log.warn(ApplicationConstants.LOG_SMS_OTP_SENT_FAILURE, mobile);
+        }
+        return sent;
+    }
+}
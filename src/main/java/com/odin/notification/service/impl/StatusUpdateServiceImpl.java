@@ -6,19 +6,23 @@ import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
-import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.MessagingErrorCode;
 
 import com.odin.notification.constants.ApplicationConstants;
 import com.odin.notification.dto.NotificationDTO;
-import com.odin.notification.entity.NotificationToken;
+import com.odin.notification.dto.TokenSnapshot;
 import com.odin.notification.enums.NotificationChannel;
-import com.odin.notification.repo.NotificationTokenRepository;
+import com.odin.notification.enums.NotificationType;
 import com.odin.notification.service.StatusUpdateService;
+import com.odin.notification.util.Deadline;
+import com.odin.notification.util.DeliveryLog;
+import com.odin.notification.util.DownstreamBackpressure;
+import com.odin.notification.util.FcmPayloadTemplate;
+import com.odin.notification.util.FcmSendException;
 import com.odin.notification.util.FcmUtil;
+import com.odin.notification.util.FreshnessPolicy;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,8 +40,12 @@ import lombok.extern.slf4j.Slf4j;
 public class StatusUpdateServiceImpl implements StatusUpdateService {
 
     private final FcmUtil fcmUtil;
-    private final NotificationTokenRepository notificationTokenRepository;
-    private final KafkaTemplate<String, NotificationDTO> kafkaTemplate;
+    private final NotificationTokenCache tokenCache;
+    private final FallbackPublisher fallbackPublisher;
+    private final ChannelDispatcherRegistry channelDispatcherRegistry;
+    private final DeliveryLog deliveryLog;
+    private final FreshnessPolicy freshnessPolicy;
+    private final DownstreamBackpressure downstreamBackpressure;
 
     // Non-retryable FCM error codes — retrying these would never succeed
     private static final Set<MessagingErrorCode> NON_RETRYABLE_ERRORS = Set.of(
@@ -71,15 +79,28 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
     private boolean statusFcmFailureKafkaPublishEnabled;
 
     public StatusUpdateServiceImpl(FcmUtil fcmUtil,
-                                   NotificationTokenRepository notificationTokenRepository,
-                                   KafkaTemplate<String, NotificationDTO> kafkaTemplate) {
+                                   NotificationTokenCache tokenCache,
+                                   FallbackPublisher fallbackPublisher,
+                                   ChannelDispatcherRegistry channelDispatcherRegistry,
+                                   DeliveryLog deliveryLog,
+                                   FreshnessPolicy freshnessPolicy,
+                                   DownstreamBackpressure downstreamBackpressure) {
         this.fcmUtil = fcmUtil;
-        this.notificationTokenRepository = notificationTokenRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.tokenCache = tokenCache;
+        this.fallbackPublisher = fallbackPublisher;
+        this.channelDispatcherRegistry = channelDispatcherRegistry;
+        this.deliveryLog = deliveryLog;
+        this.freshnessPolicy = freshnessPolicy;
+        this.downstreamBackpressure = downstreamBackpressure;
     }
 
     @Override
     public void processStatusUpdateNotification(NotificationDTO notificationDTO) {
+        processStatusUpdateNotification(notificationDTO, Deadline.none());
+    }
+
+    @Override
+    public void processStatusUpdateNotification(NotificationDTO notificationDTO, Deadline deadline) {
         log.info(ApplicationConstants.LOG_STATUS_UPDATE_PROCESSING_STARTED);
         log.info(ApplicationConstants.LOG_STATUS_UPDATE_NOTIFICATION_RECEIVED,
                 notificationDTO.getCustomerId(),
@@ -94,7 +115,7 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
             }
 
             // Route notification based on channel
-            routeNotificationByChannel(notificationDTO);
+            routeNotificationByChannel(notificationDTO, deadline);
 
             log.info(ApplicationConstants.LOG_STATUS_UPDATE_PROCESSING_COMPLETED);
 
@@ -108,24 +129,16 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
 
     /**
      * Route notification to appropriate handler based on channel
+     * INAPP is the status-specific silent push; other channels go through the
+     * ChannelDispatcher registry.
      * 
      * @param notificationDTO The status update notification to process
      */
-    private void routeNotificationByChannel(NotificationDTO notificationDTO) {
-        NotificationChannel channel = notificationDTO.getChannel();
-
-        switch (channel) {
-            case INAPP:
-                handleInAppStatusUpdate(notificationDTO);
-                break;
-            case EMAIL:
-                handleEmailStatusUpdate(notificationDTO);
-                break;
-            case SMS:
-                handleSmsStatusUpdate(notificationDTO);
-                break;
-            default:
-                log.warn(ApplicationConstants.LOG_UNSUPPORTED_CHANNEL, channel);
+    private void routeNotificationByChannel(NotificationDTO notificationDTO, Deadline deadline) {
+        if (notificationDTO.getChannel() == NotificationChannel.INAPP) {
+            handleInAppStatusUpdate(notificationDTO, deadline);
+        } else {
+            channelDispatcherRegistry.dispatch(notificationDTO, NotificationType.STATUS_UPDATE);
         }
     }
 
@@ -134,7 +147,7 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
      * 
      * @param notificationDTO The status update data
      */
-    private void handleInAppStatusUpdate(NotificationDTO notificationDTO) {
+    private void handleInAppStatusUpdate(NotificationDTO notificationDTO, Deadline deadline) {
         log.debug("Processing INAPP status update for customerId: {}", notificationDTO.getCustomerId());
 
         // Check if this is a direct status update (notificationId = 1)
@@ -142,7 +155,7 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
             log.info(ApplicationConstants.LOG_NOTIFICATION_ID_IS_DIRECT,
                     notificationDTO.getNotificationId());
 
-            sendStatusUpdateNotification(notificationDTO);
+            sendStatusUpdateNotification(notificationDTO, deadline);
 
         } else {
             log.debug("Notification ID is not direct status update. Would fetch template from database for ID: {}",
@@ -151,30 +164,6 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
         }
     }
 
-    /**
-     * Handle EMAIL status update notifications
-     * 
-     * @param notificationDTO The status update data
-     */
-    private void handleEmailStatusUpdate(NotificationDTO notificationDTO) {
-        log.debug("Processing EMAIL status update for customerId: {}", notificationDTO.getCustomerId());
-        // TODO: Implement email sending logic
-        log.info("Email status update handling not yet implemented for customerId: {}",
-                notificationDTO.getCustomerId());
-    }
-
-    /**
-     * Handle SMS status update notifications
-     * 
-     * @param notificationDTO The status update data
-     */
-    private void handleSmsStatusUpdate(NotificationDTO notificationDTO) {
-        log.debug("Processing SMS status update for customerId: {}", notificationDTO.getCustomerId());
-        // TODO: Implement SMS sending logic
-        log.info("SMS status update handling not yet implemented for customerId: {}",
-                notificationDTO.getCustomerId());
-    }
-
     /**
      * Send status update push notification via FCM with retry and Kafka fallback.
      *
@@ -185,11 +174,17 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
      * 4. On terminal failure → publish to Kafka fallback topic
      *
      * @param notificationDTO The status update data
+     * @param deadline        Point after which no further work is done for this status push
      */
-    private void sendStatusUpdateNotification(NotificationDTO notificationDTO) {
+    private void sendStatusUpdateNotification(NotificationDTO notificationDTO, Deadline deadline) {
         log.info("[STATUS-FCM] Preparing to send status notification for customerId={}",
                 notificationDTO.getCustomerId());
 
+        if (deadline.isExpired()) {
+            abandonOnDeadline(notificationDTO, "status-token-lookup");
+            return;
+        }
+
         // Fetch FCM token from database based on customerId
         String fcmToken = fetchFcmTokenFromDatabase(notificationDTO.getCustomerId());
 
@@ -198,7 +193,7 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
             log.warn("[STATUS-FCM] FCM token not found for customerId={}. " +
                     "Publishing to Kafka fallback so status metadata is stored in Redis.",
                     notificationDTO.getCustomerId());
-            publishStatusToFcmFailureTopic(notificationDTO, "TOKEN_MISSING");
+            publishStatusToFcmFailureTopic(notificationDTO, "TOKEN_MISSING", 0, deadline);
             return;
         }
 
@@ -215,32 +210,40 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
                 fcmToken, fileCount);
 
         // Build data map for FCM
+        FcmPayloadTemplate template = isStatusDeleteSignal(notificationDTO)
+                ? FcmPayloadTemplate.STATUS_DELETE
+                : FcmPayloadTemplate.STATUS_UPDATE;
         Map<String, String> fcmDataMap = buildStatusUpdateDataMap(notificationDTO);
 
         // ── Attempt FCM send with retry or single-shot ──
         if (statusFcmRetryEnabled) {
-            sendStatusWithRetry(notificationDTO, fcmToken, fcmDataMap);
+            sendStatusWithRetry(notificationDTO, fcmToken, template, fcmDataMap, deadline);
         } else {
-            sendStatusOnce(notificationDTO, fcmToken, fcmDataMap);
+            sendStatusOnce(notificationDTO, fcmToken, template, fcmDataMap, deadline);
         }
     }
 
     /**
      * Send status FCM with configurable retry and exponential backoff.
      * On terminal failure (retries exhausted or non-retryable error), publishes to Kafka fallback topic.
+     * No attempt is started, and no backoff is slept, that would end past the deadline.
      */
     private void sendStatusWithRetry(NotificationDTO notificationDTO, String fcmToken,
-                                     Map<String, String> fcmDataMap) {
+                                     FcmPayloadTemplate template, Map<String, String> fcmDataMap,
+                                     Deadline deadline) {
         long backoffMs = statusFcmRetryInitialBackoffMs;
 
         for (int attempt = 1; attempt <= statusFcmRetryMaxAttempts; attempt++) {
+            if (deadline.isExpired()) {
+                abandonOnDeadline(notificationDTO, "status-fcm-retry");
+                return;
+            }
             try {
-                String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken, fcmDataMap, true);
-                log.info("[STATUS-FCM-RETRY] Push sent successfully for customerId={}, attempt={}/{}, messageId={}",
-                        notificationDTO.getCustomerId(), attempt, statusFcmRetryMaxAttempts, messageId);
+                String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken, template, fcmDataMap);
+                deliveryLog.sent(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), fcmToken, messageId, attempt);
                 return; // Success — exit
 
-            } catch (FirebaseMessagingException e) {
+            } catch (FcmSendException e) {
                 MessagingErrorCode errorCode = e.getMessagingErrorCode();
                 log.warn("[STATUS-FCM-RETRY] Attempt {}/{} failed for customerId={}, errorCode={}, message={}",
                         attempt, statusFcmRetryMaxAttempts, notificationDTO.getCustomerId(),
@@ -251,7 +254,7 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
                     log.error("[STATUS-FCM-RETRY] Non-retryable error {} for customerId={}, publishing to fallback",
                             errorCode, notificationDTO.getCustomerId());
                     publishStatusToFcmFailureTopic(notificationDTO,
-                            "NON_RETRYABLE:" + errorCode.name());
+                            "NON_RETRYABLE:" + errorCode.name(), attempt, deadline);
                     return;
                 }
 
@@ -260,11 +263,16 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
                     log.error("[STATUS-FCM-RETRY] All {} attempts exhausted for customerId={}, publishing to fallback",
                             statusFcmRetryMaxAttempts, notificationDTO.getCustomerId());
                     publishStatusToFcmFailureTopic(notificationDTO,
-                            "RETRIES_EXHAUSTED:" + (errorCode != null ? errorCode.name() : "UNKNOWN"));
+                            "RETRIES_EXHAUSTED:" + (errorCode != null ? errorCode.name() : "UNKNOWN"), attempt,
+                            deadline);
                     return;
                 }
 
                 // Backoff before next attempt
+                if (deadline.remainingMs() <= backoffMs) {
+                    abandonOnDeadline(notificationDTO, "status-fcm-retry");
+                    return;
+                }
                 sleep(backoffMs);
                 backoffMs = Math.min((long) (backoffMs * statusFcmRetryBackoffMultiplier),
                         statusFcmRetryMaxBackoffMs);
@@ -275,10 +283,14 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
                         e.getMessage(), e);
 
                 if (attempt == statusFcmRetryMaxAttempts) {
-                    publishStatusToFcmFailureTopic(notificationDTO, "UNEXPECTED_ERROR");
+                    publishStatusToFcmFailureTopic(notificationDTO, "UNEXPECTED_ERROR", attempt, deadline);
                     return;
                 }
 
+                if (deadline.remainingMs() <= backoffMs) {
+                    abandonOnDeadline(notificationDTO, "status-fcm-retry");
+                    return;
+                }
                 sleep(backoffMs);
                 backoffMs = Math.min((long) (backoffMs * statusFcmRetryBackoffMultiplier),
                         statusFcmRetryMaxBackoffMs);
@@ -290,20 +302,21 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
      * Single status FCM attempt (retry disabled). On failure, publishes to Kafka fallback topic.
      */
     private void sendStatusOnce(NotificationDTO notificationDTO, String fcmToken,
-                                Map<String, String> fcmDataMap) {
+                                FcmPayloadTemplate template, Map<String, String> fcmDataMap,
+                                Deadline deadline) {
         try {
-            String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken, fcmDataMap, true);
-            log.info("[STATUS-FCM] Status notification sent successfully for customerId={}, messageId={}",
-                    notificationDTO.getCustomerId(), messageId);
-        } catch (FirebaseMessagingException e) {
+            String messageId = fcmUtil.sendDataOnlyPushNotification(fcmToken, template, fcmDataMap);
+            deliveryLog.sent(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), fcmToken, messageId, 1);
+        } catch (FcmSendException e) {
             log.error("[STATUS-FCM] Failed to send status notification for customerId={}, error={}",
                     notificationDTO.getCustomerId(), e.getMessage(), e);
             publishStatusToFcmFailureTopic(notificationDTO,
-                    "FCM_ERROR:" + (e.getMessagingErrorCode() != null ? e.getMessagingErrorCode().name() : "UNKNOWN"));
+                    "FCM_ERROR:" + (e.getMessagingErrorCode() != null ? e.getMessagingErrorCode().name() : "UNKNOWN"), 1,
+                    deadline);
         } catch (Exception e) {
             log.error("[STATUS-FCM] Unexpected error sending status notification for customerId={}: {}",
                     notificationDTO.getCustomerId(), e.getMessage(), e);
-            publishStatusToFcmFailureTopic(notificationDTO, "UNEXPECTED_ERROR");
+            publishStatusToFcmFailureTopic(notificationDTO, "UNEXPECTED_ERROR", 1, deadline);
         }
     }
 
@@ -312,8 +325,18 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
      * The web-socket-service FcmFailureStatusConsumer will pick this up and store
      * status metadata in Redis as STATUS:UNDELIVERED:{receiverId}, ensuring the
      * Flutter client gets it on next reconnect.
+     * Skipped once the deadline has passed.
+     *
+     * @param attempts FCM attempts made before giving up (0 if none was possible)
      */
-    private void publishStatusToFcmFailureTopic(NotificationDTO notificationDTO, String failureReason) {
+    private void publishStatusToFcmFailureTopic(NotificationDTO notificationDTO, String failureReason, int attempts,
+                                                Deadline deadline) {
+        if (deadline.isExpired()) {
+            abandonOnDeadline(notificationDTO, "status-fallback-publish");
+            return;
+        }
+        deliveryLog.failed(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), null, failureReason, attempts);
+
         if (!statusFcmFailureKafkaPublishEnabled) {
             log.info("[STATUS-FCM-FALLBACK] Kafka publish disabled, skipping for customerId={}",
                     notificationDTO.getCustomerId());
@@ -330,10 +353,14 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
             }
 
             String kafkaKey = "status-fcm-failure:" + notificationDTO.getCustomerId();
-            kafkaTemplate.send(statusFcmFailureKafkaTopic, kafkaKey, notificationDTO);
-
-            log.info("[STATUS-FCM-FALLBACK] Published to topic={} for customerId={}, reason={}",
-                    statusFcmFailureKafkaTopic, notificationDTO.getCustomerId(), failureReason);
+            if (fallbackPublisher.publish(statusFcmFailureKafkaTopic, kafkaKey, notificationDTO)) {
+                log.info("[STATUS-FCM-FALLBACK] Queued for topic={} for customerId={}, reason={}",
+                        statusFcmFailureKafkaTopic, notificationDTO.getCustomerId(), failureReason);
+            } else {
+                log.error("[STATUS-FCM-FALLBACK-CRITICAL] Spill journal refused the record " +
+                                "for customerId={}, reason={}. Status notification is LOST.",
+                        notificationDTO.getCustomerId(), failureReason);
+            }
         } catch (Exception e) {
             log.error("[STATUS-FCM-FALLBACK-CRITICAL] Failed to publish to Kafka for customerId={}, " +
                             "reason={}: {}. Status notification is LOST.",
@@ -341,27 +368,33 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
         }
     }
 
+    private void abandonOnDeadline(NotificationDTO notificationDTO, String stage) {
+        freshnessPolicy.recordDeadlineExceeded(stage);
+        deliveryLog.failed(DeliveryLog.CATEGORY_FCM, notificationDTO.getCustomerId(), null,
+                "DEADLINE_EXCEEDED:" + stage, 0);
+    }
+
     private void sleep(long ms) {
+        downstreamBackpressure.retryStarted();
         try {
             Thread.sleep(ms);
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
             log.warn("[STATUS-FCM-RETRY] Retry sleep interrupted");
+        } finally {
+            downstreamBackpressure.retryFinished();
         }
     }
 
     /**
-     * Build FCM data map from status update DTO
+     * Build the per-recipient FCM data from a status update DTO.
+     * type/sound/badge come from the STATUS_UPDATE / STATUS_DELETE template.
      * 
      * @param notificationDTO The status update data
-     * @return Map with FCM data
+     * @return Map with the variable FCM data fields
      */
     private Map<String, String> buildStatusUpdateDataMap(NotificationDTO notificationDTO) {
-        Map<String, String> fcmData = new HashMap<>();
-
-        // Detect if this is a STATUS_DELETE signal from the map
-        boolean isDeleteSignal = notificationDTO.getMap() != null
-                && "STATUS_DELETE".equals(notificationDTO.getMap().get("statusDeleteSignal"));
+        Map<String, String> fcmData = new HashMap<>(8);
 
         // Add sender information
         if (notificationDTO.getSenderMobile() != null) {
@@ -380,18 +413,19 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
             fcmData.put(ApplicationConstants.FCM_FILE_IDS_KEY, notificationDTO.getFileIds());
         }
 
-        // Set type based on whether this is a delete or an upload notification
+        return fcmData;
+    }
+
+    /**
+     * Detect if this is a STATUS_DELETE signal from the map
+     */
+    private boolean isStatusDeleteSignal(NotificationDTO notificationDTO) {
+        boolean isDeleteSignal = notificationDTO.getMap() != null
+                && "STATUS_DELETE".equals(notificationDTO.getMap().get("statusDeleteSignal"));
         if (isDeleteSignal) {
-            fcmData.put("type", ApplicationConstants.FCM_NOTIFICATION_TYPE_STATUS_DELETE);
             log.info("[STATUS-DELETE] Building FCM data for status deletion. customerId={}", notificationDTO.getCustomerId());
-        } else {
-            fcmData.put("type", ApplicationConstants.FCM_NOTIFICATION_TYPE_STATUS);
         }
-        fcmData.put("sound", ApplicationConstants.FCM_NOTIFICATION_SOUND_NONE);
-        fcmData.put("badge", "1");
-
-        log.debug("Built FCM data map for status {} with {} entries", isDeleteSignal ? "delete" : "update", fcmData.size());
-        return fcmData;
+        return isDeleteSignal;
     }
 
     /**
@@ -454,7 +488,7 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
         log.debug(ApplicationConstants.LOG_FCM_TOKEN_FETCHING_FROM_DB, customerId);
 
         try {
-            Optional<NotificationToken> notificationToken = notificationTokenRepository.findFirstByCustomerId(customerId);
+            Optional<TokenSnapshot> notificationToken = tokenCache.findByCustomerId(customerId);
 
             if (notificationToken.isPresent()) {
                 String fcmToken = notificationToken.get().getFcmToken();
@@ -0,0 +1,281 @@
+package com.odin.notification.service.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.dto.TokenSnapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-coalescing buffer in front of notification_token for FCM token saves.
+ *
+ * The app calls the save endpoint on every launch and token refresh, so most
+ * calls carry the token we already have. For each save:
+ *   - unchanged: the cached row already has this device's token → no write;
+ *   - changed: the write is parked under (customerId, deviceSignature); a
+ *     later save for the same device within the window replaces it, so a
+ *     refresh storm produces one row write.
+ * Parked writes are flushed every token.write-buffer.flush.interval.ms (or as
+ * soon as token.write-buffer.batch.size are pending) as one JDBC batch of the
+ * same upsert the repository uses.
+ *
+ * The {@link NotificationTokenCache} only ever holds durable rows: every pod,
+ * this one included, is invalidated once the batch is committed, so pushes
+ * may use the previous token for at most one flush interval. A write dropped
+ * after MAX_FLUSH_ATTEMPTS is invalidated as well, and since the cache never
+ * saw it the client's next save of the same token is not mistaken for
+ * "unchanged".
+ *
+ * Before an account's rows are purged its parked writes are discarded
+ * ({@link #discard}), so a flush cannot recreate a row the purge deleted.
+ */
+@Slf4j
+@Component
+public class TokenWriteBuffer {
+
+    private static final String UPSERT_SQL = "INSERT INTO notification_token "
+            + "(customer_id, device_signature, fcm_token, voip_token, create_timestamp, update_timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE fcm_token = VALUES(fcm_token), "
+            + "voip_token = COALESCE(VALUES(voip_token), voip_token), "
+            + "update_timestamp = VALUES(update_timestamp)";
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationTokenCache tokenCache;
+
+    private final Map<DeviceKey, PendingWrite> pending = new LinkedHashMap<>();
+    // Held for a whole flush, so discard() waits out a batch already taken from pending
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService flusher;
+
+    @Value("${token.write-buffer.flush.interval.ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${token.write-buffer.batch.size:200}")
+    private int batchSize;
+
+    public TokenWriteBuffer(JdbcTemplate jdbcTemplate, NotificationTokenCache tokenCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenCache = tokenCache;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-write-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("[TOKEN-WRITE] Write buffer started — flushInterval={}ms, batchSize={}", flushIntervalMs, batchSize);
+    }
+
+    /**
+     * Queue an FCM token registration.
+     *
+     * @return false if the write was skipped because nothing changed
+     */
+    public boolean submit(Long customerId, String deviceSignature, String fcmToken, String voipToken) {
+        Optional<TokenSnapshot> current = tokenCache.findByCustomerId(customerId);
+        if (current.isPresent()
+                && Objects.equals(current.get().getDeviceSignature(), deviceSignature)
+                && Objects.equals(current.get().getFcmToken(), fcmToken)
+                && (voipToken == null || voipToken.equals(current.get().getVoipToken()))) {
+            log.debug("[TOKEN-WRITE] Unchanged token for customerId={}, skipping write", customerId);
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        DeviceKey key = new DeviceKey(customerId, deviceSignature);
+        boolean flushNow;
+        synchronized (pending) {
+            PendingWrite previous = pending.get(key);
+            String mergedVoip = voipToken != null ? voipToken : previous != null ? previous.voipToken : null;
+            pending.put(key, new PendingWrite(fcmToken, mergedVoip, now, 0));
+            flushNow = pending.size() >= batchSize;
+        }
+
+        if (flushNow) {
+            flusher.execute(this::flushSafely);
+        }
+        return true;
+    }
+
+    /**
+     * Drop every parked write of the customer, waiting for a flush in
+     * progress to finish first. Call before deleting the customer's rows.
+     *
+     * @return the number of writes dropped
+     */
+    public int discard(Long customerId) {
+        int dropped = 0;
+        synchronized (flushLock) {
+            synchronized (pending) {
+                Iterator<DeviceKey> keys = pending.keySet().iterator();
+                while (keys.hasNext()) {
+                    if (keys.next().customerId.equals(customerId)) {
+                        keys.remove();
+                        dropped++;
+                    }
+                }
+            }
+        }
+        if (dropped > 0) {
+            log.info("[TOKEN-WRITE] Discarded {} pending token write(s) for customerId={}", dropped, customerId);
+        }
+        return dropped;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("[TOKEN-WRITE] Flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    void flush() {
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        List<Map.Entry<DeviceKey, PendingWrite>> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.entrySet());
+            pending.clear();
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    DeviceKey key = batch.get(i).getKey();
+                    PendingWrite write = batch.get(i).getValue();
+                    Timestamp at = new Timestamp(write.at);
+                    ps.setLong(1, key.customerId);
+                    ps.setString(2, key.deviceSignature);
+                    ps.setString(3, write.fcmToken);
+                    ps.setString(4, write.voipToken);
+                    ps.setTimestamp(5, at);
+                    ps.setTimestamp(6, at);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+        } catch (Exception e) {
+            requeue(batch, e);
+            return;
+        }
+
+        for (Map.Entry<DeviceKey, PendingWrite> entry : batch) {
+            tokenCache.invalidate(entry.getKey().customerId, entry.getValue().at);
+        }
+        log.debug("[TOKEN-WRITE] Flushed {} coalesced token write(s)", batch.size());
+    }
+
+    /**
+     * Put a failed batch back unless a newer write for the same device arrived
+     * meanwhile; give up on a write after MAX_FLUSH_ATTEMPTS.
+     */
+    private void requeue(List<Map.Entry<DeviceKey, PendingWrite>> batch, Exception cause) {
+        List<Map.Entry<DeviceKey, PendingWrite>> dropped = new ArrayList<>();
+        synchronized (pending) {
+            for (Map.Entry<DeviceKey, PendingWrite> entry : batch) {
+                PendingWrite write = entry.getValue();
+                if (write.attempts + 1 >= MAX_FLUSH_ATTEMPTS) {
+                    dropped.add(entry);
+                    continue;
+                }
+                pending.putIfAbsent(entry.getKey(),
+                        new PendingWrite(write.fcmToken, write.voipToken, write.at, write.attempts + 1));
+            }
+        }
+        log.error("[TOKEN-WRITE] Batch of {} failed, requeued={}, dropped={}: {}",
+                batch.size(), batch.size() - dropped.size(), dropped.size(), cause.getMessage());
+        for (Map.Entry<DeviceKey, PendingWrite> entry : dropped) {
+            log.error("[TOKEN-WRITE] Dropped token write for customerId={} after {} attempts",
+                    entry.getKey().customerId, MAX_FLUSH_ATTEMPTS);
+            tokenCache.invalidate(entry.getKey().customerId, entry.getValue().at);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushSafely();
+    }
+
+    private static final class DeviceKey {
+        private final Long customerId;
+        private final String deviceSignature;
+
+        private DeviceKey(Long customerId, String deviceSignature) {
+            this.customerId = customerId;
+            this.deviceSignature = deviceSignature;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DeviceKey)) return false;
+            DeviceKey other = (DeviceKey) o;
+            return customerId.equals(other.customerId) && deviceSignature.equals(other.deviceSignature);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerId, deviceSignature);
+        }
+    }
+
+    private static final class PendingWrite {
+        private final String fcmToken;
+        private final String voipToken;
+        private final long at;
+        private final int attempts;
+
+        private PendingWrite(String fcmToken, String voipToken, long at, int attempts) {
+            this.fcmToken = fcmToken;
+            this.voipToken = voipToken;
+            this.at = at;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.odin.notification.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.constants.ApplicationConstants;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks CALL_INVITE sends in flight by (receiverCustomerId, callId) so an
+ * ended call stops ringing.
+ *
+ * A call is cancelled by a CALL_CANCEL event on notification-events (see
+ * NotificationEventsConsumer) or by any service setting the Redis key
+ * call_cancel:{receiverCustomerId}:{callId}. A CALL_CANCEL records the key
+ * and publishes it on {@value ApplicationConstants#REDIS_CALL_CANCEL_CHANNEL},
+ * so every pod marks the call cancelled locally. Once cancelled:
+ *   - an invite not yet consumed is dropped by {@link #claimInvite}, which
+ *     also sees keys set directly by other services;
+ *   - invites still queued on a bulkhead lane are dropped before sending;
+ *   - an in-flight send on any pod has its hedge cancelled and its retry
+ *     backoff cut short, and publishes nothing to the fallback topic.
+ * Only {@link #claimInvite} talks to Redis on the invite path (one round
+ * trip, shared with de-duplication); every later check is local.
+ *
+ * The call id is map.callId, which CALL_INVITE and CALL_CANCEL share. A
+ * message without it cannot be matched: such an invite is never cancelled
+ * and such a cancel is logged and ignored. Cancellations are remembered for
+ * call.cancel.ttl.seconds, which must outlive the CALL_INVITE freshness budget;
+ * an expired one is dropped when it is next looked up, and the rest by a sweep
+ * every call.cancel.sweep.interval.seconds.
+ */
+@Slf4j
+@Component
+public class CallCancellationRegistry implements MessageListener {
+
+    private static final String CALL_CANCEL_KEY_PREFIX = "call_cancel";
+
+    /**
+     * KEYS: invite de-duplication key, cancel key. ARGV: de-duplication TTL
+     * seconds, 1 if the cancel key applies. Returns an {@link InviteClaim}
+     * ordinal.
+     */
+    private static final RedisScript<Long> CLAIM_INVITE_SCRIPT = new DefaultRedisScript<>(
+            "if ARGV[2] == '1' and redis.call('EXISTS', KEYS[2]) == 1 then return 2 end "
+                    + "if redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[1]) then return 0 end "
+                    + "return 1",
+            Long.class);
+
+    /** Outcome of {@link #claimInvite}. */
+    public enum InviteClaim {
+        CLAIMED, DUPLICATE, CANCELLED
+    }
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Map<String, InFlightCall> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> cancelledUntil = new ConcurrentHashMap<>();
+    private final AtomicLong abortedSends = new AtomicLong();
+    private ScheduledExecutorService sweeper;
+
+    @Value("${call.cancel.ttl.seconds:120}")
+    private long ttlSeconds;
+
+    @Value("${call.cancel.sweep.interval.seconds:60}")
+    private long sweepIntervalSeconds;
+
+    public CallCancellationRegistry(RedisTemplate<String, String> redisTemplate,
+                                    RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(ApplicationConstants.REDIS_CALL_CANCEL_CHANNEL));
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "call-cancel-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepExpired, sweepIntervalSeconds, sweepIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /** map.callId, the id CALL_INVITE and CALL_CANCEL share; null if absent. */
+    public static String callId(Map<String, Object> map) {
+        Object value = map != null ? map.get("callId") : null;
+        return value != null ? String.valueOf(value) : null;
+    }
+
+    /**
+     * Mark the call cancelled cluster-wide and abort this pod's in-flight send.
+     *
+     * @return true for the first cancellation of this call, false for a repeat
+     */
+    public boolean cancel(Object receiverCustomerId, String callId) {
+        String key = key(receiverCustomerId, callId);
+        if (key == null) {
+            return false;
+        }
+        markCancelled(key);
+
+        boolean first = true;
+        try {
+            first = !Boolean.FALSE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(redisKey(key), "1", Duration.ofSeconds(ttlSeconds)));
+            if (first) {
+                redisTemplate.convertAndSend(ApplicationConstants.REDIS_CALL_CANCEL_CHANNEL, key);
+            }
+        } catch (Exception e) {
+            log.warn("[CALL-CANCEL] Failed to record cancellation in Redis for {}: {}", key, e.getMessage());
+        }
+        return first;
+    }
+
+    /**
+     * Claim a CALL_INVITE for delivery: one Redis round trip that checks the
+     * call's cancel key and sets the invite's de-duplication key. A Redis
+     * failure is treated as claimed, so calls still ring.
+     */
+    public InviteClaim claimInvite(Object receiverCustomerId, String callId, String dedupeKey, Duration dedupeTtl) {
+        String key = key(receiverCustomerId, callId);
+        if (key != null && isCancelled(key)) {
+            return InviteClaim.CANCELLED;
+        }
+        try {
+            Long result = redisTemplate.execute(CLAIM_INVITE_SCRIPT,
+                    List.of(dedupeKey, key != null ? redisKey(key) : dedupeKey),
+                    String.valueOf(dedupeTtl.getSeconds()), key != null ? "1" : "0");
+            if (result == null) {
+                return InviteClaim.CLAIMED;
+            }
+            InviteClaim claim = InviteClaim.values()[result.intValue()];
+            if (claim == InviteClaim.CANCELLED) {
+                markCancelled(key);
+            }
+            return claim;
+        } catch (Exception e) {
+            log.warn("[CALL-CANCEL] Invite claim failed in Redis for {}: {}", dedupeKey, e.getMessage());
+            return InviteClaim.CLAIMED;
+        }
+    }
+
+    /**
+     * Undo {@link #claimInvite} for an invite that could not be handed off, so
+     * its redelivery is claimed again rather than dropped as a duplicate.
+     */
+    public void releaseInvite(String dedupeKey) {
+        try {
+            redisTemplate.delete(dedupeKey);
+        } catch (Exception e) {
+            log.warn("[CALL-CANCEL] Failed to release invite claim {}: {}", dedupeKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Undo the "first" marker of {@link #cancel} for a cancel whose push could
+     * not be handed off, so its redelivery sends the push. The call stays
+     * cancelled on this pod.
+     */
+    public void releaseCancel(Object receiverCustomerId, String callId) {
+        String key = key(receiverCustomerId, callId);
+        if (key == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(redisKey(key));
+        } catch (Exception e) {
+            log.warn("[CALL-CANCEL] Failed to release cancellation {}: {}", key, e.getMessage());
+        }
+    }
+
+    /** True if this pod has seen the call's cancellation (no Redis call). */
+    public boolean isCancelled(Object receiverCustomerId, String callId) {
+        String key = key(receiverCustomerId, callId);
+        return key != null && isCancelled(key);
+    }
+
+    /** A cancellation published by any pod, including this one. */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        markCancelled(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void markCancelled(String key) {
+        cancelledUntil.put(key, System.currentTimeMillis() + ttlSeconds * 1000L);
+
+        InFlightCall call = inFlight.get(key);
+        if (call != null && !call.isCancelled()) {
+            call.cancel();
+            log.info("[CALL-CANCEL] Aborted in-flight CALL_INVITE for {}", key);
+        }
+    }
+
+    /**
+     * Register a send for the call. The returned handle must be passed to
+     * {@link #complete(InFlightCall)} when the send finishes.
+     */
+    public InFlightCall register(Object receiverCustomerId, String callId) {
+        String key = key(receiverCustomerId, callId);
+        if (key == null) {
+            return InFlightCall.NONE;
+        }
+        InFlightCall call = new InFlightCall(this, key);
+        inFlight.put(key, call);
+        if (isCancelled(key)) {
+            call.cancel();
+        }
+        return call;
+    }
+
+    public void complete(InFlightCall call) {
+        if (call != InFlightCall.NONE) {
+            inFlight.remove(call.key, call);
+        }
+    }
+
+    /** Record that a send was abandoned because its call was cancelled. */
+    public void recordAborted() {
+        abortedSends.incrementAndGet();
+    }
+
+    public long getAbortedCount() {
+        return abortedSends.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public int getCancelledCount() {
+        return cancelledUntil.size();
+    }
+
+    private boolean isCancelled(String key) {
+        Long until = cancelledUntil.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        cancelledUntil.remove(key, until);
+        return false;
+    }
+
+    void sweepExpired() {
+        long now = System.currentTimeMillis();
+        cancelledUntil.values().removeIf(until -> until <= now);
+    }
+
+    private static String key(Object receiverCustomerId, String callId) {
+        if (receiverCustomerId == null || callId == null) {
+            return null;
+        }
+        return receiverCustomerId + ":" + callId;
+    }
+
+    private static String redisKey(String key) {
+        return CALL_CANCEL_KEY_PREFIX + ":" + key;
+    }
+
+    /**
+     * One in-flight CALL_INVITE send. {@link #NONE} stands for a send that is
+     * not tied to a call and is never cancelled.
+     */
+    public static final class InFlightCall {
+
+        public static final InFlightCall NONE = new InFlightCall(null, null);
+
+        private final CallCancellationRegistry registry;
+        private final String key;
+        private final CountDownLatch cancelled = new CountDownLatch(1);
+        private final List<Future<?>> attached = new CopyOnWriteArrayList<>();
+
+        private InFlightCall(CallCancellationRegistry registry, String key) {
+            this.registry = registry;
+            this.key = key;
+        }
+
+        /** Cancel {@code future} together with the call (e.g. the hedge of APNs and FCM). */
+        public void attach(Future<?> future) {
+            attached.add(future);
+            if (cancelled.getCount() == 0) {
+                future.cancel(true);
+            }
+        }
+
+        /**
+         * Local only: cancellations from other pods arrive through the
+         * registry's pub/sub subscription.
+         */
+        public boolean isCancelled() {
+            if (this == NONE) {
+                return false;
+            }
+            if (cancelled.getCount() == 0) {
+                return true;
+            }
+            if (registry.isCancelled(key)) {
+                cancel();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Sleep for a retry backoff, waking early if the call is cancelled.
+         *
+         * @return true if the call was cancelled (the retry must not run)
+         */
+        public boolean awaitBackoff(long ms) throws InterruptedException {
+            if (this == NONE) {
+                Thread.sleep(ms);
+                return false;
+            }
+            return cancelled.await(ms, TimeUnit.MILLISECONDS) || isCancelled();
+        }
+
+        private void cancel() {
+            cancelled.countDown();
+            attached.forEach(f -> f.cancel(true));
+        }
+
+        @Override
+        public String toString() {
+            return key == null ? "InFlightCall[none]" : "InFlightCall[" + key + "]";
+        }
+    }
+}
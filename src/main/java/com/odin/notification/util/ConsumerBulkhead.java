@@ -0,0 +1,289 @@
+package com.odin.notification.util;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.kafka.support.Acknowledgment;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Worker lanes with bounded queues dedicated to one notification class
+ * (chat, status, OTP, ...), so a burst in one class cannot take threads from
+ * another.
+ *
+ * Key-ordered parallelism: each lane is a single thread with its own FIFO
+ * queue, and a record is routed to lane hash(key) % lanes, where the key is
+ * the recipient's customerId. Records for the same recipient therefore run
+ * one at a time in partition order (STATUS before STATUS_DELETE, chat
+ * messages in send order) while different recipients run in parallel — up to
+ * the lane count, independent of how many partitions the topic has. Records
+ * without a key go to the least-loaded lane.
+ *
+ * Offsets: the record's offset is acknowledged only after its task has
+ * finished. Listeners use AckMode.MANUAL with async acks, so lanes may finish
+ * out of order and the container commits only up to the lowest offset below
+ * which every record is done; work still queued when the pod dies is
+ * redelivered rather than lost.
+ *
+ * Backpressure is two-stage:
+ *   - when any lane's queue reaches the high watermark, the class's listener
+ *     containers are paused through {@link ListenerPauseController}; they are
+ *     resumed once every lane has drained to the low watermark;
+ *   - records the container had already fetched before the pause took effect
+ *     are still accepted; if the target lane is completely full the listener
+ *     thread waits for a slot (running the record inline would overtake
+ *     queued records of the same key). The wait is capped at maxBlockMs per
+ *     listener thread, summed over consecutive records that had to wait;
+ *     past that the record is queued beyond the lane's capacity, so the
+ *     consumer keeps polling within max.poll.interval.ms. The overflow is
+ *     bounded by what the container has already fetched: with async acks a
+ *     partition is not polled again until every record of its last poll has
+ *     been acknowledged.
+ *
+ * Records are never handed back to Kafka: a seek would leave the container
+ * waiting for acks of records it no longer delivers (see KafkaConsumerConfig).
+ *
+ * Independently of the queue counts, the estimated payload bytes of queued
+ * and running records are reserved against the in-flight heap budget
+ * ({@link HeapBudgetGovernor}), which pauses every listener when it is hit.
+ */
+@Slf4j
+public class ConsumerBulkhead {
+
+    private static final String PAUSE_REASON_PREFIX = "bulkhead:";
+
+    // Time the current listener thread has spent waiting for slots since it last handed a record over without waiting
+    private static final ThreadLocal<long[]> BLOCKED_MS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final String name;
+    private final List<String> listenerIds;
+    private final ListenerPauseController pauseController;
+    private final HeapBudgetGovernor heapBudget;
+    private final ThreadPoolExecutor[] lanes;
+    private final Semaphore[] slots;
+    private final int highWatermark;
+    private final int lowWatermark;
+    private final long maxBlockMs;
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    public ConsumerBulkhead(String name, int laneCount, int queueCapacity, List<String> listenerIds,
+                            ListenerPauseController pauseController, HeapBudgetGovernor heapBudget,
+                            long maxBlockMs) {
+        this.name = name;
+        this.maxBlockMs = maxBlockMs;
+        this.listenerIds = List.copyOf(listenerIds);
+        this.pauseController = pauseController;
+        this.heapBudget = heapBudget;
+
+        int laneCapacity = Math.max(1, queueCapacity / laneCount);
+        this.highWatermark = Math.max(1, laneCapacity * 8 / 10);
+        this.lowWatermark = laneCapacity * 2 / 10;
+
+        // A slot is held from hand-off until the lane starts the task, i.e. while it is queued
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        this.slots = new Semaphore[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "bulkhead-" + name + "-" + (i + 1);
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, threadName);
+                        t.setDaemon(true);
+                        return t;
+                    });
+            slots[i] = new Semaphore(laneCapacity);
+        }
+    }
+
+    /**
+     * Run {@code task} on the lane owning {@code key} and acknowledge the
+     * record afterwards, whether or not the task failed (failures are logged,
+     * as the listeners did before).
+     */
+    public void execute(Object key, Runnable task, Acknowledgment ack) {
+        execute(key, task, ack, 0);
+    }
+
+    /**
+     * As {@link #execute(Object, Runnable, Acknowledgment)}, holding
+     * {@code payloadBytes} of the in-flight heap budget until the task is done.
+     */
+    public void execute(Object key, Runnable task, Acknowledgment ack, long payloadBytes) {
+        int lane = laneFor(key);
+        heapBudget.reserveInFlight(payloadBytes);
+        boolean slot = acquireSlot(lane);
+
+        Runnable wrapped = () -> {
+            if (slot) {
+                slots[lane].release();
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("[BULKHEAD] {} task failed: {}", name, e.getMessage(), e);
+            } finally {
+                heapBudget.releaseInFlight(payloadBytes);
+                if (ack != null) {
+                    ack.acknowledge();
+                }
+                maybeResume();
+            }
+        };
+
+        try {
+            lanes[lane].execute(wrapped);
+        } catch (RejectedExecutionException e) {
+            // Only after shutdown; the container is stopping and the record is not acknowledged
+            if (slot) {
+                slots[lane].release();
+            }
+            heapBudget.releaseInFlight(payloadBytes);
+            throw e;
+        }
+        maybePause();
+    }
+
+    /**
+     * Unkeyed variant for classes where per-recipient order does not matter.
+     */
+    public void execute(Runnable task, Acknowledgment ack) {
+        execute(null, task, ack);
+    }
+
+    private int laneFor(Object key) {
+        if (key != null) {
+            // Hash the string form so Long 42 and "42" from different topics share a lane
+            return Math.floorMod(String.valueOf(key).hashCode(), lanes.length);
+        }
+        int least = 0;
+        for (int i = 1; i < lanes.length; i++) {
+            if (lanes[i].getQueue().size() < lanes[least].getQueue().size()) {
+                least = i;
+            }
+        }
+        return least;
+    }
+
+    /**
+     * Take a queue slot on {@code lane}, waiting while it is full for what is
+     * left of this listener thread's wait budget.
+     *
+     * @return false if the budget ran out and the record goes over capacity
+     */
+    private boolean acquireSlot(int lane) {
+        long[] blocked = BLOCKED_MS.get();
+        if (slots[lane].tryAcquire()) {
+            blocked[0] = 0;
+            return true;
+        }
+        long remaining = maxBlockMs - blocked[0];
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = remaining > 0 && slots[lane].tryAcquire(remaining, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        blocked[0] += TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (!acquired) {
+            // Queued anyway, in order behind the same key; the next record that finds a free slot starts a new budget
+            long total = overflowed.incrementAndGet();
+            log.warn("[BULKHEAD] {} lane {} full after waiting {}ms, queueing over capacity (overflowed={})",
+                    name, lane + 1, maxBlockMs, total);
+        }
+        return acquired;
+    }
+
+    private int maxLaneQueue() {
+        int max = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            max = Math.max(max, lane.getQueue().size());
+        }
+        return max;
+    }
+
+    private void maybePause() {
+        if (maxLaneQueue() >= highWatermark && paused.compareAndSet(false, true)) {
+            for (String listenerId : listenerIds) {
+                pauseController.pause(listenerId, PAUSE_REASON_PREFIX + name);
+            }
+        }
+    }
+
+    private void maybeResume() {
+        if (paused.get() && maxLaneQueue() <= lowWatermark && paused.compareAndSet(true, false)) {
+            for (String listenerId : listenerIds) {
+                pauseController.resume(listenerId, PAUSE_REASON_PREFIX + name);
+            }
+        }
+    }
+
+    /**
+     * Stop taking work and give queued tasks a chance to finish (and ack).
+     */
+    public void shutdown(long timeoutMs) {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                if (!lane.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                    log.warn("[BULKHEAD] {} did not drain in {}ms, {} task(s) will be redelivered",
+                            name, timeoutMs, lane.getQueue().size());
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (ThreadPoolExecutor lane : lanes) {
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public List<String> getListenerIds() {
+        return listenerIds;
+    }
+
+    public int getActiveCount() {
+        int active = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            active += lane.getActiveCount();
+        }
+        return active;
+    }
+
+    public int getQueued() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    public boolean isPaused() {
+        return paused.get();
+    }
+
+    /** Records queued beyond a lane's capacity because the wait budget ran out. */
+    public long getOverflowed() {
+        return overflowed.get();
+    }
+}
@@ -0,0 +1,88 @@
+package com.odin.notification.util;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.constants.ApplicationConstants;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The per-class {@link ConsumerBulkhead}s and the listeners each one feeds.
+ *
+ * Sizes come from bulkhead.{name}.threads (one ordered lane per thread) and
+ * bulkhead.{name}.queue-capacity (split evenly across the lanes);
+ * the defaults below keep the total thread count small for a 256 MB pod while
+ * giving chat and OTP (latency-sensitive, cheap per record) more room than the
+ * contact fan-outs (privacy, profile photo), which are few but expensive.
+ */
+@Slf4j
+@Component
+public class ConsumerBulkheads {
+
+    public static final String CHAT = "chat";
+    public static final String STATUS = "status";
+    public static final String PROFILE_PHOTO = "profile-photo";
+    public static final String PRIVACY = "privacy";
+    public static final String OTP = "otp";
+
+    private final Map<String, ConsumerBulkhead> bulkheads = new LinkedHashMap<>();
+
+    private final HeapBudgetGovernor heapBudget;
+    private final long maxBlockMs;
+
+    public ConsumerBulkheads(Environment environment, ListenerPauseController pauseController,
+                             HeapBudgetGovernor heapBudget, DownstreamBackpressure downstreamBackpressure) {
+        this.heapBudget = heapBudget;
+        this.maxBlockMs = downstreamBackpressure.getListenerMaxBlockMs();
+        register(environment, pauseController, CHAT, 8, 200,
+                ApplicationConstants.LISTENER_ID_NOTIFICATION_EVENTS, ApplicationConstants.LISTENER_ID_UNDELIVERED);
+        register(environment, pauseController, STATUS, 4, 200,
+                ApplicationConstants.LISTENER_ID_STATUS_UPDATE);
+        register(environment, pauseController, PROFILE_PHOTO, 2, 50,
+                ApplicationConstants.LISTENER_ID_PROFILE_PHOTO_UPDATE);
+        register(environment, pauseController, PRIVACY, 2, 50,
+                ApplicationConstants.LISTENER_ID_PRIVACY_VISIBILITY);
+        register(environment, pauseController, OTP, 4, 100,
+                ApplicationConstants.LISTENER_ID_OTP);
+        downstreamBackpressure.sizeInFlightFor(bulkheads.values().stream()
+                .filter(bulkhead -> bulkhead.getListenerIds().stream().anyMatch(DownstreamBackpressure::throttles))
+                .mapToInt(ConsumerBulkhead::getLaneCount)
+                .sum());
+    }
+
+    private void register(Environment environment, ListenerPauseController pauseController,
+                          String name, int defaultThreads, int defaultQueue, String... listenerIds) {
+        int threads = environment.getProperty("bulkhead." + name + ".threads", Integer.class, defaultThreads);
+        int queue = environment.getProperty("bulkhead." + name + ".queue-capacity", Integer.class, defaultQueue);
+        bulkheads.put(name, new ConsumerBulkhead(name, threads, queue, List.of(listenerIds),
+                pauseController, heapBudget, maxBlockMs));
+        log.info("[BULKHEAD] {} — threads={}, queueCapacity={}, listeners={}", name, threads, queue, List.of(listenerIds));
+    }
+
+    public ConsumerBulkhead get(String name) {
+        ConsumerBulkhead bulkhead = bulkheads.get(name);
+        if (bulkhead == null) {
+            throw new IllegalArgumentException("Unknown bulkhead: " + name);
+        }
+        return bulkhead;
+    }
+
+    public Collection<ConsumerBulkhead> all() {
+        return bulkheads.values();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ConsumerBulkhead bulkhead : bulkheads.values()) {
+            bulkhead.shutdown(5000);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.odin.notification.util;
+
+/**
+ * Absolute point in time after which a notification is no longer worth any
+ * more work: no further token lookup, send attempt, retry backoff or fallback
+ * publication.
+ *
+ * Derived from the message's event time plus its type's freshness budget
+ * (see {@link FreshnessPolicy#deadlineFor}); types without a budget get
+ * {@link #none()}, which never expires.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private final long expiresAtMs;
+
+    private Deadline(long expiresAtMs) {
+        this.expiresAtMs = expiresAtMs;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /** Deadline at {@code startMs + budgetMs} (epoch millis). */
+    public static Deadline after(long startMs, long budgetMs) {
+        return new Deadline(startMs + budgetMs);
+    }
+
+    public boolean isBounded() {
+        return expiresAtMs != Long.MAX_VALUE;
+    }
+
+    public boolean isExpired() {
+        return isBounded() && System.currentTimeMillis() >= expiresAtMs;
+    }
+
+    /** Milliseconds left, 0 once expired, Long.MAX_VALUE if unbounded. */
+    public long remainingMs() {
+        if (!isBounded()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, expiresAtMs - System.currentTimeMillis());
+    }
+
+    /** {@code ms} capped at the time left. */
+    public long bound(long ms) {
+        return Math.min(ms, remainingMs());
+    }
+
+    @Override
+    public String toString() {
+        return isBounded() ? "Deadline[remaining=" + remainingMs() + "ms]" : "Deadline[none]";
+    }
+}
@@ -0,0 +1,103 @@
+package com.odin.notification.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Structured, sampled logging for the delivery hot path.
+ *
+ * Each delivery writes ONE summary line:
+ *
+ *   [DELIVERY] cat=fcm outcome=SENT customerId=42 token=dX3k9a…8Jq2Lw ref=projects/…/123 attempt=1
+ *
+ * Successes are sampled per category (delivery.log.sample.{category}, falling
+ * back to delivery.log.sample.default); failures are always written. The
+ * sampling decision is taken before any argument is touched, so a sampled-out
+ * success costs one random draw and nothing else.
+ *
+ * Tokens and phone numbers are masked; payload maps are never part of the
+ * summary. Anything expensive that still needs to be logged at DEBUG is
+ * built behind a log.isDebugEnabled() check, so it costs nothing otherwise.
+ */
+@Slf4j
+@Component
+public class DeliveryLog {
+
+    public static final String CATEGORY_FCM = "fcm";
+    public static final String CATEGORY_APNS = "apns";
+
+    // Fields that should never be logged in plaintext
+    private static final String[] SENSITIVE_FIELDS = {"ciphertext", "iv", "tag", "senderPublicKey", "senderKeyVersion"};
+
+    private final Environment environment;
+    private final double defaultSampleRate;
+    private final Map<String, Double> sampleRates = new ConcurrentHashMap<>();
+
+    public DeliveryLog(Environment environment,
+                       @Value("${delivery.log.sample.default:1.0}") double defaultSampleRate) {
+        this.environment = environment;
+        this.defaultSampleRate = defaultSampleRate;
+    }
+
+    /**
+     * Summary line for a successful delivery, subject to the category's sample rate.
+     */
+    public void sent(String category, Object customerId, String token, String reference, int attempt) {
+        if (!log.isInfoEnabled() || !sampled(category)) {
+            return;
+        }
+        log.info("[DELIVERY] cat={} outcome=SENT customerId={} token={} ref={} attempt={}",
+                category, customerId, maskToken(token), reference, attempt);
+    }
+
+    /**
+     * Summary line for a failed delivery. Never sampled.
+     */
+    public void failed(String category, Object customerId, String token, String reason, int attempt) {
+        log.warn("[DELIVERY] cat={} outcome=FAILED customerId={} token={} reason={} attempt={}",
+                category, customerId, maskToken(token), reason, attempt);
+    }
+
+    private boolean sampled(String category) {
+        double rate = sampleRates.computeIfAbsent(category,
+                c -> environment.getProperty("delivery.log.sample." + c, Double.class, defaultSampleRate));
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Copy of a push data map with cryptographic material masked. Only call
+     * this behind a log.isDebugEnabled() check.
+     */
+    public static Map<String, String> maskPayload(Map<String, String> dataMap) {
+        if (dataMap == null) {
+            return null;
+        }
+        Map<String, String> masked = new HashMap<>(dataMap);
+        for (String field : SENSITIVE_FIELDS) {
+            if (masked.containsKey(field)) {
+                masked.put(field, "[MASKED]");
+            }
+        }
+        return masked;
+    }
+
+    /**
+     * First and last six characters of a push token, e.g. "dX3k9a…8Jq2Lw".
+     */
+    public static String maskToken(String token) {
+        if (token == null) {
+            return "-";
+        }
+        return token.length() > 12
+                ? token.substring(0, 6) + "…" + token.substring(token.length() - 6)
+                : "***";
+    }
+}
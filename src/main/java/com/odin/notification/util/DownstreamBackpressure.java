@@ -0,0 +1,219 @@
+package com.odin.notification.util;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.constants.ApplicationConstants;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ties Kafka consumption of the push listeners to what FCM/APNs can absorb.
+ *
+ * Two downstream signals are counted:
+ *   - in-flight sends: provider calls that have started and not completed,
+ *     synchronous or async (FcmUtil);
+ *   - retry depth: sends waiting out a retry backoff (the push and status
+ *     services).
+ * When either reaches its high watermark the push listeners are paused
+ * through {@link ListenerPauseController} (reason "downstream"); they resume
+ * once both are back at or below the low watermark. Both checks run inline
+ * on the threshold crossing, so there is no polling delay. A transition
+ * re-reads both counters after flipping the state, so a counter that crosses
+ * the other watermark mid-transition is never missed.
+ *
+ * The in-flight watermarks default to the push bulkheads' lane count (high)
+ * and half of it (low), set by {@link ConsumerBulkheads}: every push lane
+ * blocked on a provider call means the provider, not this service, is the
+ * bottleneck. backpressure.inflight.high / .low override them.
+ *
+ * A paused container keeps calling poll(), so pausing never risks
+ * max.poll.interval.ms. The remaining risk is a listener thread blocked
+ * handing a record to a full bulkhead lane; that wait is capped at
+ * {@link #getListenerMaxBlockMs()} (at most a third of max.poll.interval.ms)
+ * and the record is then queued over the lane's capacity (see
+ * ConsumerBulkhead).
+ */
+@Slf4j
+@Component
+public class DownstreamBackpressure {
+
+    private static final String PAUSE_REASON = "downstream";
+
+    /** Listeners whose records end in an FCM/APNs push; OTP (SMS) and account deletion are not throttled here. */
+    private static final List<String> PUSH_LISTENER_IDS = List.of(
+            ApplicationConstants.LISTENER_ID_NOTIFICATION_EVENTS,
+            ApplicationConstants.LISTENER_ID_UNDELIVERED,
+            ApplicationConstants.LISTENER_ID_STATUS_UPDATE,
+            ApplicationConstants.LISTENER_ID_PROFILE_PHOTO_UPDATE,
+            ApplicationConstants.LISTENER_ID_PRIVACY_VISIBILITY);
+
+    private final ListenerPauseController pauseController;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger retrying = new AtomicInteger();
+    private final AtomicLong pauseCount = new AtomicLong();
+    private volatile boolean paused;
+
+    @Value("${backpressure.enabled:true}")
+    private boolean enabled;
+
+    @Value("${backpressure.inflight.high:0}")
+    private volatile int inFlightHigh;
+
+    @Value("${backpressure.inflight.low:0}")
+    private volatile int inFlightLow;
+
+    @Value("${backpressure.retry.high:8}")
+    private int retryHigh;
+
+    @Value("${backpressure.retry.low:2}")
+    private int retryLow;
+
+    @Value("${backpressure.listener.max-block.ms:60000}")
+    private long listenerMaxBlockMs;
+
+    @Value("${kafka.consumer.max-poll-interval.ms:300000}")
+    private long maxPollIntervalMs;
+
+    public DownstreamBackpressure(ListenerPauseController pauseController) {
+        this.pauseController = pauseController;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (listenerMaxBlockMs > maxPollIntervalMs / 3) {
+            log.warn("[BACKPRESSURE] backpressure.listener.max-block.ms={} too close to max.poll.interval.ms={}, using {}",
+                    listenerMaxBlockMs, maxPollIntervalMs, maxPollIntervalMs / 3);
+            listenerMaxBlockMs = maxPollIntervalMs / 3;
+        }
+        log.info("[BACKPRESSURE] {} — retry high/low={}/{}, listener max block={}ms",
+                enabled ? "enabled" : "disabled", retryHigh, retryLow, listenerMaxBlockMs);
+    }
+
+    /** True for listeners this class pauses. */
+    static boolean throttles(String listenerId) {
+        return PUSH_LISTENER_IDS.contains(listenerId);
+    }
+
+    /**
+     * Derive the in-flight watermarks that were not configured from the
+     * number of bulkhead lanes feeding the push listeners.
+     */
+    synchronized void sizeInFlightFor(int pushLanes) {
+        if (inFlightHigh <= 0) {
+            inFlightHigh = Math.max(1, pushLanes);
+        }
+        if (inFlightLow <= 0 || inFlightLow >= inFlightHigh) {
+            inFlightLow = inFlightHigh / 2;
+        }
+        log.info("[BACKPRESSURE] inflight high/low={}/{} for {} push lanes", inFlightHigh, inFlightLow, pushLanes);
+    }
+
+    public void sendStarted() {
+        if (inFlight.incrementAndGet() >= inFlightHigh && !paused) {
+            evaluate();
+        }
+    }
+
+    public void sendFinished() {
+        if (inFlight.decrementAndGet() <= inFlightLow && paused) {
+            evaluate();
+        }
+    }
+
+    /**
+     * Count {@code send} as in flight until it completes (successfully,
+     * exceptionally or by cancellation).
+     */
+    public <T> CompletableFuture<T> track(CompletableFuture<T> send) {
+        sendStarted();
+        send.whenComplete((result, t) -> sendFinished());
+        return send;
+    }
+
+    public void retryStarted() {
+        if (retrying.incrementAndGet() >= retryHigh && !paused) {
+            evaluate();
+        }
+    }
+
+    public void retryFinished() {
+        if (retrying.decrementAndGet() <= retryLow && paused) {
+            evaluate();
+        }
+    }
+
+    /**
+     * Callers check {@code paused} without the lock, so a counter can cross
+     * the opposite watermark while a transition is in progress and its
+     * caller skip evaluation. {@code paused} is written before the counters
+     * are read again, so either that caller sees the new state and evaluates,
+     * or this loop sees its counter and transitions back.
+     */
+    synchronized void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        while (true) {
+            int sends = inFlight.get();
+            int retries = retrying.get();
+            if (!paused && (sends >= inFlightHigh || retries >= retryHigh)) {
+                paused = true;
+                pauseCount.incrementAndGet();
+                log.warn("[BACKPRESSURE] Downstream saturated (inflight={}, retrying={}), pausing push listeners",
+                        sends, retries);
+                for (String listenerId : PUSH_LISTENER_IDS) {
+                    pauseController.pause(listenerId, PAUSE_REASON);
+                }
+            } else if (paused && sends <= inFlightLow && retries <= retryLow) {
+                paused = false;
+                log.info("[BACKPRESSURE] Downstream recovered (inflight={}, retrying={}), resuming push listeners",
+                        sends, retries);
+                for (String listenerId : PUSH_LISTENER_IDS) {
+                    pauseController.resume(listenerId, PAUSE_REASON);
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Longest a listener thread may wait for a bulkhead slot before the
+     * record is queued over the lane's capacity.
+     */
+    public long getListenerMaxBlockMs() {
+        return listenerMaxBlockMs;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getInFlightHigh() {
+        return inFlightHigh;
+    }
+
+    public int getInFlightLow() {
+        return inFlightLow;
+    }
+
+    public int getRetrying() {
+        return retrying.get();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public long getPauseCount() {
+        return pauseCount.get();
+    }
+}
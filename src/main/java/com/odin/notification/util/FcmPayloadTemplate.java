@@ -0,0 +1,135 @@
+package com.odin.notification.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.firebase.messaging.AndroidConfig;
+import com.google.firebase.messaging.ApnsConfig;
+import com.google.firebase.messaging.Aps;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MulticastMessage;
+import com.odin.notification.constants.ApplicationConstants;
+
+/**
+ * Immutable, pre-built part of a data-only FCM push.
+ *
+ * The constant data keys of a notification type ("type", "sound", "badge")
+ * and its platform configs never change between sends, so they are built
+ * once here and shared. A send only supplies the per-recipient fields:
+ *
+ *   template.toMessage(token, Map.of("deletedCustomerId", id))
+ *
+ * The constant keys are written after the variables, so a variable can never
+ * change a template's type, sound or badge.
+ *
+ * AndroidConfig and ApnsConfig are themselves immutable SDK objects and are
+ * safe to attach to any number of messages concurrently.
+ */
+public final class FcmPayloadTemplate {
+
+    // ── Shared platform configs ──────────────────────────────────────────────
+
+    /** HIGH priority so Android wakes the app for data-only pushes. */
+    public static final AndroidConfig ANDROID_HIGH_PRIORITY = AndroidConfig.builder()
+            .setPriority(AndroidConfig.Priority.HIGH)
+            .build();
+
+    /** Silent background wake-up (status, profile, privacy, account signals). */
+    public static final ApnsConfig APNS_SILENT_BACKGROUND = ApnsConfig.builder()
+            .putHeader("apns-push-type", "background")
+            .putHeader("apns-priority", "5")
+            .setAps(Aps.builder().setContentAvailable(true).build())
+            .build();
+
+    /** High-priority background wake-up for chat messages (no aps.alert, see FcmUtil). */
+    public static final ApnsConfig APNS_ALERT_BACKGROUND = ApnsConfig.builder()
+            .putHeader("apns-push-type", "background")
+            .putHeader("apns-priority", "10")
+            .setAps(Aps.builder().setContentAvailable(true).build())
+            .build();
+
+    // ── Templates per notification type ──────────────────────────────────────
+
+    public static final FcmPayloadTemplate STATUS_UPDATE =
+            silent(ApplicationConstants.FCM_NOTIFICATION_TYPE_STATUS, "1");
+
+    public static final FcmPayloadTemplate STATUS_DELETE =
+            silent(ApplicationConstants.FCM_NOTIFICATION_TYPE_STATUS_DELETE, "1");
+
+    public static final FcmPayloadTemplate PROFILE_PHOTO_UPDATE =
+            silent(ApplicationConstants.FCM_NOTIFICATION_TYPE_PROFILE_PHOTO_UPDATE, "0");
+
+    public static final FcmPayloadTemplate PRIVACY_CHANGE =
+            silent(ApplicationConstants.FCM_NOTIFICATION_TYPE_PRIVACY_CHANGE, "0");
+
+    public static final FcmPayloadTemplate ACCOUNT_DELETED =
+            silent(ApplicationConstants.FCM_NOTIFICATION_TYPE_ACCOUNT_DELETED, "0");
+
+    private final String type;
+    private final Map<String, String> baseData;
+    private final AndroidConfig androidConfig;
+    private final ApnsConfig apnsConfig;
+    private final boolean silent;
+
+    private FcmPayloadTemplate(String type, Map<String, String> baseData,
+                               AndroidConfig androidConfig, ApnsConfig apnsConfig, boolean silent) {
+        this.type = type;
+        this.baseData = baseData;
+        this.androidConfig = androidConfig;
+        this.apnsConfig = apnsConfig;
+        this.silent = silent;
+    }
+
+    private static FcmPayloadTemplate silent(String type, String badge) {
+        Map<String, String> base = new LinkedHashMap<>();
+        base.put("type", type);
+        base.put("sound", ApplicationConstants.FCM_NOTIFICATION_SOUND_NONE);
+        base.put("badge", badge);
+        return new FcmPayloadTemplate(type, Map.copyOf(base), ANDROID_HIGH_PRIORITY, APNS_SILENT_BACKGROUND, true);
+    }
+
+    /**
+     * Build the message for one recipient. The constant fields are written
+     * after the variable ones, so a template key overrides a variable key.
+     */
+    public Message toMessage(String token, Map<String, String> variables) {
+        Message.Builder builder = Message.builder()
+                .setToken(token)
+                .setAndroidConfig(androidConfig)
+                .setApnsConfig(apnsConfig);
+        if (variables != null && !variables.isEmpty()) {
+            builder.putAllData(variables);
+        }
+        return builder.putAllData(baseData).build();
+    }
+
+    /**
+     * Build one multicast message for recipients that share the same
+     * variable fields (at most 500 tokens, the FCM multicast limit).
+     */
+    public MulticastMessage toMulticastMessage(List<String> tokens, Map<String, String> variables) {
+        MulticastMessage.Builder builder = MulticastMessage.builder()
+                .addAllTokens(tokens)
+                .setAndroidConfig(androidConfig)
+                .setApnsConfig(apnsConfig);
+        if (variables != null && !variables.isEmpty()) {
+            builder.putAllData(variables);
+        }
+        return builder.putAllData(baseData).build();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /** True if the template uses {@link #APNS_SILENT_BACKGROUND} (APNs priority 5). */
+    public boolean isSilent() {
+        return silent;
+    }
+
+    /** Frozen constant data keys of this template. */
+    public Map<String, String> getBaseData() {
+        return baseData;
+    }
+}
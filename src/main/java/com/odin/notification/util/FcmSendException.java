@@ -0,0 +1,28 @@
+package com.odin.notification.util;
+
+import com.google.firebase.messaging.MessagingErrorCode;
+
+/**
+ * Failure of a single data-only FCM send, independent of the
+ * {@link FcmTransport} that attempted it.
+ *
+ * {@link #getMessagingErrorCode()} carries the FCM v1 error code (e.g.
+ * UNREGISTERED, QUOTA_EXCEEDED) when FCM reported one, so retry decisions do
+ * not depend on which transport is configured; it is null for transport
+ * failures such as timeouts.
+ */
+public class FcmSendException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient MessagingErrorCode messagingErrorCode;
+
+    public FcmSendException(MessagingErrorCode messagingErrorCode, String message, Throwable cause) {
+        super(message, cause);
+        this.messagingErrorCode = messagingErrorCode;
+    }
+
+    public MessagingErrorCode getMessagingErrorCode() {
+        return messagingErrorCode;
+    }
+}
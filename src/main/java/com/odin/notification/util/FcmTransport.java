@@ -0,0 +1,49 @@
+package com.odin.notification.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Wire transport for data-only FCM pushes, selected by fcm.transport:
+ *
+ *   sdk   — Firebase Admin SDK (default), {@link SdkFcmTransport}
+ *   http2 — FCM v1 REST API over one multiplexed HTTP/2 connection,
+ *           {@link Http2FcmTransport}
+ *
+ * Every data-only push in this service has the same shape: HIGH Android
+ * priority and an APNs background push, at priority 5 when silent and 10
+ * otherwise (see {@link FcmPayloadTemplate}). Callers pass already-sanitized
+ * data; transports only serialize and send it.
+ */
+public interface FcmTransport {
+
+    /** Short name for logs and metrics ("sdk", "http2"). */
+    String name();
+
+    /**
+     * @return the FCM message name ("projects/{id}/messages/{n}")
+     */
+    String send(String token, Map<String, String> data, boolean silent) throws FcmSendException;
+
+    /**
+     * Same push built from a prebuilt template; {@code variables} override
+     * template keys.
+     */
+    String send(String token, FcmPayloadTemplate template, Map<String, String> variables) throws FcmSendException;
+
+    /**
+     * Non-blocking {@link #send(String, Map, boolean)}. Completes exceptionally
+     * with {@link FcmSendException}; cancelling it aborts the request if it
+     * has not been sent yet.
+     */
+    CompletableFuture<String> sendAsync(String token, Map<String, String> data, boolean silent);
+
+    /**
+     * Startup warm-up: build the payload for {@code sampleData}
+     * {@code iterations} times so the builders are JIT-compiled, then make one
+     * validate-only request with {@code sampleToken}. That request mints the
+     * OAuth token and opens the connection; FCM rejecting the synthetic token
+     * is expected and only logged.
+     */
+    void warmUp(String sampleToken, Map<String, String> sampleData, int iterations);
+}
@@ -0,0 +1,171 @@
+package com.odin.notification.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.dto.NotificationDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops notifications that are no longer worth delivering, before any DB or
+ * FCM work is spent on them. Matters most when a backlog is being replayed
+ * after an outage.
+ *
+ * Expiry: each notification type may have a freshness budget,
+ * freshness.ttl.seconds.{TYPE} (CALL_INVITE defaults to 60s, the same window
+ * as the CALL_INVITE de-duplication key; other types never expire unless
+ * configured). The age is measured from map.timestamp when the producer set
+ * one (epoch millis or seconds), otherwise from the Kafka record timestamp.
+ *
+ * Supersession: {@link #claim(String)} is called on the listener thread in
+ * partition order and returns a sequence number; when the work later runs,
+ * {@link #isSuperseded(String, long, String)} reports whether a newer record with the
+ * same key has been received since, in which case the older one is dropped.
+ *
+ * Every drop is counted per reason ({@link #getDropCounts()}).
+ */
+@Slf4j
+@Component
+public class FreshnessPolicy {
+
+    public static final String CALL_INVITE_TYPE = "CALL_INVITE";
+    private static final long CALL_INVITE_DEFAULT_TTL_SECONDS = 60;
+
+    private final Environment environment;
+    private final Map<String, Long> ttlMsByType = new ConcurrentHashMap<>();
+    private final Map<String, Long> latestByKey = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, AtomicLong> dropCounts = new ConcurrentHashMap<>();
+
+    public FreshnessPolicy(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * True if the notification is older than its type's budget. Counts the drop.
+     */
+    public boolean isExpired(NotificationDTO notificationDTO, long recordTimestamp) {
+        String type = resolveType(notificationDTO);
+        Deadline deadline = deadlineFor(type, notificationDTO, recordTimestamp);
+        if (!deadline.isExpired()) {
+            return false;
+        }
+        countDrop("expired:" + type);
+        log.info("[FRESHNESS] Dropping expired {} for customerId={} — ttl={}ms",
+                type, notificationDTO.getCustomerId(), ttlMsByType.get(type));
+        return true;
+    }
+
+    /**
+     * End-to-end deadline for the notification: event time + its type's
+     * budget, or {@link Deadline#none()} if the type has no budget.
+     */
+    public Deadline deadlineFor(NotificationDTO notificationDTO, long recordTimestamp) {
+        return deadlineFor(resolveType(notificationDTO), notificationDTO, recordTimestamp);
+    }
+
+    /**
+     * Record that work was abandoned mid-flight because its deadline passed.
+     */
+    public void recordDeadlineExceeded(String stage) {
+        countDrop("deadline:" + stage);
+    }
+
+    private Deadline deadlineFor(String type, NotificationDTO notificationDTO, long recordTimestamp) {
+        if (type == null) {
+            return Deadline.none();
+        }
+        long ttlMs = ttlMsByType.computeIfAbsent(type, this::loadTtlMs);
+        long eventTime = eventTime(notificationDTO, recordTimestamp);
+        if (ttlMs < 0 || eventTime <= 0) {
+            return Deadline.none();
+        }
+        return Deadline.after(eventTime, ttlMs);
+    }
+
+    /**
+     * Register a record for {@code key} on the listener thread, in partition order.
+     *
+     * @return the sequence to pass to {@link #isSuperseded(String, long, String)} and {@link #release(String, long)}
+     */
+    public long claim(String key) {
+        long seq = sequence.incrementAndGet();
+        if (key != null) {
+            latestByKey.put(key, seq);
+        }
+        return seq;
+    }
+
+    /**
+     * True if a newer record for {@code key} was claimed after {@code seq}. Counts the drop.
+     */
+    public boolean isSuperseded(String key, long seq, String reason) {
+        if (key == null) {
+            return false;
+        }
+        Long latest = latestByKey.get(key);
+        if (latest == null || latest <= seq) {
+            return false;
+        }
+        countDrop("superseded:" + reason);
+        log.debug("[FRESHNESS] Dropping superseded {} for key={}", reason, key);
+        return true;
+    }
+
+    /**
+     * Forget {@code key} once its newest record is done, keeping the map as
+     * small as the set of in-flight keys.
+     */
+    public void release(String key, long seq) {
+        if (key != null) {
+            latestByKey.remove(key, seq);
+        }
+    }
+
+    /** Snapshot of reason → number of notifications dropped. */
+    public Map<String, Long> getDropCounts() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        dropCounts.forEach((reason, count) -> snapshot.put(reason, count.get()));
+        return snapshot;
+    }
+
+    private void countDrop(String reason) {
+        dropCounts.computeIfAbsent(reason, r -> new AtomicLong()).incrementAndGet();
+    }
+
+    private long loadTtlMs(String type) {
+        long defaultSeconds = CALL_INVITE_TYPE.equals(type) ? CALL_INVITE_DEFAULT_TTL_SECONDS : -1;
+        long seconds = environment.getProperty("freshness.ttl.seconds." + type, Long.class, defaultSeconds);
+        return seconds < 0 ? -1 : seconds * 1000L;
+    }
+
+    /** "signal" wins over "type", as in PushNotificationServiceImpl. */
+    private static String resolveType(NotificationDTO notificationDTO) {
+        Map<String, Object> map = notificationDTO.getMap();
+        if (map == null) {
+            return null;
+        }
+        Object value = map.get("signal") != null ? map.get("signal") : map.get("type");
+        return value != null ? String.valueOf(value).toUpperCase() : null;
+    }
+
+    private static long eventTime(NotificationDTO notificationDTO, long recordTimestamp) {
+        Object value = notificationDTO.getMap() != null ? notificationDTO.getMap().get("timestamp") : null;
+        if (value != null) {
+            try {
+                long ts = value instanceof Number ? ((Number) value).longValue() : Long.parseLong(String.valueOf(value));
+                // Epoch seconds until 2286 are < 1e10; anything that small is not millis
+                return ts < 10_000_000_000L ? ts * 1000L : ts;
+            } catch (NumberFormatException e) {
+                // ISO strings etc. — fall back to the record timestamp
+            }
+        }
+        return recordTimestamp;
+    }
+}
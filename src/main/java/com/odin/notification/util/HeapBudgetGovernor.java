@@ -0,0 +1,312 @@
+package com.odin.notification.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.odin.notification.dto.NotificationDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Memory accounting against budgets expressed as a percentage of max heap, so
+ * queues, caches and async windows scale with the container (-Xmx) instead of
+ * with fixed counts.
+ *
+ * Budgets:
+ *   - inflight: estimated bytes of payloads accepted from Kafka and not yet
+ *     finished (queued on or running in a bulkhead lane), reserved and
+ *     released by {@link ConsumerBulkhead};
+ *   - live-heap: heap still in use after the last GC — the real OOM signal,
+ *     covering everything not tracked explicitly. Once consumption is
+ *     paused allocation may stop and no further old-gen GC runs, leaving
+ *     the after-GC figure stale forever; while this budget stays exceeded a
+ *     GC is therefore requested at most every
+ *     heap.budget.live-heap.recheck.ms so the figure refreshes;
+ *   - caches, which bound themselves: they {@link #track} their estimated
+ *     size for reporting and size their entry limit from the returned byte
+ *     limit (a full cache evicts, it never pauses consumption).
+ *
+ * When the inflight or live-heap budget is reached every listener container
+ * is paused through {@link ListenerPauseController} (reason
+ * "heap-budget:{name}"); it resumes once usage is back below
+ * heap.budget.resume.ratio of the limit. Work already fetched keeps
+ * draining, which is what brings usage down.
+ */
+@Slf4j
+@Component
+public class HeapBudgetGovernor {
+
+    public static final String INFLIGHT = "inflight";
+    public static final String LIVE_HEAP = "live-heap";
+
+    private static final String PAUSE_REASON_PREFIX = "heap-budget:";
+
+    // Object headers, the DTO fields and map nodes around the payload strings
+    private static final long DTO_OVERHEAD_BYTES = 256;
+    private static final long MAP_ENTRY_OVERHEAD_BYTES = 64;
+
+    private final ListenerPauseController pauseController;
+    private final long maxHeapBytes = Runtime.getRuntime().maxMemory();
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private ScheduledExecutorService checker;
+    private long lastGcRequestAt;
+
+    // Replaced in tests
+    Supplier<List<MemoryPoolMXBean>> memoryPools = ManagementFactory::getMemoryPoolMXBeans;
+    Runnable gcRequest = System::gc;
+
+    @Value("${heap.budget.enabled:true}")
+    private boolean enabled;
+
+    @Value("${heap.budget.inflight.percent:20}")
+    private double inFlightPercent;
+
+    @Value("${heap.budget.live-heap.percent:80}")
+    private double liveHeapPercent;
+
+    @Value("${heap.budget.resume.ratio:0.7}")
+    private double resumeRatio;
+
+    @Value("${heap.budget.check.interval.ms:1000}")
+    private long checkIntervalMs;
+
+    @Value("${heap.budget.live-heap.recheck.ms:30000}")
+    private long liveHeapRecheckMs;
+
+    public HeapBudgetGovernor(ListenerPauseController pauseController) {
+        this.pauseController = pauseController;
+    }
+
+    @PostConstruct
+    public void start() {
+        register(INFLIGHT, inFlightPercent, inFlightBytes::get);
+        register(LIVE_HEAP, liveHeapPercent, this::liveHeapBytes);
+        if (!enabled) {
+            log.info("[HEAP-BUDGET] Governor disabled, usage is tracked but never pauses listeners");
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "heap-budget-governor");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleWithFixedDelay(this::evaluate, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("[HEAP-BUDGET] maxHeap={}MB, inflight={}% ({}MB), live-heap={}%, resume at {}% of a budget",
+                maxHeapBytes >> 20, inFlightPercent, limitFor(inFlightPercent) >> 20, liveHeapPercent,
+                Math.round(resumeRatio * 100));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+    }
+
+    /**
+     * Govern {@code usage} against {@code percentOfHeap} of max heap:
+     * consumption is paused while it is over budget.
+     *
+     * @return the budget in bytes
+     */
+    public long register(String name, double percentOfHeap, LongSupplier usage) {
+        return add(new Budget(name, limitFor(percentOfHeap), usage, true));
+    }
+
+    /**
+     * Report {@code usage} against {@code percentOfHeap} of max heap without
+     * ever pausing, for structures that bound themselves.
+     *
+     * @return the budget in bytes, for callers that size themselves from it
+     */
+    public long track(String name, double percentOfHeap, LongSupplier usage) {
+        return add(new Budget(name, limitFor(percentOfHeap), usage, false));
+    }
+
+    private long add(Budget budget) {
+        budgets.put(budget.name, budget);
+        return budget.limitBytes;
+    }
+
+    /**
+     * Account for a payload accepted for asynchronous processing. Pauses
+     * consumption right away if this crosses the in-flight budget, rather
+     * than waiting for the next periodic check.
+     */
+    public void reserveInFlight(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        long used = inFlightBytes.addAndGet(bytes);
+        Budget budget = budgets.get(INFLIGHT);
+        if (budget != null && used >= budget.limitBytes && !budget.exceeded) {
+            evaluate();
+        }
+    }
+
+    public void releaseInFlight(long bytes) {
+        if (bytes > 0) {
+            inFlightBytes.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * Rough retained size of a notification while it waits in a lane: the
+     * strings in {@code map} (UTF-16, so 2 bytes per char) dominate, in
+     * particular E2EE ciphertext.
+     */
+    public static long estimateBytes(NotificationDTO dto) {
+        if (dto == null) {
+            return 0;
+        }
+        long bytes = DTO_OVERHEAD_BYTES;
+        if (dto.getMap() != null) {
+            for (Map.Entry<String, Object> e : dto.getMap().entrySet()) {
+                bytes += MAP_ENTRY_OVERHEAD_BYTES + 2L * String.valueOf(e.getKey()).length()
+                        + 2L * String.valueOf(e.getValue()).length();
+            }
+        }
+        return bytes;
+    }
+
+    synchronized void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        refreshStaleLiveHeap();
+        for (Budget budget : budgets.values()) {
+            if (!budget.governs) {
+                continue;
+            }
+            long used = budget.usage();
+            if (!budget.exceeded && used >= budget.limitBytes) {
+                budget.exceeded = true;
+                log.warn("[HEAP-BUDGET] {} at {}MB of {}MB budget, pausing consumption",
+                        budget.name, used >> 20, budget.limitBytes >> 20);
+                pauseController.pauseAll(PAUSE_REASON_PREFIX + budget.name);
+            } else if (budget.exceeded && used <= budget.limitBytes * resumeRatio) {
+                budget.exceeded = false;
+                log.info("[HEAP-BUDGET] {} back to {}MB of {}MB budget, resuming consumption",
+                        budget.name, used >> 20, budget.limitBytes >> 20);
+                pauseController.resumeAll(PAUSE_REASON_PREFIX + budget.name);
+                if (LIVE_HEAP.equals(budget.name)) {
+                    lastGcRequestAt = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Request a GC if the live-heap budget has held consumption paused for a
+     * whole recheck interval, so the after-GC figure reflects what is still
+     * live rather than what was live when allocation stopped.
+     */
+    private void refreshStaleLiveHeap() {
+        Budget liveHeap = budgets.get(LIVE_HEAP);
+        long now = System.currentTimeMillis();
+        if (liveHeap == null || !liveHeap.exceeded || now - lastGcRequestAt < liveHeapRecheckMs) {
+            return;
+        }
+        if (lastGcRequestAt == 0) {
+            // First interval of this pause: wait for a GC to happen on its own
+            lastGcRequestAt = now;
+            return;
+        }
+        lastGcRequestAt = now;
+        log.info("[HEAP-BUDGET] live-heap still over budget after {}ms, requesting GC to refresh after-GC usage",
+                liveHeapRecheckMs);
+        gcRequest.run();
+    }
+
+    public boolean isExceeded(String name) {
+        Budget budget = budgets.get(name);
+        return budget != null && budget.exceeded;
+    }
+
+    /** Current usage per budget, for the heap budget endpoint. */
+    public Map<String, Object> getUsage() {
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("maxHeapBytes", maxHeapBytes);
+        usage.put("usedHeapBytes", Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        Map<String, Object> perBudget = new LinkedHashMap<>();
+        for (Budget budget : budgets.values()) {
+            long used = budget.usage();
+            Map<String, Object> b = new LinkedHashMap<>();
+            b.put("usedBytes", used);
+            b.put("limitBytes", budget.limitBytes);
+            b.put("percentOfBudget", budget.limitBytes > 0 ? Math.round(used * 100.0 / budget.limitBytes) : 0);
+            b.put("pausesConsumption", budget.governs);
+            b.put("exceeded", budget.exceeded);
+            perBudget.put(budget.name, b);
+        }
+        usage.put("budgets", perBudget);
+        usage.put("pausedListeners", pauseController.getPauseReasons());
+        return usage;
+    }
+
+    private long limitFor(double percentOfHeap) {
+        return (long) (maxHeapBytes * percentOfHeap / 100.0);
+    }
+
+    /**
+     * Heap occupied right after the most recent collection of each heap pool
+     * (garbage waiting for the next GC does not count), capped by the pool's
+     * current usage since nothing can be live that is no longer allocated.
+     * Falls back to current usage for pools that do not report collection
+     * usage.
+     */
+    long liveHeapBytes() {
+        long live = 0;
+        for (MemoryPoolMXBean pool : memoryPools.get()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isValid()) {
+                continue;
+            }
+            long current = pool.getUsage().getUsed();
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            live += afterGc != null ? Math.min(afterGc.getUsed(), current) : current;
+        }
+        return live;
+    }
+
+    private static final class Budget {
+        private final String name;
+        private final long limitBytes;
+        private final LongSupplier usage;
+        private final boolean governs;
+        private volatile boolean exceeded;
+
+        private Budget(String name, long limitBytes, LongSupplier usage, boolean governs) {
+            this.name = name;
+            this.limitBytes = limitBytes;
+            this.usage = usage;
+            this.governs = governs;
+        }
+
+        private long usage() {
+            try {
+                return usage.getAsLong();
+            } catch (RuntimeException e) {
+                return 0;
+            }
+        }
+    }
+}
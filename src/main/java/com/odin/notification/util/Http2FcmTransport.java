@@ -0,0 +1,397 @@
+package com.odin.notification.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.messaging.MessagingErrorCode;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link FcmTransport} that calls the FCM v1 REST API directly
+ * (fcm.transport=http2):
+ *
+ *   POST {fcm.http2.base-url}/v1/projects/{fcm.project-id}/messages:send
+ *
+ * fcm.http2.base-url defaults to https://fcm.googleapis.com; the native smoke
+ * test points it at a local stub.
+ *
+ * All sends share one java.net.http client negotiated to HTTP/2, so
+ * concurrent pushes are multiplexed as streams over a single TLS connection
+ * instead of each holding a pooled HTTP/1.1 socket.
+ *
+ * The OAuth access token comes from the service-account credentials loaded
+ * in FcmConfig. A background thread refreshes it once it is within
+ * fcm.http2.token.refresh-margin.seconds of expiry, so sends only read an
+ * AtomicReference; a send refreshes inline only if that thread has been
+ * failing until the token is actually about to expire. A 401 schedules a
+ * refresh on that thread, unless the rejected token has already been
+ * replaced. Refreshes are single-flight: concurrent callers wait for the
+ * one in progress rather than each fetching a token.
+ *
+ * Request bodies are written by hand ({@link #writeMessage}) — the payload
+ * is a fixed shape of string fields, so no object mapping is needed on the
+ * send path. Responses are small and parsed with Jackson.
+ */
+@Slf4j
+public class Http2FcmTransport implements FcmTransport {
+
+    static final String FCM_SCOPE = "https://www.googleapis.com/auth/firebase.messaging";
+
+    /** A token this close to expiry is refreshed inline rather than used. */
+    private static final long MIN_TOKEN_VALIDITY_MS = 60_000;
+
+    private final GoogleCredentials credentials;
+    private final URI sendUri;
+    private final Duration requestTimeout;
+    private final long refreshMarginMs;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReference<AccessToken> currentToken = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<AccessToken>> pendingRefresh = new AtomicReference<>();
+    private ScheduledExecutorService refresher;
+
+    public Http2FcmTransport(GoogleCredentials credentials, String baseUrl, String projectId,
+                             long connectTimeoutMs, long requestTimeoutMs, long refreshMarginSeconds) {
+        this.credentials = credentials.createScoped(List.of(FCM_SCOPE));
+        this.sendUri = URI.create(baseUrl + "/v1/projects/" + projectId + "/messages:send");
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.refreshMarginMs = refreshMarginSeconds * 1000L;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        refreshSafely();
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fcm-oauth-refresher");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshIfExpiring, 30, 30, TimeUnit.SECONDS);
+        log.info("[FCM-HTTP2] Transport started — endpoint={}, refreshMargin={}s", sendUri, refreshMarginMs / 1000);
+    }
+
+    @Override
+    public String name() {
+        return "http2";
+    }
+
+    @Override
+    public String send(String token, Map<String, String> data, boolean silent) throws FcmSendException {
+        return execute(writeMessage(token, null, data, silent));
+    }
+
+    @Override
+    public String send(String token, FcmPayloadTemplate template, Map<String, String> variables)
+            throws FcmSendException {
+        return execute(writeMessage(token, template.getBaseData(), variables, template.isSilent()));
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(String token, Map<String, String> data, boolean silent) {
+        String bearer;
+        try {
+            bearer = accessToken();
+        } catch (FcmSendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<HttpResponse<String>> inFlight = httpClient.sendAsync(
+                buildRequest(writeMessage(token, null, data, silent), bearer), HttpResponse.BodyHandlers.ofString());
+        // Every failure completes the result with an FcmSendException, as SdkFcmTransport does
+        CompletableFuture<String> result = new CompletableFuture<>();
+        inFlight.whenComplete((response, t) -> {
+            if (t != null) {
+                result.completeExceptionally(asSendException(t));
+                return;
+            }
+            try {
+                result.complete(handleResponse(response, bearer));
+            } catch (FcmSendException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((messageId, t) -> {
+            if (result.isCancelled()) {
+                inFlight.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void warmUp(String sampleToken, Map<String, String> sampleData, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            writeMessage(sampleToken, null, sampleData, (i & 1) == 0);
+        }
+        try {
+            execute(writeMessage(sampleToken, null, sampleData, false, true));
+        } catch (FcmSendException e) {
+            log.debug("[WARMUP] FCM validate_only rejected the synthetic token as expected: {}",
+                    e.getMessagingErrorCode());
+        }
+    }
+
+    private String execute(String body) throws FcmSendException {
+        String bearer = accessToken();
+        try {
+            return handleResponse(httpClient.send(buildRequest(body, bearer), HttpResponse.BodyHandlers.ofString()),
+                    bearer);
+        } catch (IOException e) {
+            throw new FcmSendException(null, "FCM request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FcmSendException(null, "FCM request interrupted", e);
+        }
+    }
+
+    private static FcmSendException asSendException(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof FcmSendException) {
+            return (FcmSendException) cause;
+        }
+        return new FcmSendException(null, "FCM request failed: " + cause.getMessage(), cause);
+    }
+
+    private HttpRequest buildRequest(String body, String bearer) {
+        return HttpRequest.newBuilder(sendUri)
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + bearer)
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /**
+     * @return the message name on 200, otherwise throws with the FCM error code
+     */
+    private String handleResponse(HttpResponse<String> response, String bearer) throws FcmSendException {
+        int status = response.statusCode();
+        JsonNode json = null;
+        try {
+            json = objectMapper.readTree(response.body());
+        } catch (IOException | RuntimeException e) {
+            // Non-JSON body (e.g. a proxy error page) — classified by status alone
+        }
+        if (status == 200 && json != null && json.hasNonNull("name")) {
+            return json.get("name").asText();
+        }
+        if (status == 401) {
+            // Token revoked or clock skew — replace it without blocking this thread
+            refreshRejected(bearer);
+        }
+        MessagingErrorCode errorCode = errorCode(json, status);
+        String message = json != null ? json.path("error").path("message").asText("") : "";
+        throw new FcmSendException(errorCode, "FCM HTTP " + status + ": " + message, null);
+    }
+
+    /**
+     * FcmError.errorCode from error.details when present, else derived from
+     * the HTTP status the way the SDK does.
+     */
+    private static MessagingErrorCode errorCode(JsonNode json, int status) {
+        if (json != null) {
+            for (JsonNode detail : json.path("error").path("details")) {
+                String code = detail.path("errorCode").asText(null);
+                if (code != null) {
+                    try {
+                        return MessagingErrorCode.valueOf(code);
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        switch (status) {
+            case 400: return MessagingErrorCode.INVALID_ARGUMENT;
+            case 404: return MessagingErrorCode.UNREGISTERED;
+            case 429: return MessagingErrorCode.QUOTA_EXCEEDED;
+            case 500: return MessagingErrorCode.INTERNAL;
+            case 503: return MessagingErrorCode.UNAVAILABLE;
+            default: return null;
+        }
+    }
+
+    // ── OAuth token ──────────────────────────────────────────────────────────
+
+    private String accessToken() throws FcmSendException {
+        AccessToken token = currentToken.get();
+        if (token != null && remainingMs(token) > MIN_TOKEN_VALIDITY_MS) {
+            return token.getTokenValue();
+        }
+        log.warn("[FCM-HTTP2] Access token missing or expiring, refreshing inline");
+        try {
+            return refreshOnce().get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS).getTokenValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FcmSendException(null, "FCM access token refresh interrupted", e);
+        } catch (ExecutionException e) {
+            throw new FcmSendException(null, "FCM access token refresh failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (Exception e) {
+            throw new FcmSendException(null, "FCM access token refresh failed: " + e.getMessage(), e);
+        }
+    }
+
+    /** Refresh after FCM rejected {@code bearer}, unless it was already replaced. */
+    private void refreshRejected(String bearer) {
+        Runnable task = () -> {
+            AccessToken token = currentToken.get();
+            if (token == null || token.getTokenValue().equals(bearer)) {
+                refreshSafely();
+            }
+        };
+        if (refresher != null) {
+            refresher.execute(task);
+        } else {
+            task.run();
+        }
+    }
+
+    private void refreshIfExpiring() {
+        AccessToken token = currentToken.get();
+        if (token == null || remainingMs(token) <= refreshMarginMs) {
+            refreshSafely();
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refreshOnce().join();
+        } catch (Exception e) {
+            log.error("[FCM-HTTP2] Access token refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Start a refresh, or join the one already in progress. */
+    private CompletableFuture<AccessToken> refreshOnce() {
+        CompletableFuture<AccessToken> mine = new CompletableFuture<>();
+        CompletableFuture<AccessToken> running = pendingRefresh.compareAndExchange(null, mine);
+        if (running != null) {
+            return running;
+        }
+        try {
+            AccessToken fresh = credentials.refreshAccessToken();
+            currentToken.set(fresh);
+            log.debug("[FCM-HTTP2] Access token refreshed — expires in {}s", remainingMs(fresh) / 1000);
+            mine.complete(fresh);
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+        } finally {
+            pendingRefresh.set(null);
+        }
+        return mine;
+    }
+
+    private static long remainingMs(AccessToken token) {
+        return token.getExpirationTime() == null
+                ? Long.MAX_VALUE
+                : token.getExpirationTime().getTime() - System.currentTimeMillis();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    // ── JSON ─────────────────────────────────────────────────────────────────
+
+    /**
+     * {"message":{"token":…,"data":{…},"android":{"priority":"HIGH"},
+     *  "apns":{"headers":{…},"payload":{"aps":{"content-available":1}}}}}
+     *
+     * Same platform settings as FcmPayloadTemplate.ANDROID_HIGH_PRIORITY and
+     * APNS_SILENT_BACKGROUND / APNS_ALERT_BACKGROUND. {@code data} keys that
+     * also appear in {@code base} are skipped, so the template's {@code base}
+     * wins, as in FcmPayloadTemplate.toMessage.
+     */
+    static String writeMessage(String token, Map<String, String> base, Map<String, String> data, boolean silent) {
+        return writeMessage(token, base, data, silent, false);
+    }
+
+    /** As above; {@code validateOnly} asks FCM to validate without delivering. */
+    static String writeMessage(String token, Map<String, String> base, Map<String, String> data, boolean silent,
+                               boolean validateOnly) {
+        StringBuilder sb = new StringBuilder(256 + (data != null ? data.size() * 48 : 0));
+        sb.append(validateOnly ? "{\"validate_only\":true,\"message\":{\"token\":" : "{\"message\":{\"token\":");
+        writeString(sb, token);
+        sb.append(",\"data\":{");
+        boolean first = true;
+        if (base != null) {
+            for (Map.Entry<String, String> e : base.entrySet()) {
+                first = writeEntry(sb, e.getKey(), e.getValue(), first);
+            }
+        }
+        if (data != null) {
+            for (Map.Entry<String, String> e : data.entrySet()) {
+                if (base == null || !base.containsKey(e.getKey())) {
+                    first = writeEntry(sb, e.getKey(), e.getValue(), first);
+                }
+            }
+        }
+        sb.append("},\"android\":{\"priority\":\"HIGH\"}")
+                .append(",\"apns\":{\"headers\":{\"apns-push-type\":\"background\",\"apns-priority\":\"")
+                .append(silent ? "5" : "10")
+                .append("\"},\"payload\":{\"aps\":{\"content-available\":1}}}}}");
+        return sb.toString();
+    }
+
+    private static boolean writeEntry(StringBuilder sb, String key, String value, boolean first) {
+        if (key == null || value == null) {
+            return first; // FCM data values must be strings; the SDK rejects nulls too
+        }
+        if (!first) {
+            sb.append(',');
+        }
+        writeString(sb, key);
+        sb.append(':');
+        writeString(sb, value);
+        return false;
+    }
+
+    private static void writeString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,94 @@
+package com.odin.notification.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single place that pauses and resumes Kafka listener containers.
+ *
+ * Several independent mechanisms may want a container paused at the same time
+ * (a saturated bulkhead, heap pressure, ...), so each pause is recorded with a
+ * reason and the container only resumes once every reason has been cleared.
+ *
+ * A paused container keeps polling (so the consumer stays in the group and
+ * max.poll.interval.ms is respected) but fetches no records.
+ */
+@Slf4j
+@Component
+public class ListenerPauseController {
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final Map<String, Set<String>> pauseReasons = new HashMap<>();
+
+    public ListenerPauseController(KafkaListenerEndpointRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Pause the listener for {@code reason}. Pausing again for the same reason is a no-op.
+     */
+    public synchronized void pause(String listenerId, String reason) {
+        MessageListenerContainer container = registry.getListenerContainer(listenerId);
+        if (container == null) {
+            log.warn("[LISTENER-PAUSE] Unknown listener id={}, cannot pause ({})", listenerId, reason);
+            return;
+        }
+        Set<String> reasons = pauseReasons.computeIfAbsent(listenerId, id -> new LinkedHashSet<>());
+        if (reasons.add(reason) && reasons.size() == 1) {
+            container.pause();
+            log.warn("[LISTENER-PAUSE] Paused listener={} reason={}", listenerId, reason);
+        }
+    }
+
+    /**
+     * Clear {@code reason}; the listener resumes when no other reason is left.
+     */
+    public synchronized void resume(String listenerId, String reason) {
+        Set<String> reasons = pauseReasons.get(listenerId);
+        if (reasons == null || !reasons.remove(reason)) {
+            return;
+        }
+        if (!reasons.isEmpty()) {
+            log.info("[LISTENER-PAUSE] listener={} cleared reason={}, still paused for {}", listenerId, reason, reasons);
+            return;
+        }
+        pauseReasons.remove(listenerId);
+        MessageListenerContainer container = registry.getListenerContainer(listenerId);
+        if (container != null) {
+            container.resume();
+            log.info("[LISTENER-PAUSE] Resumed listener={} (cleared reason={})", listenerId, reason);
+        }
+    }
+
+    public void pauseAll(String reason) {
+        for (String listenerId : registry.getListenerContainerIds()) {
+            pause(listenerId, reason);
+        }
+    }
+
+    public void resumeAll(String reason) {
+        for (String listenerId : registry.getListenerContainerIds()) {
+            resume(listenerId, reason);
+        }
+    }
+
+    public synchronized boolean isPaused(String listenerId) {
+        return pauseReasons.containsKey(listenerId);
+    }
+
+    /** Snapshot of listenerId → active pause reasons. */
+    public synchronized Map<String, Set<String>> getPauseReasons() {
+        Map<String, Set<String>> copy = new HashMap<>();
+        pauseReasons.forEach((id, reasons) -> copy.put(id, Collections.unmodifiableSet(new LinkedHashSet<>(reasons))));
+        return copy;
+    }
+}
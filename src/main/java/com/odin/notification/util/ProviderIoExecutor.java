@@ -0,0 +1,165 @@
+package com.odin.notification.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Executor for blocking provider I/O that is fanned out or handed off rather
+ * than run on the calling thread: Fast2SMS sends from the SMS dispatcher and
+ * the bulk sender, due reminders, and the per-contact FCM sends of account
+ * deletion and privacy visibility changes.
+ *
+ * Single FCM pushes run on the Kafka consumer bulkhead lanes (see
+ * {@link ConsumerBulkheads}), and mail (SMTP, MailerSend) is sent on the
+ * request thread that asked for it; neither goes through this executor.
+ *
+ * Two execution modes:
+ *   - platform (default): a fixed pool of platform threads sized by
+ *     provider.io.platform.threads.
+ *   - virtual: when provider.io.virtual-threads.enabled=true AND the JVM is
+ *     Java 21+, every task runs on its own virtual thread. The project still
+ *     compiles for Java 17, so the virtual-thread executor is obtained
+ *     reflectively; on older runtimes it silently falls back to platform mode.
+ *
+ * In both modes a semaphore caps the number of in-flight provider calls
+ * (provider.io.max-concurrency). The permit is taken on the submitting thread,
+ * so a saturated executor pushes back on the caller instead of queueing
+ * unbounded work on a 256 MB heap.
+ */
+@Slf4j
+@Component
+public class ProviderIoExecutor {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final boolean virtualThreads;
+    private final int maxConcurrency;
+
+    public ProviderIoExecutor(
+            @Value("${provider.io.virtual-threads.enabled:false}") boolean virtualThreadsRequested,
+            @Value("${provider.io.max-concurrency:256}") int maxConcurrency,
+            @Value("${provider.io.platform.threads:16}") int platformThreads) {
+        ExecutorService virtualExecutor = virtualThreadsRequested ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtualExecutor != null;
+        this.delegate = virtualExecutor != null ? virtualExecutor : newPlatformExecutor(platformThreads);
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+
+        log.info("[PROVIDER-IO] Executor initialised — mode={}, maxConcurrency={}",
+                virtualThreads ? "virtual" : "platform(" + platformThreads + ")", maxConcurrency);
+    }
+
+    /**
+     * Submit a blocking provider call. Blocks the caller while the concurrency
+     * cap is exhausted.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            delegate.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Run all tasks concurrently and wait for every one of them to finish.
+     * Individual failures are reported through the returned futures.
+     */
+    public <T> List<CompletableFuture<T>> invokeAll(List<? extends Callable<T>> tasks) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(submit(task));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(t -> null)
+                .join();
+        return futures;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(10, TimeUnit.SECONDS)) {
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delegate.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns Executors.newVirtualThreadPerTaskExecutor() on Java 21+, or null.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("[PROVIDER-IO] Virtual threads requested but runtime is Java {} — using platform threads",
+                    Runtime.version().feature());
+            return null;
+        }
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("[PROVIDER-IO] Unable to create virtual-thread executor, using platform threads: {}",
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "provider-io-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
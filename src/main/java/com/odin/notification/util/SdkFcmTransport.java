@@ -0,0 +1,132 @@
+package com.odin.notification.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.messaging.ApnsConfig;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link FcmTransport} through the Firebase Admin SDK (fcm.transport=sdk, the
+ * default). Sends go through the SDK's Google HTTP client.
+ */
+@Slf4j
+public class SdkFcmTransport implements FcmTransport {
+
+    private final FirebaseMessaging firebaseMessaging;
+
+    public SdkFcmTransport(FirebaseMessaging firebaseMessaging) {
+        this.firebaseMessaging = firebaseMessaging;
+    }
+
+    @Override
+    public String name() {
+        return "sdk";
+    }
+
+    @Override
+    public String send(String token, Map<String, String> data, boolean silent) throws FcmSendException {
+        try {
+            return firebaseMessaging.send(buildMessage(token, data, silent));
+        } catch (FirebaseMessagingException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public String send(String token, FcmPayloadTemplate template, Map<String, String> variables)
+            throws FcmSendException {
+        try {
+            return firebaseMessaging.send(template.toMessage(token, variables));
+        } catch (FirebaseMessagingException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(String token, Map<String, String> data, boolean silent) {
+        ApiFuture<String> apiFuture = firebaseMessaging.sendAsync(buildMessage(token, data, silent));
+        CompletableFuture<String> result = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<String>() {
+            @Override
+            public void onSuccess(String messageId) {
+                result.complete(messageId);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.completeExceptionally(t instanceof FirebaseMessagingException
+                        ? wrap((FirebaseMessagingException) t) : t);
+            }
+        }, MoreExecutors.directExecutor());
+        result.whenComplete((messageId, t) -> {
+            if (result.isCancelled()) {
+                apiFuture.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void warmUp(String sampleToken, Map<String, String> sampleData, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            buildMessage(sampleToken, sampleData, (i & 1) == 0);
+        }
+        try {
+            firebaseMessaging.send(buildMessage(sampleToken, sampleData, false), true);
+        } catch (FirebaseMessagingException e) {
+            log.debug("[WARMUP] FCM dry run rejected the synthetic token as expected: {}", e.getMessagingErrorCode());
+        }
+    }
+
+    private static Message buildMessage(String token, Map<String, String> data, boolean silent) {
+        // isSilent = false (MESSAGE): background type, priority 10, content-available 1 only — no aps.alert
+        //   iOS silently wakes Flutter handler → Flutter shows ONE rich local notification after E2EE decrypt
+        // isSilent = true (STATUS_UPDATE): background type, priority 5, content-available 1 only
+        //
+        // Both configs (and the HIGH-priority AndroidConfig) are immutable and prebuilt in
+        // FcmPayloadTemplate rather than rebuilt per send.
+        //
+        // WHY NO aps.alert:
+        // iOS renders aps.alert as a native system banner BEFORE calling the Flutter background
+        // handler. AppDelegate.willPresent can suppress this in foreground (via completionHandler([]))
+        // but has NO control when the app is backgrounded or the device is locked — iOS shows the
+        // native banner unconditionally. This caused a DOUBLE notification:
+        //   1. Native APNs banner ("New Message / You have a new message") from aps.alert
+        //   2. Flutter local notification (rich content) from _fln.show() after E2EE decryption
+        //
+        // FIX: Remove aps.alert + sound entirely. Use background push-type + content-available:1
+        // so iOS silently wakes the Flutter background handler (didReceiveRemoteNotification:),
+        // which then shows exactly ONE rich local notification via FlutterLocalNotificationsPlugin.
+        //
+        // WHY apns-priority:10 with background type:
+        // Priority 10 ensures high-priority delivery even for background pushes; Apple allows
+        // this but may throttle on low-battery devices. Acceptable trade-off vs. double banners.
+        //
+        // ANDROID IMPACT: Zero. The ApnsConfig is routed by FCM to iOS only.
+        // AndroidConfig is unchanged and uses its own HIGH priority path.
+        ApnsConfig apnsConfig = silent
+                ? FcmPayloadTemplate.APNS_SILENT_BACKGROUND
+                : FcmPayloadTemplate.APNS_ALERT_BACKGROUND;
+
+        // Build message without notification object
+        return Message.builder()
+                .setToken(token)
+                .putAllData(data)
+                .setAndroidConfig(FcmPayloadTemplate.ANDROID_HIGH_PRIORITY)
+                .setApnsConfig(apnsConfig)
+                .build();
+    }
+
+    private static FcmSendException wrap(FirebaseMessagingException e) {
+        return new FcmSendException(e.getMessagingErrorCode(), e.getMessage(), e);
+    }
+}
@@ -0,0 +1,419 @@
+package com.odin.notification.util;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only local journal for Kafka records awaiting publication, kept in
+ * memory-mapped segment files under spill.journal.dir.
+ *
+ * Record layout (big-endian):
+ *
+ *   int length | int crc32(body) | body
+ *   body = short topicLength | topic | short keyLength | key | value
+ *
+ * The length is written last, so a record is either complete or reads as the
+ * zero-filled end of the segment; a CRC mismatch on replay marks a corrupt
+ * record, which is skipped. A full segment is sealed with length -1 and the
+ * next one is created; at most spill.journal.max-segments exist at a time,
+ * beyond which appends are refused (bounded disk use).
+ *
+ * There is one writer lock and a single reader (the replayer) that walks the
+ * records in append order with {@link #read(int)} / {@link #commit(Record)}.
+ * The reader position is checkpointed to replay.checkpoint (and forced to
+ * disk) on each commit and fully replayed segments are deleted, so a restart
+ * resumes where replay stopped. Replay is at-least-once: records published
+ * but not yet checkpointed when the pod dies are published again, so
+ * consumers of the replayed topics must tolerate duplicates.
+ *
+ * Appends are not msync'ed individually: the page cache survives a crash of
+ * the JVM, and segments are forced to disk when sealed and on shutdown.
+ */
+@Slf4j
+@Component
+public class SpillJournal {
+
+    private static final String SEGMENT_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "replay.checkpoint";
+    private static final int HEADER_BYTES = 8;
+    private static final int END_OF_SEGMENT = -1;
+
+    @Value("${spill.journal.dir:${java.io.tmpdir}/notification-spill}")
+    private String dir;
+
+    @Value("${spill.journal.segment.bytes:4194304}")
+    private int segmentBytes;
+
+    @Value("${spill.journal.max-segments:32}")
+    private int maxSegments;
+
+    private Path directory;
+    private FileChannel checkpointChannel;
+
+    // Segment index → file, guarded by this
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    // Writer state, guarded by this; writePosition is read by the replayer
+    private MappedByteBuffer writeBuffer;
+    private volatile long writeSegment;
+    private volatile int writePosition;
+
+    // Reader state, replayer thread only (volatile for hasPending)
+    private ByteBuffer readBuffer;
+    private volatile long readSegment;
+    private volatile int readPosition;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+    private final AtomicLong corrupt = new AtomicLong();
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Long index = segmentIndex(file);
+                if (index != null) {
+                    segments.put(index, file);
+                }
+            });
+        }
+
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer checkpoint = ByteBuffer.allocate(12);
+        checkpointChannel.read(checkpoint, 0);
+        long checkpointSegment = checkpoint.position() == 12 ? checkpoint.getLong(0) : 0;
+        int checkpointPosition = checkpoint.position() == 12 ? checkpoint.getInt(8) : 0;
+
+        // Segments before the checkpoint were fully replayed before the last shutdown
+        while (!segments.isEmpty() && segments.firstKey() < checkpointSegment) {
+            Files.deleteIfExists(segments.pollFirstEntry().getValue());
+        }
+
+        if (segments.isEmpty()) {
+            startSegment(Math.max(1, checkpointSegment));
+        } else {
+            Map.Entry<Long, Path> last = segments.lastEntry();
+            writeSegment = last.getKey();
+            writeBuffer = map(last.getValue(), FileChannel.MapMode.READ_WRITE);
+            writePosition = scanEnd(writeBuffer);
+            if (writePosition < 0) {
+                startSegment(writeSegment + 1);
+            }
+        }
+
+        readSegment = segments.firstKey();
+        readPosition = readSegment == checkpointSegment ? checkpointPosition : 0;
+        log.info("[SPILL-JOURNAL] Opened {} — {} segment(s), replay from segment {} @ {}, segment size={}KB",
+                directory, segments.size(), readSegment, readPosition, segmentBytes / 1024);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (writeBuffer != null) {
+            writeBuffer.force();
+        }
+        try {
+            if (checkpointChannel != null) {
+                checkpointChannel.force(false);
+                checkpointChannel.close();
+            }
+        } catch (IOException e) {
+            log.warn("[SPILL-JOURNAL] Failed to close checkpoint: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Append one record.
+     *
+     * @return false if the record was refused (journal full, record larger
+     *         than a segment, or I/O failure) — the caller's record is lost
+     */
+    public synchronized boolean append(String topic, String key, byte[] value) {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int bodyLength = 2 + topicBytes.length + 2 + keyBytes.length + value.length;
+        int recordLength = HEADER_BYTES + bodyLength;
+
+        // Always leave room for the end-of-segment marker
+        if (recordLength + 4 > segmentBytes) {
+            refused.incrementAndGet();
+            log.error("[SPILL-JOURNAL] Record of {} bytes does not fit a {} byte segment", recordLength, segmentBytes);
+            return false;
+        }
+        if (writePosition + recordLength + 4 > segmentBytes && !roll()) {
+            refused.incrementAndGet();
+            return false;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.putShort((short) topicBytes.length).put(topicBytes)
+                .putShort((short) keyBytes.length).put(keyBytes)
+                .put(value);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+
+        int p = writePosition;
+        writeBuffer.putInt(p + 4, (int) crc.getValue());
+        writeBuffer.put(p + HEADER_BYTES, body.array());
+        writeBuffer.putInt(p, bodyLength);
+        writePosition = p + recordLength;
+        appended.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Up to {@code max} of the oldest records not yet committed, in append
+     * order; empty when everything appended so far has been replayed. A
+     * batch never spans segments. Replayer thread only.
+     */
+    public List<Record> read(int max) throws IOException {
+        List<Record> records = new ArrayList<>();
+        while (true) {
+            if (readBuffer == null) {
+                readBuffer = bufferForRead(readSegment);
+            }
+            boolean active = readSegment == writeSegment;
+            int limit = active ? writePosition : segmentBytes;
+
+            int p = readPosition;
+            while (records.size() < max && p + HEADER_BYTES <= limit) {
+                int length = readBuffer.getInt(p);
+                int next = p + HEADER_BYTES + length;
+                if (length <= 0 || next > limit) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                readBuffer.get(p + HEADER_BYTES, body);
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() == readBuffer.getInt(p + 4)) {
+                    records.add(Record.decode(body, next));
+                } else if (records.isEmpty()) {
+                    corrupt.incrementAndGet();
+                    log.error("[SPILL-JOURNAL] CRC mismatch in segment {} @ {}, skipping {} byte record",
+                            readSegment, p, length);
+                    readPosition = next;
+                    saveCheckpoint();
+                } else {
+                    // Return what precedes it; the next read skips it
+                    break;
+                }
+                p = next;
+            }
+            if (!records.isEmpty() || active || max <= 0) {
+                return records;
+            }
+            // Sealed segment fully replayed
+            advanceSegment();
+        }
+    }
+
+    /** Mark {@code record} and every record read before it as replayed. */
+    public void commit(Record record) throws IOException {
+        readPosition = record.next;
+        saveCheckpoint();
+    }
+
+    /** True while appended records have not all been replayed. */
+    public boolean hasPending() {
+        return readSegment != writeSegment || readPosition < writePosition;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getAppendedCount() {
+        return appended.get();
+    }
+
+    public long getRefusedCount() {
+        return refused.get();
+    }
+
+    public long getCorruptCount() {
+        return corrupt.get();
+    }
+
+    /** Seal the current segment and start the next one. */
+    private boolean roll() {
+        if (segments.size() >= maxSegments) {
+            log.error("[SPILL-JOURNAL] Journal full ({} segments of {}KB), refusing records until replay catches up",
+                    segments.size(), segmentBytes / 1024);
+            return false;
+        }
+        writeBuffer.putInt(writePosition, END_OF_SEGMENT);
+        writeBuffer.force();
+        try {
+            startSegment(writeSegment + 1);
+            return true;
+        } catch (IOException e) {
+            log.error("[SPILL-JOURNAL] Failed to create segment {}: {}", writeSegment + 1, e.getMessage());
+            return false;
+        }
+    }
+
+    private void startSegment(long index) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        MappedByteBuffer buffer = map(file, FileChannel.MapMode.READ_WRITE);
+        segments.put(index, file);
+        writeBuffer = buffer;
+        writePosition = 0;
+        writeSegment = index;
+    }
+
+    private void advanceSegment() throws IOException {
+        long finished = readSegment;
+        Long next;
+        synchronized (this) {
+            Path file = segments.remove(finished);
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+            next = segments.higherKey(finished);
+            if (next == null) {
+                next = writeSegment;
+            }
+        }
+        readBuffer = null;
+        readPosition = 0;
+        readSegment = next;
+        saveCheckpoint();
+    }
+
+    private synchronized ByteBuffer bufferForRead(long index) throws IOException {
+        if (index == writeSegment) {
+            return writeBuffer.duplicate();
+        }
+        return map(segments.get(index), FileChannel.MapMode.READ_ONLY);
+    }
+
+    private MappedByteBuffer map(Path file, FileChannel.MapMode mode) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw")) {
+            if (mode == FileChannel.MapMode.READ_WRITE && raf.length() < segmentBytes) {
+                raf.setLength(segmentBytes);
+            }
+            // The mapping stays valid after the channel is closed
+            return raf.getChannel().map(mode, 0, Math.min(raf.length(), segmentBytes));
+        }
+    }
+
+    /**
+     * Position after the last record of a segment reopened for writing, or
+     * -1 if the segment is sealed. A record with a bad CRC followed by more
+     * records is kept (the reader skips it); one at the tail is a torn write
+     * and is overwritten by the next append.
+     */
+    private int scanEnd(ByteBuffer buffer) {
+        int p = 0;
+        while (p + HEADER_BYTES <= segmentBytes) {
+            int length = buffer.getInt(p);
+            if (length == END_OF_SEGMENT) {
+                return -1;
+            }
+            if (length <= 0 || p + HEADER_BYTES + length > segmentBytes) {
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(p + HEADER_BYTES, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            int next = p + HEADER_BYTES + length;
+            if ((int) crc.getValue() != buffer.getInt(p + 4)
+                    && (next + HEADER_BYTES > segmentBytes || buffer.getInt(next) == 0)) {
+                break;
+            }
+            p = next;
+        }
+        // Clear a torn header so readers stop here until it is overwritten
+        if (p + 4 <= segmentBytes) {
+            buffer.putInt(p, 0);
+        }
+        return p;
+    }
+
+    private void saveCheckpoint() throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(12);
+        checkpoint.putLong(readSegment).putInt(readPosition).flip();
+        checkpointChannel.write(checkpoint, 0);
+        checkpointChannel.force(false);
+    }
+
+    private static Long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** One journaled Kafka record. */
+    public static final class Record {
+        private final String topic;
+        private final String key;
+        private final byte[] value;
+        private final int next;
+
+        private Record(String topic, String key, byte[] value, int next) {
+            this.topic = topic;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        private static Record decode(byte[] body, int next) {
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            byte[] topic = new byte[buffer.getShort()];
+            buffer.get(topic);
+            byte[] key = new byte[buffer.getShort()];
+            buffer.get(key);
+            byte[] value = new byte[buffer.remaining()];
+            buffer.get(value);
+            return new Record(new String(topic, StandardCharsets.UTF_8),
+                    key.length > 0 ? new String(key, StandardCharsets.UTF_8) : null, value, next);
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public byte[] getValue() {
+            return value;
+        }
+    }
+}
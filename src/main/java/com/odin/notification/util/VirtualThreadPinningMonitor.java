@@ -0,0 +1,90 @@
+package com.odin.notification.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JFR check for virtual threads pinned to their carrier.
+ *
+ * A virtual thread that blocks inside a synchronized block (or native frame)
+ * keeps its carrier platform thread busy, which silently shrinks the carrier
+ * pool and defeats the point of {@link ProviderIoExecutor}'s virtual mode.
+ * When virtual threads are active this streams the jdk.VirtualThreadPinned
+ * event in-process and logs the offending frame, so regressions show up in
+ * the service logs rather than as unexplained latency.
+ *
+ * Only started when the executor actually runs on virtual threads and
+ * provider.io.pinning-monitor.enabled is true.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final ProviderIoExecutor providerIoExecutor;
+    private final AtomicLong pinnedCount = new AtomicLong();
+
+    @Value("${provider.io.pinning-monitor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${provider.io.pinning-monitor.threshold.ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(ProviderIoExecutor providerIoExecutor) {
+        this.providerIoExecutor = providerIoExecutor;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || !providerIoExecutor.isVirtualThreads()) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("[VT-PINNING] JFR pinned-carrier monitor started (threshold={}ms)", thresholdMs);
+        } catch (Exception e) {
+            log.warn("[VT-PINNING] Unable to start JFR pinned-carrier monitor: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long count = pinnedCount.incrementAndGet();
+        String frame = "unknown";
+        if (event.getStackTrace() != null && !event.getStackTrace().getFrames().isEmpty()) {
+            RecordedFrame top = event.getStackTrace().getFrames().get(0);
+            frame = top.getMethod().getType().getName() + "." + top.getMethod().getName()
+                    + ":" + top.getLineNumber();
+        }
+        log.warn("[VT-PINNING] Virtual thread pinned for {}ms at {} (total pinned events={})",
+                event.getDuration().toMillis(), frame, count);
+    }
+
+    public long getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+-- One-off migration for uk_notification_token_customer_device.
+-- Run before deploying the upsert-based token registration on a database that
+-- already has data; ddl-auto=update cannot add the unique key while duplicates
+-- or NULL device signatures exist.
+
+-- 1. NULL never collides in a unique key; the service stores a missing signature as ''.
+UPDATE notification_token SET device_signature = '' WHERE device_signature IS NULL;
+
+-- 2. Keep only the most recently updated row per (customer_id, device_signature).
+DELETE t FROM notification_token t
+JOIN notification_token newer
+  ON newer.customer_id = t.customer_id
+ AND newer.device_signature = t.device_signature
+ AND (COALESCE(newer.update_timestamp, newer.create_timestamp) > COALESCE(t.update_timestamp, t.create_timestamp)
+      OR (COALESCE(newer.update_timestamp, newer.create_timestamp) = COALESCE(t.update_timestamp, t.create_timestamp)
+          AND newer.id > t.id));
+
+-- 3. Keys used by the upsert and by the latest-device lookup.
+ALTER TABLE notification_token
+  ADD CONSTRAINT uk_notification_token_customer_device UNIQUE (customer_id, device_signature),
+  ADD INDEX idx_notification_token_customer_updated (customer_id, update_timestamp);
@@ -0,0 +1,205 @@
+package com.odin.notification.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.MethodKafkaListenerEndpoint;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.ConsumerBulkhead;
+import com.odin.notification.util.HeapBudgetGovernor;
+import com.odin.notification.util.ListenerPauseController;
+
+/**
+ * Runs containers from the bulkhead listener factory against an embedded
+ * broker (AckMode.MANUAL, async acks): a saturated lane never hands records
+ * back to Kafka, the committed offset never moves past a record whose task
+ * has not finished, and a failing listener does not stall its partition.
+ */
+class KafkaConsumerConfigTest {
+
+	private static final String SATURATION_TOPIC = "bulkhead-saturation";
+	private static final String FAILURE_TOPIC = "bulkhead-listener-failure";
+	private static final String GROUP_ID = "bulkhead-acks-test";
+	private static final int RECORDS = 10;
+
+	private static EmbeddedKafkaBroker kafka;
+
+	private ConcurrentMessageListenerContainer<String, NotificationDTO> container;
+	private ConsumerBulkhead bulkhead;
+
+	@BeforeAll
+	static void startBroker() {
+		kafka = new EmbeddedKafkaBroker(1, false, 1, SATURATION_TOPIC, FAILURE_TOPIC);
+		kafka.afterPropertiesSet();
+	}
+
+	@AfterAll
+	static void stopBroker() {
+		kafka.destroy();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (container != null) {
+			container.stop();
+		}
+		if (bulkhead != null) {
+			bulkhead.shutdown(5_000);
+		}
+	}
+
+	@Test
+	void saturatedLaneQueuesInOrderAndNeverCommitsAhead() throws Exception {
+		// One lane: one record running, two queued, the fourth waits at most 100 ms
+		bulkhead = new ConsumerBulkhead("test", 1, 2, List.of(), mock(ListenerPauseController.class),
+				mock(HeapBudgetGovernor.class), 100);
+		Semaphore finishes = new Semaphore(0);
+		List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+
+		produce(SATURATION_TOPIC);
+		start(SATURATION_TOPIC, (notificationDTO, ack) -> bulkhead.execute(notificationDTO.getCustomerId(), () -> {
+			finishes.acquireUninterruptibly();
+			processed.add(notificationDTO.getNotificationId());
+		}, ack));
+
+		// Records 3..9 go over capacity; nothing has finished, so nothing is committed
+		waitFor(() -> bulkhead.getOverflowed() == RECORDS - 3, "records 3..9 are queued over capacity");
+		Thread.sleep(500);
+		assertTrue(processed.isEmpty());
+		assertEquals(-1, committedOffset(SATURATION_TOPIC));
+
+		// 0 and 1 finish; 2 is still running, so 3 onwards must not be committed yet
+		finishes.release(2);
+		waitFor(() -> committedOffset(SATURATION_TOPIC) == 2, "offset 2 is committed");
+		Thread.sleep(500);
+		assertEquals(2, committedOffset(SATURATION_TOPIC));
+
+		finishes.release(RECORDS);
+		waitFor(() -> committedOffset(SATURATION_TOPIC) == RECORDS, "every record is committed");
+		assertEquals(sequence(RECORDS), processed);
+	}
+
+	@Test
+	void failingListenerDoesNotStallThePartition() throws Exception {
+		bulkhead = new ConsumerBulkhead("test", 1, 100, List.of(), mock(ListenerPauseController.class),
+				mock(HeapBudgetGovernor.class), 100);
+		List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+
+		produce(FAILURE_TOPIC);
+		start(FAILURE_TOPIC, (notificationDTO, ack) -> {
+			if (notificationDTO.getNotificationId() == 3) {
+				throw new IllegalStateException("unusable record");
+			}
+			bulkhead.execute(notificationDTO.getCustomerId(), () -> processed.add(notificationDTO.getNotificationId()), ack);
+		});
+
+		waitFor(() -> committedOffset(FAILURE_TOPIC) == RECORDS, "every record is committed");
+		List<Long> expected = sequence(RECORDS);
+		expected.remove(3L);
+		assertEquals(expected, processed);
+	}
+
+	private void produce(String topic) {
+		// Produced before the container starts so the first poll fetches every record
+		KafkaTemplate<String, NotificationDTO> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+				KafkaTestUtils.producerProps(kafka), new StringSerializer(), new JsonSerializer<>()));
+		for (long i = 0; i < RECORDS; i++) {
+			template.send(topic, "42", NotificationDTO.builder().customerId(42L).notificationId(i).build());
+		}
+		template.flush();
+	}
+
+	/** Start a container the way @KafkaListener does, so the factory's customizer sees the listener. */
+	private void start(String topic, BiConsumer<NotificationDTO, Acknowledgment> handler) throws Exception {
+		KafkaConsumerConfig config = new KafkaConsumerConfig();
+		ReflectionTestUtils.setField(config, "bootstrapServers", kafka.getBrokersAsString());
+		ReflectionTestUtils.setField(config, "groupId", GROUP_ID);
+		ReflectionTestUtils.setField(config, "keyDeserializer", StringDeserializer.class.getName());
+		ReflectionTestUtils.setField(config, "valueDeserializer", JsonDeserializer.class.getName());
+		ReflectionTestUtils.setField(config, "trustedPackages", "*");
+		ReflectionTestUtils.setField(config, "warmupEnabled", false);
+		ReflectionTestUtils.setField(config, "maxPollIntervalMs", 300_000);
+
+		DefaultMessageHandlerMethodFactory methodFactory = new DefaultMessageHandlerMethodFactory();
+		methodFactory.afterPropertiesSet();
+		MethodKafkaListenerEndpoint<String, NotificationDTO> endpoint = new MethodKafkaListenerEndpoint<>();
+		endpoint.setId("test-" + topic);
+		endpoint.setTopics(topic);
+		endpoint.setBean(new Listener(handler));
+		endpoint.setMethod(Listener.class.getMethod("listen", NotificationDTO.class, Acknowledgment.class));
+		endpoint.setMessageHandlerMethodFactory(methodFactory);
+
+		container = config.bulkheadListenerContainerFactory().createListenerContainer(endpoint);
+		container.getContainerProperties().getKafkaConsumerProperties()
+				.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		container.start();
+		ContainerTestUtils.waitForAssignment(container, 1);
+	}
+
+	public static class Listener {
+
+		private final BiConsumer<NotificationDTO, Acknowledgment> handler;
+
+		Listener(BiConsumer<NotificationDTO, Acknowledgment> handler) {
+			this.handler = handler;
+		}
+
+		public void listen(NotificationDTO notificationDTO, Acknowledgment ack) {
+			handler.accept(notificationDTO, ack);
+		}
+	}
+
+	private static List<Long> sequence(int size) {
+		return LongStream.range(0, size).boxed().collect(Collectors.toList());
+	}
+
+	private static long committedOffset(String topic) {
+		try {
+			OffsetAndMetadata committed = KafkaTestUtils.getCurrentOffset(kafka.getBrokersAsString(), GROUP_ID, topic, 0);
+			return committed == null ? -1 : committed.offset();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void waitFor(BooleanSupplier condition, String what) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Timed out waiting until " + what);
+			}
+			Thread.sleep(50);
+		}
+	}
+}
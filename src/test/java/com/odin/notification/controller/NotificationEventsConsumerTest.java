@@ -0,0 +1,90 @@
+package com.odin.notification.controller;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.service.PushNotificationService;
+import com.odin.notification.util.CallCancellationRegistry;
+import com.odin.notification.util.CallCancellationRegistry.InviteClaim;
+import com.odin.notification.util.ConsumerBulkhead;
+import com.odin.notification.util.ConsumerBulkheads;
+import com.odin.notification.util.FreshnessPolicy;
+
+class NotificationEventsConsumerTest {
+
+	private ConsumerBulkhead lane;
+	private CallCancellationRegistry callCancellations;
+	private NotificationEventsConsumer consumer;
+
+	@BeforeEach
+	void setUp() {
+		ConsumerBulkheads bulkheads = mock(ConsumerBulkheads.class);
+		lane = mock(ConsumerBulkhead.class);
+		when(bulkheads.get(ConsumerBulkheads.CHAT)).thenReturn(lane);
+		// The bulkhead rejects hand-offs once it is shutting down
+		doThrow(new RejectedExecutionException("shutting down"))
+				.when(lane).execute(any(), any(Runnable.class), any(Acknowledgment.class), anyLong());
+		callCancellations = mock(CallCancellationRegistry.class);
+
+		consumer = new NotificationEventsConsumer(mock(PushNotificationService.class), bulkheads,
+				new FreshnessPolicy(new MockEnvironment()), callCancellations);
+		ReflectionTestUtils.setField(consumer, "callCancelPushEnabled", true);
+	}
+
+	@Test
+	void rejectedInviteReleasesItsClaim() {
+		when(callCancellations.claimInvite(eq("42"), eq("c-1"), eq("call_invite:42:m-1"), any(Duration.class)))
+				.thenReturn(InviteClaim.CLAIMED);
+		Acknowledgment ack = mock(Acknowledgment.class);
+
+		assertThrows(RejectedExecutionException.class,
+				() -> consumer.consumeNotificationEvent(event("CALL_INVITE"), ack, System.currentTimeMillis()));
+
+		verify(callCancellations).releaseInvite("call_invite:42:m-1");
+		verify(ack, never()).acknowledge();
+	}
+
+	@Test
+	void rejectedCancelPushReleasesItsFirstMarker() {
+		when(callCancellations.cancel("42", "c-1")).thenReturn(true);
+		Acknowledgment ack = mock(Acknowledgment.class);
+
+		assertThrows(RejectedExecutionException.class,
+				() -> consumer.consumeNotificationEvent(event("CALL_CANCEL"), ack, System.currentTimeMillis()));
+
+		verify(callCancellations).releaseCancel("42", "c-1");
+		verify(callCancellations, never()).releaseInvite(any());
+		verify(ack, never()).acknowledge();
+	}
+
+	private static NotificationDTO event(String type) {
+		Map<String, Object> map = new HashMap<>();
+		map.put("type", type);
+		map.put("messageId", "m-1");
+		map.put("receiverCustomerId", "42");
+		map.put("callId", "c-1");
+		NotificationDTO notificationDTO = new NotificationDTO();
+		notificationDTO.setCustomerId(42L);
+		notificationDTO.setMap(map);
+		return notificationDTO;
+	}
+}
@@ -0,0 +1,109 @@
+package com.odin.notification.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.service.StatusUpdateService;
+import com.odin.notification.util.ConsumerBulkhead;
+import com.odin.notification.util.ConsumerBulkheads;
+import com.odin.notification.util.FreshnessPolicy;
+
+class StatusUpdateConsumerTest {
+
+	private StatusUpdateService statusUpdateService;
+	private StatusUpdateConsumer consumer;
+	private final List<Runnable> queued = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		statusUpdateService = mock(StatusUpdateService.class);
+		ConsumerBulkheads bulkheads = mock(ConsumerBulkheads.class);
+		ConsumerBulkhead lane = mock(ConsumerBulkhead.class);
+		when(bulkheads.get(ConsumerBulkheads.STATUS)).thenReturn(lane);
+		// Queue work instead of running it, as a backlogged lane would
+		doAnswer(invocation -> queued.add(invocation.getArgument(1)))
+				.when(lane).execute(any(), any(Runnable.class), any(Acknowledgment.class), anyLong());
+
+		consumer = new StatusUpdateConsumer(statusUpdateService, bulkheads, new FreshnessPolicy(new MockEnvironment()));
+		ReflectionTestUtils.setField(consumer, "supersedeEnabled", true);
+	}
+
+	@Test
+	void newerPushForSameStatusSupersedesQueuedOne() throws Exception {
+		consumer.listenStatusUpdate(status("s-1", "v1"), mock(Acknowledgment.class), System.currentTimeMillis());
+		consumer.listenStatusUpdate(status("s-1", "v2"), mock(Acknowledgment.class), System.currentTimeMillis());
+		queued.forEach(Runnable::run);
+
+		ArgumentCaptor<NotificationDTO> sent = ArgumentCaptor.forClass(NotificationDTO.class);
+		verify(statusUpdateService, times(1)).processStatusUpdateNotification(sent.capture(), any());
+		assertEquals("v2", sent.getValue().getMap().get("caption"));
+	}
+
+	@Test
+	void pushesForDifferentStatusesAreAllDelivered() throws Exception {
+		consumer.listenStatusUpdate(status("s-1", "v1"), mock(Acknowledgment.class), System.currentTimeMillis());
+		consumer.listenStatusUpdate(status("s-2", "v1"), mock(Acknowledgment.class), System.currentTimeMillis());
+		queued.forEach(Runnable::run);
+
+		verify(statusUpdateService, times(2)).processStatusUpdateNotification(any(), any());
+	}
+
+	@Test
+	void deleteDoesNotSupersedeUpdateOfSameStatus() throws Exception {
+		NotificationDTO delete = status("s-1", "v1");
+		delete.getMap().put("statusDeleteSignal", "STATUS_DELETE");
+		consumer.listenStatusUpdate(status("s-1", "v1"), mock(Acknowledgment.class), System.currentTimeMillis());
+		consumer.listenStatusUpdate(delete, mock(Acknowledgment.class), System.currentTimeMillis());
+		queued.forEach(Runnable::run);
+
+		verify(statusUpdateService, times(2)).processStatusUpdateNotification(any(), any());
+	}
+
+	@Test
+	void pushWithoutStatusIdIsNeverSuperseded() throws Exception {
+		consumer.listenStatusUpdate(status(null, "v1"), mock(Acknowledgment.class), System.currentTimeMillis());
+		consumer.listenStatusUpdate(status(null, "v2"), mock(Acknowledgment.class), System.currentTimeMillis());
+		queued.forEach(Runnable::run);
+
+		assertNull(consumer.supersedeKey(status(null, "v1")));
+		verify(statusUpdateService, times(2)).processStatusUpdateNotification(any(), any());
+	}
+
+	@Test
+	void supersedeKeyNamesReceiverSenderAndStatus() {
+		assertEquals("7:9:s-1:update", consumer.supersedeKey(status("s-1", "v1")));
+	}
+
+	private static NotificationDTO status(String statusId, String caption) {
+		Map<String, Object> map = new HashMap<>();
+		map.put("senderCustomerId", "9");
+		map.put("caption", caption);
+		if (statusId != null) {
+			map.put("statusId", statusId);
+		}
+		NotificationDTO notificationDTO = new NotificationDTO();
+		notificationDTO.setCustomerId(7L);
+		notificationDTO.setMap(map);
+		return notificationDTO;
+	}
+}
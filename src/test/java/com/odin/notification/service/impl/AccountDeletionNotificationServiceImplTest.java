@@ -0,0 +1,129 @@
+package com.odin.notification.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.odin.notification.dto.AccountDeletionEvent;
+import com.odin.notification.entity.NotificationToken;
+import com.odin.notification.repo.NotificationTokenRepository;
+import com.odin.notification.util.DeliveryLog;
+import com.odin.notification.util.FcmPayloadTemplate;
+import com.odin.notification.util.FcmUtil;
+import com.odin.notification.util.ProviderIoExecutor;
+
+class AccountDeletionNotificationServiceImplTest {
+
+	private static final String FANOUT_KEY = "account_deletion:7";
+
+	private NotificationTokenRepository repository;
+	private FcmUtil fcmUtil;
+	private ValueOperations<String, String> valueOps;
+	private RedisTemplate<String, String> redisTemplate;
+	private ProviderIoExecutor providerIoExecutor;
+	private AccountDeletionNotificationServiceImpl service;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		repository = mock(NotificationTokenRepository.class);
+		fcmUtil = mock(FcmUtil.class);
+		redisTemplate = mock(RedisTemplate.class);
+		valueOps = mock(ValueOperations.class);
+		when(redisTemplate.opsForValue()).thenReturn(valueOps);
+		providerIoExecutor = new ProviderIoExecutor(false, 4, 2);
+
+		service = new AccountDeletionNotificationServiceImpl(repository, fcmUtil, mock(DeliveryLog.class),
+				mock(NotificationTokenCache.class), mock(TokenWriteBuffer.class), mock(TransactionTemplate.class),
+				redisTemplate, providerIoExecutor);
+		ReflectionTestUtils.setField(service, "fanoutDedupeTtlHours", 24L);
+		ReflectionTestUtils.setField(service, "fanoutClaimTtlSeconds", 120L);
+		ReflectionTestUtils.setField(service, "lookupBatchSize", 1000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		providerIoExecutor.shutdown();
+	}
+
+	@Test
+	void claimIsPromotedToDoneOnlyAfterTheFanOut() throws Exception {
+		when(valueOps.setIfAbsent(eq(FANOUT_KEY), eq("in-progress"), any(Duration.class))).thenReturn(true);
+		when(repository.findByCustomerIdIn(anyList())).thenReturn(List.of(token(11L, "t-11")));
+		when(fcmUtil.sendDataOnlyMulticast(anyList(), eq(FcmPayloadTemplate.ACCOUNT_DELETED), anyMap()))
+				.thenReturn(mock(BatchResponse.class));
+
+		service.processAccountDeletion(event());
+
+		InOrder order = inOrder(valueOps, fcmUtil);
+		order.verify(valueOps).setIfAbsent(FANOUT_KEY, "in-progress", Duration.ofSeconds(120));
+		order.verify(fcmUtil).sendDataOnlyMulticast(eq(List.of("t-11")), eq(FcmPayloadTemplate.ACCOUNT_DELETED), anyMap());
+		order.verify(valueOps).set(FANOUT_KEY, "done", Duration.ofHours(24));
+	}
+
+	@Test
+	void claimInProgressElsewhereIsRetried() {
+		when(valueOps.setIfAbsent(eq(FANOUT_KEY), anyString(), any(Duration.class))).thenReturn(false);
+		when(valueOps.get(FANOUT_KEY)).thenReturn("in-progress");
+
+		assertThrows(IllegalStateException.class, () -> service.processAccountDeletion(event()));
+		verify(repository, never()).findByCustomerIdIn(anyList());
+	}
+
+	@Test
+	void doneClaimSkipsTheFanOut() {
+		when(valueOps.setIfAbsent(eq(FANOUT_KEY), anyString(), any(Duration.class))).thenReturn(false);
+		when(valueOps.get(FANOUT_KEY)).thenReturn("done");
+
+		service.processAccountDeletion(event());
+
+		verify(repository, never()).findByCustomerIdIn(anyList());
+		verify(valueOps, never()).set(anyString(), anyString(), any(Duration.class));
+	}
+
+	@Test
+	void failedLookupReleasesTheClaim() {
+		when(valueOps.setIfAbsent(eq(FANOUT_KEY), anyString(), any(Duration.class))).thenReturn(true);
+		when(repository.findByCustomerIdIn(anyList())).thenThrow(new QueryTimeoutException("db down"));
+
+		assertThrows(QueryTimeoutException.class, () -> service.processAccountDeletion(event()));
+		verify(redisTemplate).delete(FANOUT_KEY);
+		verify(valueOps, never()).set(anyString(), anyString(), any(Duration.class));
+	}
+
+	private static AccountDeletionEvent event() {
+		AccountDeletionEvent event = new AccountDeletionEvent();
+		event.setCustomerId("7");
+		event.setContactOwnerIds(List.of("11"));
+		return event;
+	}
+
+	private static NotificationToken token(Long customerId, String fcmToken) {
+		NotificationToken token = new NotificationToken();
+		token.setCustomerId(customerId);
+		token.setFcmToken(fcmToken);
+		return token;
+	}
+}
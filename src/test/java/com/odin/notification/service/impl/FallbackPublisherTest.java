@@ -0,0 +1,123 @@
+package com.odin.notification.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.SpillJournal;
+
+class FallbackPublisherTest {
+
+	private static final String TOPIC = "fcm-failure-undelivered-messages";
+
+	@TempDir
+	Path dir;
+
+	private SpillJournal journal;
+	private FallbackPublisher publisher;
+
+	/** Outcome of each upcoming send: "ok", "fail" (async) or "throw" (sync). */
+	private final Queue<String> outcomes = new LinkedList<>();
+	private final List<Long> attempted = new ArrayList<>();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		journal = new SpillJournal();
+		ReflectionTestUtils.setField(journal, "dir", dir.toString());
+		ReflectionTestUtils.setField(journal, "segmentBytes", 4096);
+		ReflectionTestUtils.setField(journal, "maxSegments", 4);
+		journal.open();
+
+		KafkaTemplate<String, NotificationDTO> kafkaTemplate = mock(KafkaTemplate.class);
+		when(kafkaTemplate.send(anyString(), anyString(), any(NotificationDTO.class))).thenAnswer(inv -> {
+			NotificationDTO dto = inv.getArgument(2);
+			String outcome = outcomes.isEmpty() ? "ok" : outcomes.poll();
+			if ("throw".equals(outcome)) {
+				throw new KafkaException("metadata not available");
+			}
+			attempted.add(dto.getCustomerId());
+			SettableListenableFuture<SendResult<String, NotificationDTO>> future = new SettableListenableFuture<>();
+			if ("ok".equals(outcome)) {
+				future.set(null);
+			} else {
+				future.setException(new KafkaException("delivery timeout"));
+			}
+			return future;
+		});
+
+		// The replayer thread is not started; tests drive replayBatch() directly
+		publisher = new FallbackPublisher(kafkaTemplate, journal);
+		ReflectionTestUtils.setField(publisher, "enabled", true);
+		ReflectionTestUtils.setField(publisher, "replaySendTimeoutMs", 1000L);
+		ReflectionTestUtils.setField(publisher, "replayBatchSize", 10);
+	}
+
+	@AfterEach
+	void tearDown() {
+		journal.close();
+	}
+
+	@Test
+	void publishOnlyJournalsAndNeverCallsKafkaOnTheCallerThread() {
+		assertTrue(publisher.publish(TOPIC, "fcm-failure:1", dto(1)));
+		assertTrue(attempted.isEmpty());
+		assertTrue(journal.hasPending());
+	}
+
+	@Test
+	void replayKeepsJournalOrderAcrossFailures() throws Exception {
+		for (long id = 1; id <= 4; id++) {
+			publisher.publish(TOPIC, "fcm-failure:" + id, dto(id));
+		}
+
+		// Kafka down: the first send throws, nothing is committed
+		outcomes.add("throw");
+		assertFalse(publisher.replayBatch());
+		assertTrue(attempted.isEmpty());
+
+		// Kafka flaky: 1 is acknowledged, 2 fails, 3 and 4 succeed behind it
+		outcomes.addAll(List.of("ok", "fail", "ok", "ok"));
+		assertFalse(publisher.replayBatch());
+		assertEquals(List.of(1L, 2L, 3L, 4L), attempted);
+
+		// Only 1 was committed: replay resumes at 2 and re-sends 3 and 4 after it
+		attempted.clear();
+		publisher.publish(TOPIC, "fcm-failure:5", dto(5));
+		assertTrue(publisher.replayBatch());
+		assertEquals(List.of(2L, 3L, 4L, 5L), attempted);
+
+		assertFalse(publisher.replayBatch());
+		assertFalse(journal.hasPending());
+	}
+
+	private static NotificationDTO dto(long customerId) {
+		NotificationDTO dto = new NotificationDTO();
+		dto.setCustomerId(customerId);
+		dto.setMap(new HashMap<>());
+		dto.getMap().put("message", "m" + customerId);
+		return dto;
+	}
+}
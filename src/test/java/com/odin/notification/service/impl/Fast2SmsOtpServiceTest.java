@@ -0,0 +1,90 @@
+package com.odin.notification.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.odin.notification.dto.Fast2SmsResponse;
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.util.ProviderIoExecutor;
+
+class Fast2SmsOtpServiceTest {
+
+	private RestTemplate restTemplate;
+	private Fast2SmsOtpService service;
+
+	@BeforeEach
+	void setUp() {
+		restTemplate = mock(RestTemplate.class);
+		service = new Fast2SmsOtpService(restTemplate, mock(ProviderIoExecutor.class));
+		ReflectionTestUtils.setField(service, "apiUrl", "https://www.fast2sms.com/dev/bulkV2");
+		ReflectionTestUtils.setField(service, "authorizationKey", "k+y/1");
+		ReflectionTestUtils.setField(service, "senderId", "ODINAP");
+	}
+
+	@Test
+	void reservedCharactersInValuesDoNotSplitTheQuery() {
+		URI uri = service.dltUri("217848", "1207178119651027157", "Tom & Jerry+1|#50%", "919800000001,919800000002");
+
+		assertTrue(uri.getRawQuery().contains("variables_values=Tom%20%26%20Jerry%2B1%7C%2350%25"), uri.toString());
+		Map<String, String> query = query(uri);
+		assertEquals("dlt", query.get("route"));
+		assertEquals("k+y/1", query.get("authorization"));
+		assertEquals("Tom & Jerry+1|#50%", query.get("variables_values"));
+		assertEquals("919800000001,919800000002", query.get("numbers"));
+		assertEquals(7, query.size());
+	}
+
+	@Test
+	void sendDltRequestsTheEncodedUri() {
+		Fast2SmsResponse body = new Fast2SmsResponse();
+		body.setSuccess(true);
+		URI expected = service.dltUri("217848", "1207178119651027157", "a&b", "919800000001");
+		when(restTemplate.getForEntity(eq(expected), eq(Fast2SmsResponse.class))).thenReturn(ResponseEntity.ok(body));
+
+		assertTrue(service.sendDlt("217848", "1207178119651027157", "a&b", "919800000001"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void sendOtpAsyncRunsTheSendOnTheProviderExecutor() throws Exception {
+		ProviderIoExecutor executor = mock(ProviderIoExecutor.class);
+		Fast2SmsOtpService asyncService = new Fast2SmsOtpService(restTemplate, executor);
+		CompletableFuture<Boolean> submitted = new CompletableFuture<>();
+		ArgumentCaptor<Callable<Boolean>> task = ArgumentCaptor.forClass(Callable.class);
+		when(executor.submit(task.capture())).thenReturn(submitted);
+
+		assertSame(submitted, asyncService.sendOtpAsync("919800000001", "123456", new NotificationDTO()));
+		// Delivery disabled: the send skips the gateway and reports success
+		assertTrue(task.getValue().call());
+		verifyNoInteractions(restTemplate);
+	}
+
+	private static Map<String, String> query(URI uri) {
+		Map<String, String> query = new LinkedHashMap<>();
+		for (String pair : uri.getRawQuery().split("&")) {
+			String[] nameValue = pair.split("=", 2);
+			query.put(nameValue[0], URLDecoder.decode(nameValue[1], StandardCharsets.UTF_8));
+		}
+		return query;
+	}
+}
@@ -0,0 +1,116 @@
+package com.odin.notification.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.odin.notification.dto.TokenSnapshot;
+import com.odin.notification.entity.NotificationToken;
+import com.odin.notification.repo.NotificationTokenRepository;
+import com.odin.notification.util.HeapBudgetGovernor;
+
+class NotificationTokenCacheTest {
+
+	private NotificationTokenRepository repository;
+	private NotificationTokenCache cache;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		repository = mock(NotificationTokenRepository.class);
+		HeapBudgetGovernor heapBudget = mock(HeapBudgetGovernor.class);
+		when(heapBudget.track(anyString(), anyDouble(), any())).thenReturn(1L << 30);
+		cache = new NotificationTokenCache(repository, mock(RedisTemplate.class),
+				mock(RedisMessageListenerContainer.class), heapBudget);
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 21600L);
+		ReflectionTestUtils.setField(cache, "maxEntries", 1000);
+		ReflectionTestUtils.setField(cache, "heapPercent", 15.0);
+		cache.subscribe();
+	}
+
+	@Test
+	void loadIsCached() {
+		when(repository.findLatestDevice(1L)).thenReturn(Optional.of(row(1L, "t1", 100)));
+
+		cache.findByCustomerId(1L);
+		assertEquals("t1", cache.findByCustomerId(1L).get().getFcmToken());
+
+		verify(repository, times(1)).findLatestDevice(1L);
+	}
+
+	@Test
+	void invalidationDuringLoadDiscardsTheLoadedRow() {
+		when(repository.findLatestDevice(1L))
+				.thenAnswer(inv -> {
+					// The write commits and is invalidated while the pre-write row is in flight
+					cache.invalidate(1L, 200);
+					return Optional.of(row(1L, "old", 100));
+				})
+				.thenReturn(Optional.of(row(1L, "new", 200)));
+
+		assertEquals("old", cache.findByCustomerId(1L).get().getFcmToken());
+		assertEquals("new", cache.findByCustomerId(1L).get().getFcmToken());
+
+		verify(repository, times(2)).findLatestDevice(1L);
+	}
+
+	@Test
+	void invalidationOfAnotherCustomerDoesNotBlockCaching() {
+		when(repository.findLatestDevice(1L)).thenAnswer(inv -> {
+			cache.invalidate(2L, 200);
+			cache.put(TokenSnapshot.of(3L, "t3", null, "d3", 300));
+			return Optional.of(row(1L, "t1", 100));
+		});
+
+		cache.findByCustomerId(1L);
+		cache.findByCustomerId(1L);
+
+		verify(repository, times(1)).findLatestDevice(1L);
+	}
+
+	@Test
+	void invalidationKeepsEntryThatIsAlreadyNewer() {
+		cache.put(TokenSnapshot.of(1L, "t1", null, "d1", 200));
+
+		cache.invalidate(1L, 100);
+
+		assertEquals("t1", cache.findByCustomerId(1L).get().getFcmToken());
+		verify(repository, times(0)).findLatestDevice(1L);
+	}
+
+	@Test
+	void olderLoadDoesNotReplaceNewerLocalPut() {
+		when(repository.findLatestDevice(1L)).thenAnswer(inv -> {
+			cache.put(TokenSnapshot.of(1L, "new", null, "d1", 200));
+			return Optional.of(row(1L, "old", 100));
+		});
+
+		cache.findByCustomerId(1L);
+
+		assertEquals("new", cache.findByCustomerId(1L).get().getFcmToken());
+	}
+
+	private static NotificationToken row(Long customerId, String fcmToken, long version) {
+		NotificationToken token = new NotificationToken();
+		token.setCustomerId(customerId);
+		token.setFcmToken(fcmToken);
+		token.setDeviceSignature("d" + customerId);
+		token.setUpdateTimestamp(new Timestamp(version));
+		return token;
+	}
+}
@@ -0,0 +1,101 @@
+package com.odin.notification.service.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.enums.NotificationChannel;
+import com.odin.notification.enums.NotificationType;
+import com.odin.notification.service.ChannelDispatcher;
+import com.odin.notification.util.ProviderIoExecutor;
+
+class ReminderSchedulerServiceImplTest {
+
+	private static final String PAYLOAD = "{\"customerId\":42,\"channel\":\"SMS\",\"mobile\":\"919800000001\",\"map\":{}}";
+
+	private RedisTemplate<String, String> redisTemplate;
+	private ZSetOperations<String, String> zSetOps;
+	private ChannelDispatcher smsDispatcher;
+	private ProviderIoExecutor providerIoExecutor;
+	private ReminderSchedulerServiceImpl scheduler;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		redisTemplate = mock(RedisTemplate.class);
+		zSetOps = mock(ZSetOperations.class);
+		when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+		smsDispatcher = mock(ChannelDispatcher.class);
+		when(smsDispatcher.getChannel()).thenReturn(NotificationChannel.SMS);
+		providerIoExecutor = new ProviderIoExecutor(false, 4, 2);
+
+		scheduler = new ReminderSchedulerServiceImpl(redisTemplate, new ObjectMapper(),
+				new ChannelDispatcherRegistry(List.of(smsDispatcher)), providerIoExecutor);
+	}
+
+	@AfterEach
+	void tearDown() {
+		providerIoExecutor.shutdown();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void deliveredReminderIsAcked() {
+		when(smsDispatcher.dispatch(anyList(), eq(NotificationType.REMINDER)))
+				.thenReturn(CompletableFuture.completedFuture(true));
+
+		ReflectionTestUtils.invokeMethod(scheduler, "dispatchPayload", "r-1", PAYLOAD);
+
+		verify(redisTemplate, timeout(5_000)).execute(any(RedisScript.class), anyList(), eq("r-1"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void reminderIsNotAckedUntilTheBulkSendReports() throws Exception {
+		CompletableFuture<Boolean> bulkSend = new CompletableFuture<>();
+		when(smsDispatcher.dispatch(anyList(), eq(NotificationType.REMINDER))).thenReturn(bulkSend);
+
+		ReflectionTestUtils.invokeMethod(scheduler, "dispatchPayload", "r-1", PAYLOAD);
+		verify(smsDispatcher, timeout(5_000)).dispatch(anyList(), eq(NotificationType.REMINDER));
+		Thread.sleep(200);
+		verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyString());
+
+		// The gateway rejected the batch: the claim is left to expire and the reminder is re-driven
+		bulkSend.complete(false);
+		Thread.sleep(200);
+		verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyString());
+		verify(zSetOps, never()).add(anyString(), anyString(), any(Double.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void failedDispatchIsNotAcked() throws Exception {
+		when(smsDispatcher.dispatch(anyList(), eq(NotificationType.REMINDER)))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("gateway down")));
+
+		ReflectionTestUtils.invokeMethod(scheduler, "dispatchPayload", "r-1", PAYLOAD);
+		verify(smsDispatcher, timeout(5_000)).dispatch(anyList(), eq(NotificationType.REMINDER));
+		Thread.sleep(200);
+
+		verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyString());
+	}
+}
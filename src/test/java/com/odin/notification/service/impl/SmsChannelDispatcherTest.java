@@ -0,0 +1,73 @@
+package com.odin.notification.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.odin.notification.dto.NotificationDTO;
+import com.odin.notification.enums.NotificationType;
+import com.odin.notification.util.ProviderIoExecutor;
+
+class SmsChannelDispatcherTest {
+
+	private Fast2SmsOtpService fast2SmsOtpService;
+	private Fast2SmsBulkSender fast2SmsBulkSender;
+	private SmsChannelDispatcher dispatcher;
+
+	@BeforeEach
+	void setUp() {
+		fast2SmsOtpService = mock(Fast2SmsOtpService.class);
+		fast2SmsBulkSender = mock(Fast2SmsBulkSender.class);
+		dispatcher = new SmsChannelDispatcher(fast2SmsOtpService, fast2SmsBulkSender, mock(ProviderIoExecutor.class));
+	}
+
+	@Test
+	void reminderOutcomeWaitsForEveryBulkSend() {
+		CompletableFuture<Boolean> first = new CompletableFuture<>();
+		CompletableFuture<Boolean> second = new CompletableFuture<>();
+		NotificationDTO a = sms("919800000001");
+		NotificationDTO b = sms("919800000002");
+		when(fast2SmsBulkSender.submit(a)).thenReturn(first);
+		when(fast2SmsBulkSender.submit(b)).thenReturn(second);
+
+		CompletableFuture<Boolean> delivered = dispatcher.dispatch(List.of(a, b), NotificationType.REMINDER);
+		first.complete(true);
+		assertFalse(delivered.isDone());
+
+		second.complete(false);
+		assertFalse(delivered.join());
+	}
+
+	@Test
+	void reminderIsDeliveredWhenEveryBulkSendIsAccepted() {
+		when(fast2SmsBulkSender.submit(any(NotificationDTO.class))).thenReturn(CompletableFuture.completedFuture(true));
+
+		assertTrue(dispatcher.dispatch(List.of(sms("919800000001")), NotificationType.REMINDER).join());
+	}
+
+	@Test
+	void rejectedOtpIsReported() {
+		NotificationDTO otp = sms("919800000001");
+		otp.getMap().put("otp", "123456");
+		when(fast2SmsOtpService.sendOtp("919800000001", "123456", otp)).thenReturn(false);
+
+		assertFalse(dispatcher.dispatch(List.of(otp), NotificationType.OTP).join());
+	}
+
+	private static NotificationDTO sms(String mobile) {
+		NotificationDTO notificationDTO = new NotificationDTO();
+		notificationDTO.setCustomerId(42L);
+		notificationDTO.setMobile(mobile);
+		notificationDTO.setMap(new HashMap<>());
+		return notificationDTO;
+	}
+}
@@ -0,0 +1,122 @@
+package com.odin.notification.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.odin.notification.dto.TokenSnapshot;
+
+class TokenWriteBufferTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private NotificationTokenCache tokenCache;
+	private TokenWriteBuffer buffer;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		tokenCache = mock(NotificationTokenCache.class);
+		when(tokenCache.findByCustomerId(1L)).thenReturn(Optional.of(TokenSnapshot.of(1L, "old", null, "d1", 100)));
+		buffer = new TokenWriteBuffer(jdbcTemplate, tokenCache);
+		ReflectionTestUtils.setField(buffer, "batchSize", 1000);
+	}
+
+	@Test
+	void successfulFlushInvalidatesWithoutSeedingBeforehand() {
+		assertTrue(buffer.submit(1L, "d1", "new", null));
+		verify(tokenCache, never()).put(any());
+
+		buffer.flush();
+
+		verify(jdbcTemplate).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+		verify(tokenCache).invalidate(eq(1L), anyLong());
+	}
+
+	@Test
+	void droppedWriteIsInvalidatedAndARetriedSaveIsNotSkipped() {
+		when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+				.thenThrow(new QueryTimeoutException("db down"));
+
+		buffer.submit(1L, "d1", "new", null);
+		buffer.flush();
+		buffer.flush();
+		verify(tokenCache, never()).invalidate(eq(1L), anyLong());
+
+		// Third failure exhausts MAX_FLUSH_ATTEMPTS
+		buffer.flush();
+		verify(tokenCache, times(1)).invalidate(eq(1L), anyLong());
+		verify(tokenCache, never()).put(any());
+
+		// Nothing left to retry, and the cache never claimed the token was stored
+		buffer.flush();
+		verify(jdbcTemplate, times(3)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+		assertTrue(buffer.submit(1L, "d1", "new", null));
+	}
+
+	@Test
+	void unchangedTokenIsSkipped() {
+		assertFalse(buffer.submit(1L, "d1", "old", null));
+		buffer.flush();
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+	}
+
+	@Test
+	void discardDropsOnlyThatCustomersWrites() {
+		buffer.submit(1L, "d1", "new", null);
+		buffer.submit(1L, "d2", "new", null);
+		buffer.submit(2L, "d1", "other", null);
+
+		assertEquals(2, buffer.discard(1L));
+		buffer.flush();
+
+		ArgumentCaptor<BatchPreparedStatementSetter> batch = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+		verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+		assertEquals(1, batch.getValue().getBatchSize());
+		verify(tokenCache, never()).invalidate(eq(1L), anyLong());
+	}
+
+	@Test
+	void discardWaitsForAFlushInProgress() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+			writing.countDown();
+			release.await();
+			return new int[] {1};
+		});
+		buffer.submit(1L, "d1", "new", null);
+		Thread flusher = new Thread(buffer::flush);
+		flusher.start();
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+		CompletableFuture<Integer> discarded = CompletableFuture.supplyAsync(() -> buffer.discard(1L));
+		Thread.sleep(200);
+		assertFalse(discarded.isDone(), "the purge must not run while the batch is being written");
+
+		release.countDown();
+		assertEquals(0, discarded.get(5, TimeUnit.SECONDS));
+		flusher.join(5_000);
+	}
+}
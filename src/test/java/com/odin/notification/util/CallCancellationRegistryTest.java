@@ -0,0 +1,175 @@
+package com.odin.notification.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.odin.notification.constants.ApplicationConstants;
+import com.odin.notification.util.CallCancellationRegistry.InFlightCall;
+import com.odin.notification.util.CallCancellationRegistry.InviteClaim;
+
+class CallCancellationRegistryTest {
+
+	private static final Duration DEDUPE_TTL = Duration.ofSeconds(60);
+
+	private RedisTemplate<String, String> redisTemplate;
+	private ValueOperations<String, String> valueOps;
+	private CallCancellationRegistry registry;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		redisTemplate = mock(RedisTemplate.class);
+		valueOps = mock(ValueOperations.class);
+		when(redisTemplate.opsForValue()).thenReturn(valueOps);
+		when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+		registry = new CallCancellationRegistry(redisTemplate, mock(RedisMessageListenerContainer.class));
+		ReflectionTestUtils.setField(registry, "ttlSeconds", 120L);
+	}
+
+	@Test
+	void callIdIsNotTakenFromMessageId() {
+		assertNull(CallCancellationRegistry.callId(Map.of("messageId", "m-1")));
+		assertEquals("c-1", CallCancellationRegistry.callId(Map.of("messageId", "m-1", "callId", "c-1")));
+	}
+
+	@Test
+	void cancelWithoutCallIdTouchesNothing() {
+		assertFalse(registry.cancel("42", null));
+		verifyNoInteractions(redisTemplate);
+	}
+
+	@Test
+	void firstCancelRecordsAndPublishesOnce() {
+		assertTrue(registry.cancel("42", "c-1"));
+		when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+		assertFalse(registry.cancel("42", "c-1"));
+
+		verify(redisTemplate).convertAndSend(ApplicationConstants.REDIS_CALL_CANCEL_CHANNEL, "42:c-1");
+		assertTrue(registry.isCancelled("42", "c-1"));
+	}
+
+	@Test
+	void localCancelAbortsInFlightSend() throws Exception {
+		InFlightCall call = registry.register("42", "c-1");
+		assertFalse(call.isCancelled());
+
+		registry.cancel("42", "c-1");
+
+		assertTrue(call.isCancelled());
+		assertTrue(call.awaitBackoff(10_000));
+	}
+
+	@Test
+	void publishedCancelAbortsInFlightSendWithoutRedisLookup() throws Exception {
+		InFlightCall call = registry.register("42", "c-1");
+
+		registry.onMessage(new DefaultMessage(ApplicationConstants.REDIS_CALL_CANCEL_CHANNEL.getBytes(StandardCharsets.UTF_8),
+				"42:c-1".getBytes(StandardCharsets.UTF_8)), null);
+
+		assertTrue(call.isCancelled());
+		assertTrue(registry.isCancelled("42", "c-1"));
+		verifyNoInteractions(redisTemplate);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void claimInviteIsOneRoundTrip() {
+		when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L, 1L, 2L);
+
+		assertEquals(InviteClaim.CLAIMED, registry.claimInvite("42", "c-1", "call_invite:42:m-1", DEDUPE_TTL));
+		assertEquals(InviteClaim.DUPLICATE, registry.claimInvite("42", "c-1", "call_invite:42:m-1", DEDUPE_TTL));
+		assertFalse(registry.isCancelled("42", "c-1"));
+		assertEquals(InviteClaim.CANCELLED, registry.claimInvite("42", "c-1", "call_invite:42:m-2", DEDUPE_TTL));
+
+		// A cancel key seen in Redis is remembered, so lane re-checks stay local
+		assertTrue(registry.isCancelled("42", "c-1"));
+		verify(redisTemplate, never()).hasKey(anyString());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void claimInviteSkipsRedisForLocallyCancelledCall() {
+		registry.onMessage(new DefaultMessage(new byte[0], "42:c-1".getBytes(StandardCharsets.UTF_8)), null);
+
+		assertEquals(InviteClaim.CANCELLED, registry.claimInvite("42", "c-1", "call_invite:42:m-1", DEDUPE_TTL));
+		verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void claimInviteWithoutCallIdOnlyDeduplicates() {
+		when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+
+		assertEquals(InviteClaim.CLAIMED, registry.claimInvite("42", null, "call_invite:42:m-1", DEDUPE_TTL));
+		verify(redisTemplate).execute(any(RedisScript.class), anyList(), eq("60"), eq("0"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void claimInviteRingsWhenRedisFails() {
+		when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+				.thenThrow(new IllegalStateException("down"));
+
+		assertEquals(InviteClaim.CLAIMED, registry.claimInvite("42", "c-1", "call_invite:42:m-1", DEDUPE_TTL));
+	}
+
+	@Test
+	void expiredCancellationIsDroppedOnLookup() {
+		ReflectionTestUtils.setField(registry, "ttlSeconds", 0L);
+		registry.cancel("42", "c-1");
+		assertEquals(1, registry.getCancelledCount());
+
+		assertFalse(registry.isCancelled("42", "c-1"));
+		assertEquals(0, registry.getCancelledCount());
+	}
+
+	@Test
+	void sweepDropsOnlyExpiredCancellations() {
+		ReflectionTestUtils.setField(registry, "ttlSeconds", 0L);
+		registry.cancel("42", "c-1");
+		ReflectionTestUtils.setField(registry, "ttlSeconds", 120L);
+		registry.cancel("42", "c-2");
+
+		registry.sweepExpired();
+
+		assertEquals(1, registry.getCancelledCount());
+		assertTrue(registry.isCancelled("42", "c-2"));
+	}
+
+	@Test
+	void releasedClaimsDeleteTheirRedisKeysButKeepTheLocalCancel() {
+		registry.cancel("42", "c-1");
+
+		registry.releaseCancel("42", "c-1");
+		registry.releaseInvite("call_invite:42:m-1");
+
+		verify(redisTemplate).delete("call_cancel:42:c-1");
+		verify(redisTemplate).delete("call_invite:42:m-1");
+		assertTrue(registry.isCancelled("42", "c-1"));
+	}
+}
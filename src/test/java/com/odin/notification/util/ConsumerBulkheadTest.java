@@ -0,0 +1,181 @@
+package com.odin.notification.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+class ConsumerBulkheadTest {
+
+	private static final String LISTENER = "test-listener";
+	private static final String PAUSE_REASON = "bulkhead:test";
+
+	private ListenerPauseController pauseController;
+	private HeapBudgetGovernor heapBudget;
+	private ConsumerBulkhead bulkhead;
+
+	@BeforeEach
+	void setUp() {
+		pauseController = mock(ListenerPauseController.class);
+		heapBudget = mock(HeapBudgetGovernor.class);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (bulkhead != null) {
+			bulkhead.shutdown(5_000);
+		}
+	}
+
+	@Test
+	void recordsOfOneRecipientRunInOrder() throws Exception {
+		bulkhead = bulkhead(4, 400, 10_000);
+		int recipients = 6;
+		int perRecipient = 50;
+		Map<Integer, List<Integer>> seen = new ConcurrentHashMap<>();
+		CountDownLatch done = new CountDownLatch(recipients * perRecipient);
+
+		for (int seq = 0; seq < perRecipient; seq++) {
+			for (int customer = 0; customer < recipients; customer++) {
+				int customerId = customer;
+				int sequence = seq;
+				bulkhead.execute((long) customerId, () -> {
+					seen.computeIfAbsent(customerId, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+				}, done::countDown);
+			}
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		for (int customer = 0; customer < recipients; customer++) {
+			assertEquals(sequence(perRecipient), seen.get(customer), "order for customer " + customer);
+		}
+	}
+
+	@Test
+	void longAndStringKeysShareALane() throws Exception {
+		bulkhead = bulkhead(4, 400, 10_000);
+		List<String> threads = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch done = new CountDownLatch(2);
+
+		bulkhead.execute(42L, () -> threads.add(Thread.currentThread().getName()), done::countDown);
+		bulkhead.execute("42", () -> threads.add(Thread.currentThread().getName()), done::countDown);
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(threads.get(0), threads.get(1));
+	}
+
+	@Test
+	void saturatedLaneBlocksTheListenerThenDrains() throws Exception {
+		// One lane, two queue slots: one record running, two queued, the fourth has to wait
+		bulkhead = bulkhead(1, 2, 10_000);
+		CountDownLatch gate = new CountDownLatch(1);
+		List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+		Acknowledgment[] acks = new Acknowledgment[4];
+		for (int i = 0; i < acks.length; i++) {
+			acks[i] = mock(Acknowledgment.class);
+		}
+
+		bulkhead.execute("42", () -> {
+			await(gate);
+			ran.add(0);
+		}, acks[0], 10);
+		bulkhead.execute("42", () -> ran.add(1), acks[1], 10);
+		bulkhead.execute("42", () -> ran.add(2), acks[2], 10);
+		verify(pauseController).pause(LISTENER, PAUSE_REASON);
+
+		Thread listener = new Thread(() -> bulkhead.execute("42", () -> ran.add(3), acks[3], 10));
+		listener.start();
+		listener.join(300);
+		assertTrue(listener.isAlive(), "listener should wait for a free slot");
+
+		gate.countDown();
+		listener.join(5_000);
+		for (Acknowledgment ack : acks) {
+			verify(ack, timeout(5_000)).acknowledge();
+		}
+
+		assertEquals(sequence(4), ran);
+		for (Acknowledgment ack : acks) {
+			verify(ack, times(1)).acknowledge();
+		}
+		verify(heapBudget, times(4)).reserveInFlight(10);
+		verify(heapBudget, timeout(5_000).times(4)).releaseInFlight(10);
+		// The listener may pause and resume again as the fourth record takes the freed slot
+		verify(pauseController, timeout(5_000).atLeastOnce()).resume(LISTENER, PAUSE_REASON);
+		assertFalse(bulkhead.isPaused());
+		assertEquals(0, bulkhead.getOverflowed());
+	}
+
+	@Test
+	void recordPastMaxBlockIsQueuedOverCapacityInOrder() throws Exception {
+		bulkhead = bulkhead(1, 2, 100);
+		CountDownLatch gate = new CountDownLatch(1);
+		List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+		Acknowledgment overflowAck = mock(Acknowledgment.class);
+
+		bulkhead.execute("42", () -> {
+			await(gate);
+			ran.add(0);
+		}, null);
+		bulkhead.execute("42", () -> ran.add(1), null);
+		bulkhead.execute("42", () -> ran.add(2), null);
+
+		long start = System.nanoTime();
+		bulkhead.execute("42", () -> ran.add(3), overflowAck, 33);
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100, "waited for the budget first");
+		assertEquals(1, bulkhead.getOverflowed());
+		assertEquals(3, bulkhead.getQueued());
+		verify(overflowAck, never()).acknowledge();
+
+		// The budget is spent, so the next record for a full lane goes over capacity at once
+		start = System.nanoTime();
+		bulkhead.execute("42", () -> ran.add(4), null);
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100, "no second wait");
+		assertEquals(2, bulkhead.getOverflowed());
+
+		gate.countDown();
+		verify(overflowAck, timeout(5_000)).acknowledge();
+		verify(heapBudget, timeout(5_000)).releaseInFlight(33);
+		bulkhead.shutdown(5_000);
+		assertEquals(sequence(5), ran);
+		verify(overflowAck, times(1)).acknowledge();
+	}
+
+	private ConsumerBulkhead bulkhead(int lanes, int queueCapacity, long maxBlockMs) {
+		return new ConsumerBulkhead("test", lanes, queueCapacity, List.of(LISTENER), pauseController, heapBudget,
+				maxBlockMs);
+	}
+
+	private static List<Integer> sequence(int size) {
+		List<Integer> sequence = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			sequence.add(i);
+		}
+		return sequence;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.odin.notification.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.odin.notification.constants.ApplicationConstants;
+
+class DownstreamBackpressureTest {
+
+	private static final String LISTENER = ApplicationConstants.LISTENER_ID_NOTIFICATION_EVENTS;
+
+	private ListenerPauseController pauseController;
+	private DownstreamBackpressure backpressure;
+
+	@BeforeEach
+	void setUp() {
+		pauseController = mock(ListenerPauseController.class);
+		backpressure = new DownstreamBackpressure(pauseController);
+		ReflectionTestUtils.setField(backpressure, "enabled", true);
+		ReflectionTestUtils.setField(backpressure, "retryHigh", 3);
+		ReflectionTestUtils.setField(backpressure, "retryLow", 1);
+		ReflectionTestUtils.setField(backpressure, "listenerMaxBlockMs", 60_000L);
+		ReflectionTestUtils.setField(backpressure, "maxPollIntervalMs", 300_000L);
+		backpressure.init();
+	}
+
+	@Test
+	void inFlightWatermarksFollowPushLanes() {
+		backpressure.sizeInFlightFor(16);
+
+		assertEquals(16, backpressure.getInFlightHigh());
+		assertEquals(8, backpressure.getInFlightLow());
+	}
+
+	@Test
+	void configuredInFlightWatermarksAreKept() {
+		ReflectionTestUtils.setField(backpressure, "inFlightHigh", 10);
+		ReflectionTestUtils.setField(backpressure, "inFlightLow", 3);
+		backpressure.sizeInFlightFor(16);
+
+		assertEquals(10, backpressure.getInFlightHigh());
+		assertEquals(3, backpressure.getInFlightLow());
+	}
+
+	@Test
+	void onlyPushListenersAreThrottled() {
+		assertTrue(DownstreamBackpressure.throttles(LISTENER));
+		assertFalse(DownstreamBackpressure.throttles(ApplicationConstants.LISTENER_ID_OTP));
+	}
+
+	@Test
+	void pausesAtHighAndResumesAtLow() {
+		backpressure.sizeInFlightFor(4);
+
+		for (int i = 0; i < 3; i++) {
+			backpressure.sendStarted();
+		}
+		assertFalse(backpressure.isPaused());
+		backpressure.sendStarted();
+		assertTrue(backpressure.isPaused());
+		verify(pauseController).pause(LISTENER, "downstream");
+
+		backpressure.sendFinished();
+		assertTrue(backpressure.isPaused());
+		backpressure.sendFinished();
+		assertFalse(backpressure.isPaused());
+		verify(pauseController).resume(LISTENER, "downstream");
+	}
+
+	@Test
+	void retryDepthAloneHoldsThePause() {
+		backpressure.sizeInFlightFor(4);
+
+		for (int i = 0; i < 3; i++) {
+			backpressure.retryStarted();
+		}
+		assertTrue(backpressure.isPaused());
+
+		backpressure.sendStarted();
+		backpressure.sendFinished();
+		assertTrue(backpressure.isPaused());
+		verify(pauseController, never()).resume(LISTENER, "downstream");
+
+		backpressure.retryFinished();
+		backpressure.retryFinished();
+		assertFalse(backpressure.isPaused());
+	}
+
+	@Test
+	void concurrentSendsEndUnpausedOnceIdle() throws Exception {
+		backpressure.sizeInFlightFor(4);
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < 20_000; i++) {
+					backpressure.sendStarted();
+					backpressure.sendFinished();
+				}
+			});
+			worker.start();
+			workers.add(worker);
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join(TimeUnit.SECONDS.toMillis(30));
+		}
+
+		assertEquals(0, backpressure.getInFlight());
+		assertFalse(backpressure.isPaused(), "paused with nothing in flight");
+	}
+}
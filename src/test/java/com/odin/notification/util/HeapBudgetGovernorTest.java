@@ -0,0 +1,101 @@
+package com.odin.notification.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class HeapBudgetGovernorTest {
+
+	private static final String PAUSE_REASON = "heap-budget:" + HeapBudgetGovernor.LIVE_HEAP;
+
+	private final long maxHeap = Runtime.getRuntime().maxMemory();
+
+	private ListenerPauseController pauseController;
+	private MemoryPoolMXBean oldGen;
+	private HeapBudgetGovernor governor;
+	private final AtomicInteger gcRequests = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		pauseController = mock(ListenerPauseController.class);
+		oldGen = mock(MemoryPoolMXBean.class);
+		when(oldGen.getType()).thenReturn(MemoryType.HEAP);
+		when(oldGen.isValid()).thenReturn(true);
+
+		governor = new HeapBudgetGovernor(pauseController);
+		ReflectionTestUtils.setField(governor, "enabled", true);
+		ReflectionTestUtils.setField(governor, "inFlightPercent", 20.0);
+		ReflectionTestUtils.setField(governor, "liveHeapPercent", 80.0);
+		ReflectionTestUtils.setField(governor, "resumeRatio", 0.7);
+		ReflectionTestUtils.setField(governor, "checkIntervalMs", 60_000L);
+		ReflectionTestUtils.setField(governor, "liveHeapRecheckMs", 0L);
+		governor.memoryPools = () -> List.of(oldGen);
+		governor.gcRequest = gcRequests::incrementAndGet;
+		governor.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		governor.stop();
+	}
+
+	@Test
+	void pausesOverBudgetAndResumesBelowResumeRatio() {
+		usage(0.9, 0.9);
+		governor.evaluate();
+		assertTrue(governor.isExceeded(HeapBudgetGovernor.LIVE_HEAP));
+		verify(pauseController).pauseAll(PAUSE_REASON);
+
+		usage(0.9, 0.3);
+		governor.evaluate();
+		assertFalse(governor.isExceeded(HeapBudgetGovernor.LIVE_HEAP));
+		verify(pauseController).resumeAll(PAUSE_REASON);
+	}
+
+	@Test
+	void staleAfterGcUsageIsRefreshedByARequestedGc() {
+		usage(0.9, 0.9);
+		governor.evaluate();
+		verify(pauseController).pauseAll(PAUSE_REASON);
+
+		// Paused: no allocation and no GC, so the after-GC figure never changes
+		governor.evaluate();
+		assertEquals(0, gcRequests.get());
+		verify(pauseController, never()).resumeAll(PAUSE_REASON);
+
+		// A recheck interval later the governor asks for a GC, which frees the garbage
+		governor.gcRequest = () -> {
+			gcRequests.incrementAndGet();
+			usage(0.3, 0.3);
+		};
+		governor.evaluate();
+		assertEquals(1, gcRequests.get());
+		verify(pauseController).resumeAll(PAUSE_REASON);
+	}
+
+	@Test
+	void liveHeapIsCappedByCurrentUsage() {
+		usage(0.9, 0.2);
+		assertEquals((long) (maxHeap * 0.2), governor.liveHeapBytes());
+	}
+
+	private void usage(double afterGcFraction, double currentFraction) {
+		when(oldGen.getCollectionUsage()).thenReturn(new MemoryUsage(0, (long) (maxHeap * afterGcFraction), maxHeap, maxHeap));
+		when(oldGen.getUsage()).thenReturn(new MemoryUsage(0, (long) (maxHeap * currentFraction), maxHeap, maxHeap));
+	}
+}
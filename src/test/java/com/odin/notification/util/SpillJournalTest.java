@@ -0,0 +1,167 @@
+package com.odin.notification.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SpillJournalTest {
+
+	@TempDir
+	Path dir;
+
+	private SpillJournal journal;
+
+	@AfterEach
+	void tearDown() {
+		if (journal != null) {
+			journal.close();
+		}
+	}
+
+	@Test
+	void readsRecordsInAppendOrder() throws Exception {
+		journal = open(4096, 4);
+		for (int i = 0; i < 5; i++) {
+			assertTrue(journal.append("topic", "key-" + i, value(i)));
+		}
+		journal.append("topic", null, value(5));
+
+		List<SpillJournal.Record> records = journal.read(10);
+
+		assertEquals(List.of("0", "1", "2", "3", "4", "5"), values(records));
+		assertEquals("key-0", records.get(0).getKey());
+		assertNull(records.get(5).getKey());
+		assertEquals("topic", records.get(0).getTopic());
+	}
+
+	@Test
+	void commitAdvancesAndDrainsTheJournal() throws Exception {
+		journal = open(4096, 4);
+		journal.append("topic", "k", value(0));
+		journal.append("topic", "k", value(1));
+
+		List<SpillJournal.Record> first = journal.read(1);
+		assertEquals(List.of("0"), values(first));
+		// Uncommitted records are read again
+		assertEquals(List.of("0", "1"), values(journal.read(10)));
+
+		journal.commit(first.get(0));
+		assertEquals(List.of("1"), values(journal.read(10)));
+		assertTrue(journal.hasPending());
+
+		journal.commit(journal.read(10).get(0));
+		assertTrue(journal.read(10).isEmpty());
+		assertFalse(journal.hasPending());
+	}
+
+	@Test
+	void rollsSegmentsAndDeletesThemOnceReplayed() throws Exception {
+		journal = open(128, 16);
+		for (int i = 0; i < 20; i++) {
+			assertTrue(journal.append("topic", "k", value(i)));
+		}
+		assertTrue(journal.getSegmentCount() > 1);
+
+		List<String> replayed = new ArrayList<>();
+		List<SpillJournal.Record> batch;
+		while (!(batch = journal.read(3)).isEmpty()) {
+			replayed.addAll(values(batch));
+			journal.commit(batch.get(batch.size() - 1));
+		}
+
+		assertEquals(20, replayed.size());
+		for (int i = 0; i < 20; i++) {
+			assertEquals(String.valueOf(i), replayed.get(i));
+		}
+		assertEquals(1, journal.getSegmentCount());
+		assertEquals(1, segmentFiles().size());
+	}
+
+	@Test
+	void refusesAppendsOnceMaxSegmentsAreFull() throws Exception {
+		journal = open(128, 2);
+		int accepted = 0;
+		while (journal.append("topic", "k", value(accepted))) {
+			accepted++;
+		}
+		assertTrue(accepted > 0);
+		assertEquals(1, journal.getRefusedCount());
+		assertEquals(2, journal.getSegmentCount());
+	}
+
+	@Test
+	void resumesFromCheckpointAfterReopen() throws Exception {
+		journal = open(4096, 4);
+		for (int i = 0; i < 4; i++) {
+			journal.append("topic", "k", value(i));
+		}
+		journal.commit(journal.read(2).get(1));
+		journal.close();
+
+		journal = open(4096, 4);
+		assertEquals(List.of("2", "3"), values(journal.read(10)));
+		journal.append("topic", "k", value(4));
+		assertEquals(List.of("2", "3", "4"), values(journal.read(10)));
+	}
+
+	@Test
+	void skipsRecordWithBadCrc() throws Exception {
+		journal = open(4096, 4);
+		for (int i = 0; i < 3; i++) {
+			journal.append("topic", "k", value(i));
+		}
+		int secondRecordOffset = 8 + journal.read(1).get(0).getValue().length + 2 + 5 + 2 + 1;
+		journal.close();
+
+		try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+			file.seek(secondRecordOffset + 8 + 2);
+			file.write('X');
+		}
+
+		journal = open(4096, 4);
+		assertEquals(List.of("0"), values(journal.read(10)));
+		journal.commit(journal.read(10).get(0));
+		assertEquals(List.of("2"), values(journal.read(10)));
+		assertEquals(1, journal.getCorruptCount());
+	}
+
+	private SpillJournal open(int segmentBytes, int maxSegments) throws Exception {
+		SpillJournal opened = new SpillJournal();
+		ReflectionTestUtils.setField(opened, "dir", dir.toString());
+		ReflectionTestUtils.setField(opened, "segmentBytes", segmentBytes);
+		ReflectionTestUtils.setField(opened, "maxSegments", maxSegments);
+		opened.open();
+		return opened;
+	}
+
+	private List<Path> segmentFiles() throws Exception {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(f -> f.getFileName().toString().endsWith(".log")).sorted().collect(Collectors.toList());
+		}
+	}
+
+	private static byte[] value(int i) {
+		return String.valueOf(i).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> values(List<SpillJournal.Record> records) {
+		return records.stream()
+				.map(r -> new String(r.getValue(), StandardCharsets.UTF_8))
+				.collect(Collectors.toList());
+	}
+}